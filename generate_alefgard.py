@@ -136,6 +136,24 @@ grid[115][115] = TILE_CAVE # Holy Shrine
 # Fill gaps between rects with Sea to refine shapes? 
 # The rect approach is blocky. Let's just leave it as 'close enough' for now.
 
+# --- ENCOUNTER ZONES ---
+# One zone id per 8x8 block of tiles (ZONE_CELL_SIZE in fieldMapData.java),
+# written as the "zones" section after the tile rows. The zone ids pick the
+# monster tables in data/encounters.txt: zones grow one step harder every two
+# blocks away from Tantegel, up to zone 3, and Charlock's block is always zone 3.
+ZONE_CELL_SIZE = 8
+ZONE_GRID_WIDTH = WIDTH // ZONE_CELL_SIZE
+ZONE_COUNT = 4
+
+def zone_cell(r, c):
+    return r // ZONE_CELL_SIZE, c // ZONE_CELL_SIZE
+
+start_zr, start_zc = zone_cell(56, 56) # Tantegel
+zones = [[min(ZONE_COUNT - 1, max(abs(zr - start_zr), abs(zc - start_zc)) // 2)
+          for zc in range(ZONE_GRID_WIDTH)] for zr in range(ZONE_GRID_WIDTH)]
+charlock_zr, charlock_zc = zone_cell(65, 65)
+zones[charlock_zr][charlock_zc] = ZONE_COUNT - 1
+
 # OUTPUT
 output_path = os.path.join("src", "main", "resources", "alefgard_data.txt")
 os.makedirs(os.path.dirname(output_path), exist_ok=True)
@@ -144,5 +162,8 @@ with open(output_path, "w") as f:
     for row in grid:
         line = " ".join(str(tile) for tile in row)
         f.write(line + "\n")
+    f.write("zones\n")
+    for row in zones:
+        f.write(" ".join(str(zone) for zone in row) + "\n")
 
 print(f"Map data generated at {output_path}")
@@ -22,6 +22,9 @@ copy "src\main\resources\images\*" "target\classes\images\" >nul 2>&1
 if not exist "target\classes\sounds" mkdir "target\classes\sounds"
 copy "src\main\resources\sounds\*" "target\classes\sounds\" >nul 2>&1
 
+if not exist "target\classes\data" mkdir "target\classes\data"
+copy "src\main\resources\data\*" "target\classes\data\" >nul 2>&1
+
 copy "src\main\resources\alefgard_data.txt" "target\classes\" >nul 2>&1
 
 REM Run the game
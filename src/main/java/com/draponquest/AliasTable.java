@@ -0,0 +1,102 @@
+package com.draponquest;
+
+import java.util.Random;
+
+/**
+ * Samples from a fixed discrete distribution in constant time using Vose's
+ * alias method. Building the table is linear in the number of outcomes; each
+ * sample afterwards costs one random column and one biased coin flip.
+ *
+ * @author Modern Migration
+ */
+public class AliasTable {
+    /** The chance of keeping column {@code i} rather than taking its alias. */
+    private final double[] probability;
+    /** The outcome taken when column {@code i} loses its coin flip. */
+    private final int[] alias;
+
+    /**
+     * Builds an alias table for the given weights. Weights need not sum to one;
+     * outcomes with a weight of zero are never sampled.
+     *
+     * @param weights The relative weight of each outcome.
+     * @throws IllegalArgumentException If there are no weights, a weight is
+     *                                  negative, or all weights are zero.
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("no outcomes");
+        }
+        double total = 0;
+        for (double w : weights) {
+            if (w < 0 || Double.isNaN(w)) {
+                throw new IllegalArgumentException("bad weight " + w);
+            }
+            total += w;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("all weights are zero");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        // Pair each under-full column with an over-full one that tops it up
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is full, up to rounding error
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+    }
+
+    /**
+     * Draws an outcome.
+     *
+     * @param random The random number source.
+     * @return The index of the sampled outcome.
+     */
+    public int sample(Random random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Returns the number of outcomes.
+     *
+     * @return The number of weights the table was built from.
+     */
+    public int size() {
+        return probability.length;
+    }
+}
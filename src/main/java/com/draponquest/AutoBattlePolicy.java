@@ -0,0 +1,107 @@
+package com.draponquest;
+
+/**
+ * Decides the player's command each round when {@link BattleManager} fights a
+ * battle by itself: run if the monsters could knock the player out this
+ * round, cast Heal when HP is low, and otherwise attack the weakest monster.
+ * The thresholds come from the {@value #PROPERTY} system property, for
+ * example {@code -Ddraponquest.autoBattle=heal=30,flee=100}; setting it also
+ * turns auto battle on from the start.
+ *
+ * @author Modern Migration
+ */
+public class AutoBattlePolicy {
+    /** System property turning auto battle on and setting its thresholds. */
+    public static final String PROPERTY = "draponquest.autoBattle";
+
+    /** Attack the weakest monster. */
+    public static final int ATTACK = 0;
+    /** Cast Heal. */
+    public static final int HEAL = 1;
+    /** Try to run away. */
+    public static final int RUN = 2;
+
+    /** Default HP percentage under which Heal is cast. */
+    private static final int DEFAULT_HEAL_PERCENT = 30;
+    /** Default share of the player's HP, in percent, the monsters' next round must threaten to run. */
+    private static final int DEFAULT_FLEE_PERCENT = 100;
+
+    private final int healBelowPercent;
+    private final int fleePercent;
+
+    /**
+     * Constructs a policy.
+     *
+     * @param healBelowPercent Cast Heal when HP is below this percentage of
+     *                         max HP; 0 never heals.
+     * @param fleePercent      Run when the monsters still standing could deal
+     *                         at least this percentage of the player's current
+     *                         HP in one round; 0 never runs.
+     */
+    public AutoBattlePolicy(int healBelowPercent, int fleePercent) {
+        this.healBelowPercent = healBelowPercent;
+        this.fleePercent = fleePercent;
+    }
+
+    /** Constructs a policy with the default thresholds. */
+    public AutoBattlePolicy() {
+        this(DEFAULT_HEAL_PERCENT, DEFAULT_FLEE_PERCENT);
+    }
+
+    /**
+     * Reads the policy from the {@value #PROPERTY} system property: a comma
+     * separated list of {@code heal=<percent>} and {@code flee=<percent>},
+     * where missing values keep their defaults.
+     *
+     * @return The policy, or null if the property is not set.
+     */
+    public static AutoBattlePolicy fromProperty() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null) {
+            return null;
+        }
+        int heal = DEFAULT_HEAL_PERCENT;
+        int flee = DEFAULT_FLEE_PERCENT;
+        for (String setting : value.split(",")) {
+            String[] pair = setting.trim().split("=");
+            if (pair.length != 2) {
+                continue; // e.g. "true"
+            }
+            try {
+                switch (pair[0].trim()) {
+                    case "heal":
+                        heal = Integer.parseInt(pair[1].trim());
+                        break;
+                    case "flee":
+                        flee = Integer.parseInt(pair[1].trim());
+                        break;
+                    default:
+                        System.err.println("Unknown auto battle setting: " + setting);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid auto battle setting: " + setting);
+            }
+        }
+        return new AutoBattlePolicy(heal, flee);
+    }
+
+    /**
+     * Chooses the player's command for a round.
+     *
+     * @param hp       The player's current HP.
+     * @param maxHP    The player's max HP.
+     * @param mp       The player's current MP.
+     * @param incoming The damage the monsters still standing would deal if
+     *                 they all hit this round.
+     * @return {@link #ATTACK}, {@link #HEAL} or {@link #RUN}.
+     */
+    public int decide(int hp, int maxHP, int mp, int incoming) {
+        if (fleePercent > 0 && (long) incoming * 100 >= (long) hp * fleePercent) {
+            return RUN;
+        }
+        if ((long) hp * 100 < (long) maxHP * healBelowPercent && mp >= BattleRules.HEAL_COST) {
+            return HEAL;
+        }
+        return ATTACK;
+    }
+}
@@ -0,0 +1,81 @@
+package com.draponquest;
+
+import java.util.Random;
+
+/**
+ * The player's side of one battle: the combatant's stats, the random stream
+ * the battle draws from, and the sink its events go to. A
+ * {@link BattleManager} reads and changes only its context, never global game
+ * state, so any number of battles can run side by side, each on its own
+ * context and manager, for example on a thread pool in a simulator or test.
+ * The game copies its player into a context when a battle starts and copies
+ * the stats back as the battle goes on (see {@link GameBattleEvents}).
+ *
+ * @author Modern Migration
+ */
+public class BattleContext {
+    /** The player's level, which scales the monsters. */
+    int level;
+    /** The player's current hit points. */
+    int hp;
+    /** The player's maximum hit points. */
+    int maxHP;
+    /** The player's current magic points. */
+    int mp;
+    /** The player's attack power. */
+    int attack;
+    /** The player's defense power. */
+    int defense;
+    /** The player's agility, which decides turn order. */
+    int agility;
+    /** The player's status effects. */
+    final StatusEffects status;
+    /** The random stream for every roll of the battle. */
+    final Random random;
+    /** Where the battle's events go. */
+    final BattleEvents events;
+
+    /**
+     * Constructs a context.
+     *
+     * @param level    The player's level.
+     * @param hp       The player's current hit points.
+     * @param maxHP    The player's maximum hit points.
+     * @param mp       The player's current magic points.
+     * @param attack   The player's attack power.
+     * @param defense  The player's defense power.
+     * @param agility  The player's agility.
+     * @param status   The player's status effects, owned by the context.
+     * @param random   The random stream for the battle; not shared with
+     *                 battles running on other threads.
+     * @param events   Where the battle's events go.
+     */
+    public BattleContext(int level, int hp, int maxHP, int mp, int attack, int defense, int agility,
+            StatusEffects status, Random random, BattleEvents events) {
+        this.level = level;
+        this.hp = hp;
+        this.maxHP = maxHP;
+        this.mp = mp;
+        this.attack = attack;
+        this.defense = defense;
+        this.agility = agility;
+        this.status = status;
+        this.random = random;
+        this.events = events;
+    }
+
+    /** @return The player's current hit points. */
+    public int getHP() {
+        return hp;
+    }
+
+    /** @return The player's current magic points. */
+    public int getMP() {
+        return mp;
+    }
+
+    /** @return The player's status effects. */
+    public StatusEffects getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,78 @@
+package com.draponquest;
+
+/**
+ * Receives what happens in a battle run by {@link BattleManager}: messages,
+ * sounds and music to play, and how the battle ends. The game shows these on
+ * screen through {@link GameBattleEvents}; a headless sink can ignore most of
+ * them, diagnostics included, and drive the battle on its own.
+ * <p>
+ * A battle goes on only when the continuation passed to {@link #message} is
+ * run. Running it straight from {@code message} works, but nests one call per
+ * message; a headless sink that plays out long battles should store it and
+ * run it from a loop instead.
+ *
+ * @author Modern Migration
+ */
+public interface BattleEvents {
+    /**
+     * Shows a battle message.
+     *
+     * @param text The message, with the control characters of
+     *             {@link DraponQuestFX#displayMessage(String, Runnable)}.
+     * @param next What to run once the message has been read, or null.
+     */
+    void message(String text, Runnable next);
+
+    /**
+     * Plays a sound effect.
+     *
+     * @param sound One of the {@code AudioManager.SOUND_} names.
+     */
+    void sound(String sound);
+
+    /**
+     * Switches the music.
+     *
+     * @param track One of the {@code AudioManager.MUSIC_} names.
+     */
+    void music(String track);
+
+    /**
+     * Lets the player pick a spell; the choice comes back through
+     * {@link BattleManager#selectSpell}.
+     */
+    void magicMenu();
+
+    /**
+     * Hands over an item a defeated monster dropped.
+     *
+     * @param item The item.
+     */
+    void itemDropped(Item item);
+
+    /**
+     * Reports that every monster is down, just before the victory message.
+     *
+     * @param xp   The experience the group was worth.
+     * @param gold The gold the group was worth.
+     */
+    void battleWon(int xp, int gold);
+
+    /**
+     * Reports that the player is down, just after the defeat message.
+     */
+    void battleLost();
+
+    /**
+     * Reports that the last message of a won or escaped battle has been read.
+     */
+    void battleLeft();
+
+    /**
+     * Receives a diagnostic line about the battle's progress. The game prints
+     * it; headless sinks running many battles at once should drop it.
+     *
+     * @param line The diagnostic.
+     */
+    void trace(String line);
+}
@@ -0,0 +1,394 @@
+package com.draponquest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records what happens in battles as fixed-width binary records for offline
+ * analysis (see {@link BattleLogReader}). Logging a record only copies three
+ * longs into a ring buffer; a background thread drains the ring in batches
+ * and appends the records to numbered files in a log directory, starting a new
+ * file when one grows past a size limit and deleting the oldest ones beyond a
+ * count. If the writer falls behind and the ring fills up, new records are
+ * dropped and counted rather than making the game wait.
+ * <p>
+ * Every record is {@value #RECORD_SIZE} bytes, big-endian:
+ * <pre>
+ * long  ticks      System.nanoTime() when the record was logged
+ * int   battle     the battle's id
+ * byte  type       one of the TYPE_ constants
+ * byte  actor      0 for the player, slot + 1 for a monster
+ * short monster    the roster id of the monster involved, or 0
+ * int   value      depends on the type
+ * int   extra      depends on the type
+ * </pre>
+ * Each file starts with a header of the same size: the magic {@code DQBL},
+ * the format version and record size as shorts, then the wall clock time in
+ * milliseconds and the ticks at which the file was opened, to place the
+ * ticks of its records in time.
+ * <p>
+ * Logging is off unless the {@value #DIR_PROPERTY} system property names a
+ * directory; {@link #DISABLED} logs nothing.
+ *
+ * @author Modern Migration
+ */
+public class BattleLog {
+    /** System property naming the directory battle logs are written to. */
+    public static final String DIR_PROPERTY = "draponquest.battleLogDir";
+
+    /** Size of a record, and of a file header, in bytes. */
+    public static final int RECORD_SIZE = 24;
+    /** First bytes of every log file: "DQBL". */
+    public static final int MAGIC = 0x4451424C;
+    /** Version of the record format; 2 records item ids in drops. */
+    public static final int VERSION = 2;
+    /** Start of log file names, followed by a six digit number. */
+    public static final String FILE_PREFIX = "battles-";
+    /** End of log file names. */
+    public static final String FILE_SUFFIX = ".bin";
+
+    /** A battle starts. value: number of monsters, extra: player level. */
+    public static final int TYPE_START = 1;
+    /** A monster joins the battle. value: its HP, extra: its attack. */
+    public static final int TYPE_ENEMY = 2;
+    /**
+     * A combatant acts. value: one of the ACTION_ codes, extra: the actor
+     * attacked, the spell cast, whether the escape worked or the status
+     * effect that cost the turn.
+     */
+    public static final int TYPE_ACTION = 3;
+    /** A combatant takes damage. value: damage, extra: HP left. */
+    public static final int TYPE_DAMAGE = 4;
+    /** The player is healed. value: HP restored, extra: HP after. */
+    public static final int TYPE_HEAL = 5;
+    /** A status changes. value: the {@link StatusEffects} id, extra: 1 if gained, 0 if lost. */
+    public static final int TYPE_STATUS = 6;
+    /** A monster is defeated. value: 0, extra: 0. */
+    public static final int TYPE_DEFEAT = 7;
+    /**
+     * A monster drops an item. value: the item id (see
+     * {@link MonsterCatalog#dropId(String)}), extra: 0.
+     */
+    public static final int TYPE_DROP = 8;
+    /** The player is rewarded. value: XP, extra: gold. */
+    public static final int TYPE_REWARD = 9;
+    /** The battle ends. value: one of the OUTCOME_ codes, extra: rounds fought. */
+    public static final int TYPE_END = 10;
+
+    /** Action code of an attack. */
+    public static final int ACTION_ATTACK = 0;
+    /** Action code of a spell; extra is the spell number. */
+    public static final int ACTION_SPELL = 1;
+    /** Action code of an escape attempt; extra is 1 if it worked. */
+    public static final int ACTION_RUN = 2;
+    /** Action code of a turn lost to a status effect; extra is the {@link StatusEffects} id. */
+    public static final int ACTION_SKIP = 3;
+
+    /** Outcome code of a won battle. */
+    public static final int OUTCOME_WON = 0;
+    /** Outcome code of a lost battle. */
+    public static final int OUTCOME_LOST = 1;
+    /** Outcome code of an escaped battle. */
+    public static final int OUTCOME_ESCAPED = 2;
+
+    /** A log that records nothing. */
+    public static final BattleLog DISABLED = new BattleLog();
+
+    /** Records the ring holds; a power of two. */
+    private static final int RING_RECORDS = 1 << 14;
+    /** Longs per record in the ring. */
+    private static final int RECORD_LONGS = RECORD_SIZE / Long.BYTES;
+    /** Size at which a log file is closed and the next one started. */
+    private static final long DEFAULT_FILE_BYTES = 4L << 20;
+    /** Log files kept; older ones are deleted. */
+    private static final int DEFAULT_FILES_KEPT = 8;
+    /** How long the writer sleeps when the ring is empty. */
+    private static final long IDLE_NANOS = 1_000_000L;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long maxFileBytes;
+    private final int filesKept;
+
+    /** Record contents, {@link #RECORD_LONGS} longs per slot. */
+    private final long[] ring;
+    /** Per slot, the sequence number of the record in it plus one once written. */
+    private final AtomicLongArray published;
+    /** Sequence number of the next record to claim. */
+    private final AtomicLong head = new AtomicLong();
+    /** Sequence number of the next record to write out; advanced by the writer only. */
+    private volatile long tail;
+    /** Records dropped because the ring was full. */
+    private final AtomicLong dropped = new AtomicLong();
+    /** Hands out battle ids. */
+    private final AtomicInteger battleIds = new AtomicInteger();
+
+    private volatile boolean closed;
+    private Thread writer;
+    private FileChannel channel;
+    private int fileIndex;
+    private long fileBytes;
+
+    private BattleLog() {
+        this.enabled = false;
+        this.dir = null;
+        this.maxFileBytes = 0;
+        this.filesKept = 0;
+        this.ring = null;
+        this.published = null;
+    }
+
+    /**
+     * Constructs a log writing to a directory. Call {@link #start()} to begin
+     * writing.
+     *
+     * @param dir          The directory the files go to; created if missing.
+     * @param maxFileBytes The size at which a file is closed and the next one
+     *                     started.
+     * @param filesKept    The number of files kept; older ones are deleted.
+     */
+    public BattleLog(Path dir, long maxFileBytes, int filesKept) {
+        this.enabled = true;
+        this.dir = dir;
+        this.maxFileBytes = Math.max(RECORD_SIZE * 2, maxFileBytes);
+        this.filesKept = Math.max(1, filesKept);
+        this.ring = new long[RING_RECORDS * RECORD_LONGS];
+        this.published = new AtomicLongArray(RING_RECORDS);
+    }
+
+    /**
+     * Opens the log named by the {@value #DIR_PROPERTY} system property.
+     *
+     * @return The running log, or {@link #DISABLED} if the property is not set
+     *         or the directory cannot be written.
+     */
+    public static BattleLog openFromProperty() {
+        String dir = System.getProperty(DIR_PROPERTY);
+        if (dir == null || dir.trim().isEmpty()) {
+            return DISABLED;
+        }
+        BattleLog log = new BattleLog(Paths.get(dir.trim()), DEFAULT_FILE_BYTES, DEFAULT_FILES_KEPT);
+        try {
+            log.start();
+            return log;
+        } catch (IOException e) {
+            System.err.println("Battle log disabled: " + e.getMessage());
+            return DISABLED;
+        }
+    }
+
+    /**
+     * Opens the first file and starts the writer thread, which also flushes
+     * the ring when the JVM exits.
+     *
+     * @throws IOException If the directory or file cannot be created.
+     */
+    public void start() throws IOException {
+        Files.createDirectories(dir);
+        fileIndex = highestFileIndex(dir);
+        openNextFile();
+        writer = new Thread(this::writeLoop, "battle-log");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "battle-log-flush"));
+        System.out.println("Logging battles to " + dir.toAbsolutePath());
+    }
+
+    /** @return True if records are being written. */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** @return A new battle id. */
+    public int nextBattleId() {
+        return battleIds.incrementAndGet();
+    }
+
+    /** @return The number of records dropped because the ring was full. */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Logs a record. Safe to call from any thread; never blocks.
+     *
+     * @param battle  The battle's id.
+     * @param type    One of the {@code TYPE_} constants.
+     * @param actor   0 for the player, slot + 1 for a monster.
+     * @param monster The roster id of the monster involved, or 0.
+     * @param value   Depends on the type.
+     * @param extra   Depends on the type.
+     */
+    public void log(int battle, int type, int actor, int monster, int value, int extra) {
+        if (!enabled) {
+            return;
+        }
+        long seq;
+        do {
+            seq = head.get();
+            if (seq - tail >= RING_RECORDS) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!head.compareAndSet(seq, seq + 1));
+        int slot = (int) seq & (RING_RECORDS - 1);
+        int i = slot * RECORD_LONGS;
+        ring[i] = System.nanoTime();
+        ring[i + 1] = ((long) battle << 32) | ((type & 0xFFL) << 24) | ((actor & 0xFFL) << 16)
+                | (monster & 0xFFFFL);
+        ring[i + 2] = ((long) value << 32) | (extra & 0xFFFFFFFFL);
+        published.lazySet(slot, seq + 1);
+    }
+
+    /**
+     * Writes out what is left in the ring, stops the writer and closes the
+     * current file.
+     */
+    public synchronized void close() {
+        if (!enabled || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.get() > 0) {
+            System.err.println("Battle log dropped " + dropped.get() + " records");
+        }
+    }
+
+    private void writeLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 1024);
+        try {
+            while (true) {
+                boolean stopping = closed;
+                int drained = drain(buffer);
+                if (drained > 0) {
+                    flush(buffer);
+                } else if (stopping) {
+                    break;
+                } else {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Battle log stopped: " + e.getMessage());
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing battle log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Copies the published records at the tail of the ring into the buffer
+     * until it is full or a record is not yet written.
+     *
+     * @return The number of records copied.
+     */
+    private int drain(ByteBuffer buffer) {
+        long seq = tail;
+        int count = 0;
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int slot = (int) seq & (RING_RECORDS - 1);
+            if (published.get(slot) != seq + 1) {
+                break;
+            }
+            int i = slot * RECORD_LONGS;
+            buffer.putLong(ring[i]).putLong(ring[i + 1]).putLong(ring[i + 2]);
+            seq++;
+            count++;
+        }
+        tail = seq;
+        return count;
+    }
+
+    /**
+     * Writes the buffered records to the current file, starting a new file
+     * first if this one is full.
+     */
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        if (fileBytes + buffer.remaining() > maxFileBytes) {
+            channel.close();
+            openNextFile();
+        }
+        while (buffer.hasRemaining()) {
+            fileBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Opens the next numbered file, writes its header, and deletes the files
+     * that fall out of the kept window.
+     */
+    private void openNextFile() throws IOException {
+        fileIndex++;
+        channel = FileChannel.open(dir.resolve(fileName(fileIndex)), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+        header.putInt(MAGIC).putShort((short) VERSION).putShort((short) RECORD_SIZE)
+                .putLong(System.currentTimeMillis()).putLong(System.nanoTime()).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        fileBytes = RECORD_SIZE;
+        for (int old = fileIndex - filesKept; old > 0; old--) {
+            if (!Files.deleteIfExists(dir.resolve(fileName(old)))) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @param index The file's number.
+     * @return The name of the log file with that number.
+     */
+    static String fileName(int index) {
+        return String.format("%s%06d%s", FILE_PREFIX, index, FILE_SUFFIX);
+    }
+
+    /**
+     * @param name A file name.
+     * @return The number of the log file with that name, or -1 if it is not a
+     *         log file.
+     */
+    static int fileIndex(String name) {
+        if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Returns the highest log file number in a directory, so numbering continues after it. */
+    private static int highestFileIndex(Path dir) {
+        int highest = 0;
+        File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                highest = Math.max(highest, fileIndex(file.getName()));
+            }
+        }
+        return highest;
+    }
+}
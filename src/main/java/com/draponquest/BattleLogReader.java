@@ -0,0 +1,226 @@
+package com.draponquest;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the files written by {@link BattleLog} and prints totals: battle
+ * outcomes, rounds and duration, and for each monster how often it appeared,
+ * how much damage it dealt and took, how often it was defeated and how many
+ * items it dropped, and how often each item dropped. Run with:
+ * {@code java -cp target/classes com.draponquest.BattleLogReader <log directory>}
+ *
+ * @author Modern Migration
+ */
+public class BattleLogReader {
+    /** Monster ids are stored in 16 bits. */
+    private static final int MAX_MONSTERS = 1 << 16;
+    /** The most item ids counted separately. */
+    private static final int MAX_ITEMS = 256;
+
+    private long battles;
+    private final long[] outcomes = new long[3];
+    private long rounds;
+    private long ticks;
+    /** Battles whose start and end were both read, and so are in {@link #ticks}. */
+    private long timed;
+    private long playerDamageTaken;
+    private long playerHealed;
+    /** Times each status effect was gained, by effect id. */
+    private final long[] statusGained = new long[Integer.SIZE];
+    private long xp;
+    private long gold;
+    private long records;
+    private long unknownRecords;
+
+    private final long[] appeared = new long[MAX_MONSTERS];
+    private final long[] damageDealt = new long[MAX_MONSTERS];
+    private final long[] damageTaken = new long[MAX_MONSTERS];
+    private final long[] defeated = new long[MAX_MONSTERS];
+    private final long[] drops = new long[MAX_MONSTERS];
+    private int highestMonster = -1;
+    /** Drops of each item, by item id. */
+    private final long[] itemDrops = new long[MAX_ITEMS];
+
+    /**
+     * Start ticks of the battles in progress in the file being read, by
+     * battle id. Ids start over each session, so the map is cleared at every
+     * file header; a battle that spans a file rotation is left untimed.
+     */
+    private final Map<Integer, Long> started = new HashMap<>();
+
+    /**
+     * Reads every log file in a directory, oldest first.
+     *
+     * @param dir The log directory.
+     * @throws IOException If a file cannot be read.
+     */
+    public void readDirectory(File dir) throws IOException {
+        File[] files = dir.listFiles((d, name) -> BattleLog.fileIndex(name) >= 0);
+        if (files == null) {
+            throw new IOException("Not a directory: " + dir);
+        }
+        Arrays.sort(files, (a, b) -> Integer.compare(BattleLog.fileIndex(a.getName()),
+                BattleLog.fileIndex(b.getName())));
+        for (File file : files) {
+            readFile(file);
+        }
+    }
+
+    /**
+     * Reads one log file. A record cut short at the end, as left by a crash,
+     * is ignored.
+     *
+     * @param file The file.
+     * @throws IOException If the file cannot be read or is not a battle log.
+     */
+    public void readFile(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            int magic = in.readInt();
+            int version = in.readShort();
+            int recordSize = in.readShort();
+            if (magic != BattleLog.MAGIC || version != BattleLog.VERSION || recordSize != BattleLog.RECORD_SIZE) {
+                throw new IOException("Not a battle log: " + file);
+            }
+            in.readLong(); // wall clock
+            in.readLong(); // ticks
+            started.clear();
+            while (true) {
+                long time;
+                long ids;
+                long values;
+                try {
+                    time = in.readLong();
+                    ids = in.readLong();
+                    values = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                record(time, (int) (ids >>> 32), (int) (ids >>> 24) & 0xFF, (int) (ids >>> 16) & 0xFF,
+                        (int) ids & 0xFFFF, (int) (values >>> 32), (int) values);
+            }
+        }
+    }
+
+    /**
+     * Adds one record to the totals.
+     */
+    private void record(long time, int battle, int type, int actor, int monster, int value, int extra) {
+        records++;
+        switch (type) {
+            case BattleLog.TYPE_START:
+                battles++;
+                started.put(battle, time);
+                break;
+            case BattleLog.TYPE_ENEMY:
+                appeared[monster]++;
+                highestMonster = Math.max(highestMonster, monster);
+                break;
+            case BattleLog.TYPE_ACTION:
+                break;
+            case BattleLog.TYPE_DAMAGE:
+                if (actor == 0) {
+                    playerDamageTaken += value;
+                    damageDealt[monster] += value;
+                } else {
+                    damageTaken[monster] += value;
+                }
+                break;
+            case BattleLog.TYPE_HEAL:
+                playerHealed += value;
+                break;
+            case BattleLog.TYPE_STATUS:
+                if (extra == 1 && value >= 0 && value < statusGained.length) {
+                    statusGained[value]++;
+                }
+                break;
+            case BattleLog.TYPE_DEFEAT:
+                defeated[monster]++;
+                break;
+            case BattleLog.TYPE_DROP:
+                drops[monster]++;
+                if (value >= 0 && value < itemDrops.length) {
+                    itemDrops[value]++;
+                }
+                break;
+            case BattleLog.TYPE_REWARD:
+                xp += value;
+                gold += extra;
+                break;
+            case BattleLog.TYPE_END:
+                if (value >= 0 && value < outcomes.length) {
+                    outcomes[value]++;
+                }
+                rounds += extra;
+                Long start = started.remove(battle);
+                if (start != null) {
+                    ticks += time - start;
+                    timed++;
+                }
+                break;
+            default:
+                unknownRecords++;
+        }
+    }
+
+    /**
+     * Prints the totals.
+     *
+     * @param monsters The monster roster, for names; may be shorter than the
+     *                 ids in the log.
+     */
+    public void print(Monster[] monsters) {
+        long ended = outcomes[0] + outcomes[1] + outcomes[2];
+        System.out.printf("Records: %,d (%,d unknown)%n", records, unknownRecords);
+        System.out.printf("Battles: %,d started, %,d won, %,d lost, %,d escaped%n", battles,
+                outcomes[BattleLog.OUTCOME_WON], outcomes[BattleLog.OUTCOME_LOST], outcomes[BattleLog.OUTCOME_ESCAPED]);
+        if (ended > 0) {
+            System.out.printf("Per battle: %.2f rounds, %.1f s, %.1f damage taken, %.1f XP, %.1f gold%n",
+                    (double) rounds / ended, timed > 0 ? ticks / 1e9 / timed : 0.0, (double) playerDamageTaken / ended,
+                    (double) xp / ended, (double) gold / ended);
+        }
+        System.out.printf("Player healed %,d HP%n", playerHealed);
+        for (int effect = 0; effect < statusGained.length; effect++) {
+            if (statusGained[effect] > 0) {
+                System.out.printf("Player gained %s %,d times%n", effect < StatusEffects.count() ? StatusEffects.keyOf(effect) : "#" + effect, statusGained[effect]);
+            }
+        }
+        for (int item = 0; item < itemDrops.length; item++) {
+            if (itemDrops[item] > 0) {
+                String name = MonsterCatalog.dropName(item);
+                System.out.printf("Dropped %s %,d times%n", name != null ? name : "#" + item, itemDrops[item]);
+            }
+        }
+        System.out.println("monster,appeared,damage_dealt,damage_taken,defeated,drops");
+        for (int id = 0; id <= highestMonster; id++) {
+            if (appeared[id] == 0) {
+                continue;
+            }
+            String name = id < monsters.length ? monsters[id].name : "#" + id;
+            System.out.printf("\"%s\",%d,%d,%d,%d,%d%n", name, appeared[id], damageDealt[id], damageTaken[id],
+                    defeated[id], drops[id]);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: BattleLogReader <log directory>");
+            return;
+        }
+        BattleLogReader reader = new BattleLogReader();
+        try {
+            reader.readDirectory(new File(args[0]));
+        } catch (IOException e) {
+            System.err.println("Could not read battle logs: " + e.getMessage());
+            return;
+        }
+        reader.print(MonsterCatalog.load(null));
+    }
+}
@@ -1,33 +1,94 @@
 package com.draponquest;
 
-import javafx.scene.input.KeyCode;
-import com.draponquest.Monster;
-import javafx.application.Platform;
+import java.util.Comparator;
+import java.util.PriorityQueue;
 
 /**
  * Manages the logic and state for combat encounters in the game.
- * This includes initiating battles, handling player and monster turns,
- * calculating damage, and determining battle outcomes.
+ * This includes initiating battles against groups of up to
+ * {@link #MAX_ENEMIES} monsters, choosing targets, ordering turns, calculating
+ * damage, and determining battle outcomes.
+ * <p>
+ * A battle runs in rounds. The player picks a command (and a target, if there
+ * is more than one monster), then every living combatant rolls initiative from
+ * its agility and acts in that order, taken from a priority queue. Each action
+ * shows one message whose callback is the same pre-bound {@link #nextAction},
+ * which takes the next turn off the queue, so rounds never build up nested
+ * callbacks however many monsters there are. Enemy state is held in fixed
+ * arrays, so resolving an action allocates nothing but its message text.
+ * <p>
+ * The player's side lives in a {@link BattleContext}, and everything the battle
+ * shows or decides goes out through the context's {@link BattleEvents}. A
+ * manager touches no global game state, so separate managers can run
+ * separate battles at the same time.
+ * <p>
+ * The player's status effects can cost turns, inflicted by monsters' hits,
+ * and tick at the end of each round; see {@link StatusEffects}.
+ * <p>
+ * Given an {@link AutoBattlePolicy}, a battle plays itself out as soon as it
+ * starts: the policy picks every command, the continuation of each action
+ * message is run straight away in a loop instead of waiting for the player to
+ * read it, and only one summary message is shown at the end.
+ * <p>
+ * Each start, action, hit, status change, defeat, drop and outcome is also
+ * written to a {@link BattleLog} for offline analysis, if one is given.
  */
 public class BattleManager {
-
-    /**
-     * A reference to the main game instance to access global game state and
-     * methods.
-     */
-    private DraponQuestFX game;
-    /**
-     * The monster currently engaged in battle.
-     */
-    private Monster currentMonster;
-    /**
-     * The current hit points of the {@code currentMonster}.
-     */
-    private int monsterHP;
+    /** The most monsters one battle can have. */
+    public static final int MAX_ENEMIES = 8;
+    /** The actor id of the player; enemy {@code i} is actor {@code i + 1}. */
+    private static final int PLAYER = 0;
+
+    /** Waiting for the player to pick a command. */
+    private static final int PHASE_COMMAND = 0;
+    /** Waiting for the player to pick a target. */
+    private static final int PHASE_TARGET = 1;
+    /** Running the turns of a round. */
+    private static final int PHASE_ROUND = 2;
+    /** The battle has been won, lost or escaped. */
+    private static final int PHASE_OVER = 3;
+
+    private static final int ACTION_ATTACK = 0;
+    private static final int ACTION_SPELL = 1;
+    private static final int ACTION_RUN = 2;
+
+    /** The Heal spell, as numbered by the magic menu. */
+    public static final int SPELL_HEAL = 0;
+    /** The Fireball spell, as numbered by the magic menu. */
+    public static final int SPELL_FIREBALL = 1;
+    /** Localization keys of the spell names, by spell number. */
+    private static final String[] SPELL_KEYS = { "spell_heal", "spell_fireball", "spell_return", "spell_outside" };
+    /** MP costs of the spells, by spell number. */
+    private static final int[] SPELL_COSTS = { BattleRules.HEAL_COST, BattleRules.FIREBALL_COST,
+            BattleRules.RETURN_COST, BattleRules.OUTSIDE_COST };
     /**
-     * Flag indicating if it is currently the player's turn to act in battle.
+     * The letters that tell monsters of the same kind apart. E and H are left
+     * out because they are control characters in messages.
      */
-    private boolean playerTurn;
+    private static final String LETTERS = "ABCDFGJK";
+
+    /** The monsters battles are drawn from, indexed by id. */
+    private final Monster[] roster;
+    /** Where battle records go. */
+    private final BattleLog log;
+    /** The id of the battle in progress in {@link #log}. */
+    private int battleId;
+    /** Rounds begun in the battle in progress. */
+    private int rounds;
+    /** Damage the player took in the battle in progress. */
+    private int damageTaken;
+    /** Picks the commands of an auto battle; null when the player does. */
+    private AutoBattlePolicy policy;
+    /** In an auto battle, the continuation of the last message, still to run. */
+    private Runnable pending;
+    /** In an auto battle, the last message, shown after the summary. */
+    private String lastMessage;
+    /** The player's side of the battle in progress. */
+    private BattleContext context;
+    /** Where the events of the battle in progress go. */
+    private BattleEvents events;
+    /** Where the battle is: one of the {@code PHASE_} constants. */
+    private int phase = PHASE_OVER;
     /**
      * Flag indicating if the player is currently in a defending state.
      */
@@ -36,278 +97,764 @@ public class BattleManager {
      * Stores messages related to the current battle's events.
      */
     private String battleMessage;
-    // Scaled Monster Stats
-    private int monsterAttack;
-    private int monsterDefense;
-    private int monsterXP;
-    private int monsterGold;
 
+    // Enemy slots, of which the first enemyCount are in use
+    private final Monster[] enemies = new Monster[MAX_ENEMIES];
+    private final int[] enemyIds = new int[MAX_ENEMIES];
+    private final String[] enemyNames = new String[MAX_ENEMIES];
+    private final int[] enemyHP = new int[MAX_ENEMIES];
+    private final int[] enemyMaxHP = new int[MAX_ENEMIES];
+    // Scaled Monster Stats
+    private final int[] enemyAttack = new int[MAX_ENEMIES];
+    private final int[] enemyDefense = new int[MAX_ENEMIES];
+    private final int[] enemyAgility = new int[MAX_ENEMIES];
+    private final int[] enemyXP = new int[MAX_ENEMIES];
+    private final int[] enemyGold = new int[MAX_ENEMIES];
+    private int enemyCount;
+    private int livingEnemies;
+
+    /** The initiative each actor rolled this round, indexed by actor id. */
+    private final int[] initiative = new int[MAX_ENEMIES + 1];
+    /**
+     * The actors still to act this round, highest initiative first; ties go to
+     * the lower actor id, so the player wins ties. Actor ids are small enough
+     * that boxing them never allocates.
+     */
+    private final PriorityQueue<Integer> turnQueue = new PriorityQueue<>(MAX_ENEMIES + 1,
+            Comparator.<Integer>comparingInt(actor -> -initiative[actor]).thenComparingInt(actor -> actor));
+    /** Runs the next turn of the round; the callback of every action message. */
+    private final Runnable nextAction = this::runNextAction;
+    /** Leaves the battle after a successful escape. */
+    private final Runnable escape = this::escape;
+    /** Hands control back to the player once the end of a round is shown. */
+    private final Runnable roundOver = this::roundOver;
+    /** Builds action messages. */
+    private final StringBuilder text = new StringBuilder();
+
+    /** What the player does this round: one of the {@code ACTION_} constants. */
+    private int pendingAction;
+    /** The spell the player casts this round, for {@link #ACTION_SPELL}. */
+    private int pendingSpell;
+    /** The enemy slot the player's attack or spell is aimed at. */
+    private int target;
     /**
      * Constructs a new BattleManager.
-     * 
-     * @param game The main DraponQuestFX game instance.
+     *
+     * @param roster The monsters battles are drawn from, indexed by id.
      */
-    public BattleManager(DraponQuestFX game) {
-        this.game = game;
+    public BattleManager(Monster[] roster) {
+        this(roster, BattleLog.DISABLED);
     }
 
     /**
-     * Initiates a new battle. A random monster is selected, and battle-specific
-     * game state and music are set up.
+     * Constructs a new BattleManager that records its battles.
+     *
+     * @param roster The monsters battles are drawn from, indexed by id.
+     * @param log    Where battle records go.
      */
-    public void startBattle() {
-        System.out.println("Battle started. playerHP=" + game.playerHP);
-        game.currentMode = DraponQuestFX.MODE_BATTLE;
-        // Randomly select a monster
-        currentMonster = game.monsters[(int) (Math.random() * game.monsters.length)];
-        System.out.println("Selected monster: " + currentMonster.name + " (HP: " + currentMonster.maxHP + ", Attack: "
-                + currentMonster.attack + ", Defense: " + currentMonster.defense + ")");
-        monsterHP = currentMonster.maxHP;
+    public BattleManager(Monster[] roster, BattleLog log) {
+        this.roster = roster;
+        this.log = log;
+    }
 
-        // Scaling Logic
-        double scaleFactor = 1.0 + (game.playerLevel - 1) * 0.2; // 20% increase per level
-        monsterHP = (int) (currentMonster.maxHP * scaleFactor);
-        monsterAttack = (int) (currentMonster.attack * scaleFactor);
-        monsterDefense = (int) (currentMonster.defense * scaleFactor);
-        monsterXP = (int) (currentMonster.xpValue * scaleFactor);
-        monsterGold = (int) (currentMonster.goldValue * scaleFactor);
+    /**
+     * Initiates a new battle against a group of monsters, scaled to the
+     * player's level, and starts its music. Monsters of the same kind are told
+     * apart by letters after their names.
+     *
+     * @param context The player's side of the battle.
+     * @param group   The indices of the monsters in the roster.
+     * @param count   The number of monsters in the group, at most
+     *                {@link #MAX_ENEMIES}.
+     */
+    public void startBattle(BattleContext context, int[] group, int count) {
+        startBattle(context, group, count, null);
+    }
 
-        System.out.println("Scaled Monster: HP=" + monsterHP + ", Atk=" + monsterAttack + ", Def=" + monsterDefense);
+    /**
+     * Initiates a new battle like {@link #startBattle(BattleContext, int[], int)},
+     * and with a policy fights it to the end before returning, leaving one
+     * summary message.
+     *
+     * @param context The player's side of the battle.
+     * @param group   The indices of the monsters in the roster.
+     * @param count   The number of monsters in the group, at most
+     *                {@link #MAX_ENEMIES}.
+     * @param policy  Picks every command; null lets the player pick.
+     */
+    public void startBattle(BattleContext context, int[] group, int count, AutoBattlePolicy policy) {
+        this.context = context;
+        this.events = context.events;
+        this.policy = policy;
+        pending = null;
+        damageTaken = 0;
+        events.trace("Battle started. playerHP=" + context.hp);
+        enemyCount = Math.min(count, MAX_ENEMIES);
+        livingEnemies = enemyCount;
+        rounds = 0;
+        battleId = log.nextBattleId();
+        log.log(battleId, BattleLog.TYPE_START, PLAYER, 0, enemyCount, context.level);
+        String music = null;
+        for (int i = 0; i < enemyCount; i++) {
+            Monster monster = roster[group[i]];
+            enemies[i] = monster;
+            enemyIds[i] = group[i];
+            enemyNames[i] = monster.name + letterOf(group, i);
+
+            // Scaling Logic
+            enemyMaxHP[i] = ProgressionTable.scale(monster.maxHP, context.level);
+            enemyHP[i] = enemyMaxHP[i];
+            enemyAttack[i] = ProgressionTable.scale(monster.attack, context.level);
+            enemyDefense[i] = ProgressionTable.scale(monster.defense, context.level);
+            enemyAgility[i] = ProgressionTable.scale(monster.agility, context.level);
+            enemyXP[i] = ProgressionTable.scale(monster.xpValue, context.level);
+            enemyGold[i] = ProgressionTable.scale(monster.goldValue, context.level);
+            log.log(battleId, BattleLog.TYPE_ENEMY, i + 1, enemyIds[i], enemyHP[i], enemyAttack[i]);
+            events.trace("Scaled " + enemyNames[i] + ": HP=" + enemyHP[i] + ", Atk=" + enemyAttack[i]
+                    + ", Def=" + enemyDefense[i] + ", Agi=" + enemyAgility[i]);
+
+            // The most important monster of the group picks the music
+            if (music == null || monster.isFinalBoss
+                    || (monster.isBoss && !music.equals(AudioManager.MUSIC_FINAL_BOSS))) {
+                music = monster.music;
+            }
+        }
+        for (int i = enemyCount; i < MAX_ENEMIES; i++) {
+            enemies[i] = null;
+            enemyHP[i] = 0;
+        }
 
-        playerTurn = true;
+        phase = PHASE_COMMAND;
+        target = 0;
         isDefending = false; // Reset defending state
         battleMessage = "";
 
-        // NES-style message: Monster appears
-        game.displayMessage(currentMonster.name + LocalizationManager.getText("battle_appears") + "E");
+        // NES-style message: Monsters appear
+        String appears = enemyNames[0];
+        if (enemyCount > 1) {
+            appears += LocalizationManager.getText("battle_and") + (enemyCount - 1)
+                    + LocalizationManager.getText("battle_more_appear");
+        } else {
+            appears += LocalizationManager.getText("battle_appears");
+        }
+        show(appears + "E", null);
 
-        game.setPreBattleMusic(game.audioManager.getCurrentMusicTrack());
         // Play battle start sound and music
-        game.audioManager.playSound(AudioManager.SOUND_BATTLE_START);
-        
-        if (currentMonster.isFinalBoss) {
-            game.audioManager.playMusic(AudioManager.MUSIC_FINAL_BOSS);
-        } else if (currentMonster.isBoss) {
-            game.audioManager.playMusic(AudioManager.MUSIC_BOSS);
-        } else {
-            game.audioManager.playMusic(AudioManager.MUSIC_BATTLE);
+        events.sound(AudioManager.SOUND_BATTLE_START);
+        events.music(music);
+
+        if (policy != null) {
+            runAuto();
         }
     }
 
     /**
-     * Handles player input during a battle, such as attacking, defending, or
-     * attempting to run.
-     * 
-     * @param keyCode The KeyCode representing the key pressed by the user.
+     * Fights an auto battle to the end: runs each message's continuation as
+     * soon as it is shown, lets the policy pick a command whenever one is
+     * due, and finally shows the summary, whose continuation leaves the
+     * battle.
      */
-    public void executeBattleCommand(int command) {
-        game.closeMessage();
-        System.out.println("Battle command: " + command + ", playerTurn=" + playerTurn + ", playerHP=" + game.playerHP
-                + ", monsterHP=" + monsterHP);
-        if (game.playerHP <= 0 || monsterHP <= 0) {
-            System.out.println("Battle input ignored: battle is over");
-            return; // Battle is over
+    private void runAuto() {
+        while (true) {
+            while (pending != null && phase != PHASE_OVER) {
+                Runnable next = pending;
+                pending = null;
+                next.run();
+            }
+            if (phase == PHASE_OVER) {
+                break;
+            }
+            autoCommand();
         }
+        events.trace("Auto battle over after " + rounds + " rounds, playerHP=" + context.hp);
+        text.setLength(0);
+        text.append(LocalizationManager.getText("auto_battle_summary")).append(rounds)
+                .append(LocalizationManager.getText("auto_battle_rounds")).append(damageTaken)
+                .append(LocalizationManager.getText("auto_battle_damage")).append('@').append(lastMessage);
+        Runnable leave = pending;
+        pending = null;
+        events.message(text.toString(), leave);
+    }
 
-        if (playerTurn) {
-            switch (command) {
-                case 1: // BCOM_ATK
-                    int damage = Math.max(1, game.playerAttack - monsterDefense);
-                    monsterHP -= damage;
-                    System.out.println("Player attacks: monsterHP=" + monsterHP);
-                    game.audioManager.playSound(AudioManager.SOUND_ATTACK);
-
-                    String attackMsg = LocalizationManager.getText("battle_you_deal") + damage
-                            + LocalizationManager.getText("battle_damage") + "E";
-
-                    game.displayMessage(attackMsg, () -> {
-                        if (monsterHP <= 0) {
-                            checkVictory();
-                        } else {
-                            monsterTurn();
-                        }
-                    });
-                    playerTurn = false;
-                    break;
-                case 2: // BCOM_MGK
-                    System.out.println("Battle: Switching to Magic Mode");
-                    game.previousMode = DraponQuestFX.MODE_BATTLE;
-                    game.currentMode = DraponQuestFX.MODE_MAGIC;
-                    // cursor reset handled in DraponQuestFX if needed, or we rely on last position
-                    // or reset
-                    // game.resetMagicCursor(); // if method existed
-                    break;
-                case 3: // BCOM_ITEM
-                    game.displayMessage("Item is not implemented yet.E", () -> {
-                        playerTurn = true;
-                    });
-                    break;
-                case 4: // BCOM_RUN
-                    // Try to escape: 50% chance
-                    if (Math.random() < 0.5) {
-                        System.out.println("Player escaped from battle");
-                        game.displayMessage(LocalizationManager.getText("battle_escaped") + "E", () -> {
-                            game.currentMode = DraponQuestFX.MODE_MOVE;
-                            game.audioManager.playSound(AudioManager.SOUND_ESCAPE);
-                            game.audioManager.playMusic(game.getPreBattleMusic());
-                        });
-                        return;
-                    } else {
-                        System.out.println("Player failed to escape");
-                        game.audioManager.playSound(AudioManager.SOUND_DEFEAT);
-                        game.displayMessage(LocalizationManager.getText("battle_escape_failed") + "E", () -> {
-                            monsterTurn();
-                        });
-                        playerTurn = false;
-                    }
-                    break;
+    /**
+     * Picks the player's command for the round with the policy and starts the
+     * round. Attacks go to the weakest monster.
+     */
+    private void autoCommand() {
+        int incoming = 0;
+        int weakest = -1;
+        int defense = context.status.defense(context.defense);
+        for (int i = 0; i < enemyCount; i++) {
+            if (enemyHP[i] > 0) {
+                incoming += BattleRules.hitDamage(enemyAttack[i], defense);
+                if (weakest < 0 || enemyHP[i] < enemyHP[weakest]) {
+                    weakest = i;
+                }
             }
         }
+        switch (policy.decide(context.hp, context.maxHP, context.mp, incoming)) {
+            case AutoBattlePolicy.RUN:
+                pendingAction = ACTION_RUN;
+                break;
+            case AutoBattlePolicy.HEAL:
+                pendingAction = ACTION_SPELL;
+                pendingSpell = SPELL_HEAL;
+                break;
+            default:
+                pendingAction = ACTION_ATTACK;
+                target = weakest;
+                break;
+        }
+        beginRound();
     }
 
     /**
-     * Executes the monster's turn during battle, calculating and applying damage to
-     * the player.
-     * Considers if the player is defending to reduce incoming damage.
+     * Shows a battle message, or in an auto battle keeps it and its
+     * continuation for {@link #runAuto()}.
      */
-    private void monsterTurn() {
-        if (monsterHP <= 0)
+    private void show(String message, Runnable next) {
+        if (policy == null) {
+            events.message(message, next);
             return;
+        }
+        lastMessage = message;
+        pending = next;
+    }
 
-        int monsterDamage = Math.max(1, monsterAttack - game.playerDefense);
-        if (isDefending) {
-            monsterDamage = (int) (monsterDamage * 0.5); // Reduce damage by 50% if defending
-            isDefending = false;
+    /**
+     * Plays the sound of an action; auto battles only play the sounds of
+     * their start and end.
+     */
+    private void actionSound(String sound) {
+        if (policy == null) {
+            events.sound(sound);
+        }
+    }
+
+    /**
+     * Returns the letter that tells a monster apart from others of its kind in
+     * the group, or an empty string if it is the only one.
+     */
+    private String letterOf(int[] group, int slot) {
+        int before = 0;
+        int total = 0;
+        for (int i = 0; i < enemyCount; i++) {
+            if (group[i] == group[slot]) {
+                if (i < slot) {
+                    before++;
+                }
+                total++;
+            }
+        }
+        return total > 1 ? " " + LETTERS.charAt(before) : "";
+    }
+
+    /**
+     * Handles the battle command the player confirmed: attacking, magic, items
+     * or attempting to run. While a target is being chosen, confirming picks
+     * it and starts the round.
+     *
+     * @param command The selected battle command (1=Attack, 2=Magic, 3=Item,
+     *                4=Run).
+     */
+    public void executeBattleCommand(int command) {
+        events.trace("Battle command: " + command + ", phase=" + phase + ", playerHP=" + context.hp
+                + ", livingEnemies=" + livingEnemies);
+        if (context.hp <= 0 || phase == PHASE_OVER) {
+            events.trace("Battle input ignored: battle is over");
+            return; // Battle is over
+        }
+        if (phase == PHASE_TARGET) {
+            events.sound(AudioManager.SOUND_MENU_SELECT);
+            beginRound();
+            return;
         }
-        game.playerHP -= monsterDamage;
-        System.out.println("Monster attacks: playerHP=" + game.playerHP);
+        if (phase != PHASE_COMMAND) {
+            return;
+        }
+
+        switch (command) {
+            case 1: // BCOM_ATK
+                pendingAction = ACTION_ATTACK;
+                chooseTarget();
+                break;
+            case 2: // BCOM_MGK
+                events.magicMenu();
+                break;
+            case 3: // BCOM_ITEM
+                events.message("Item is not implemented yet.E", null);
+                break;
+            case 4: // BCOM_RUN
+                pendingAction = ACTION_RUN;
+                beginRound();
+                break;
+        }
+    }
 
-        String monsterMsg = currentMonster.name + LocalizationManager.getText("battle_monster_deals")
-                + monsterDamage + LocalizationManager.getText("battle_damage");
+    /**
+     * Chooses a spell as the player's action this round; its MP is spent when
+     * it is cast. Fireball asks for a target first when there is more than one
+     * monster. Spells that only work outside battle use up the turn to no
+     * effect.
+     *
+     * @param spellIndex The spell, as numbered by the magic menu.
+     */
+    public void selectSpell(int spellIndex) {
+        if (phase != PHASE_COMMAND) {
+            return;
+        }
+        pendingAction = ACTION_SPELL;
+        pendingSpell = spellIndex;
+        if (spellIndex == SPELL_FIREBALL) {
+            chooseTarget();
+        } else {
+            beginRound();
+        }
+    }
 
-        // Poison Logic
-        final String poisonMsg;
-        if (currentMonster.hasPoison && !game.isPoisoned && Math.random() < 0.3) {
-            game.isPoisoned = true;
-            poisonMsg = "@You were poisoned!";
+    /**
+     * Starts target selection, or the round straight away if only one monster
+     * is left to aim at.
+     */
+    private void chooseTarget() {
+        if (enemyHP[target] <= 0) {
+            target = firstLiving();
+        }
+        if (livingEnemies > 1) {
+            phase = PHASE_TARGET;
         } else {
-            poisonMsg = "";
+            beginRound();
+        }
+    }
+
+    /**
+     * Moves the target cursor to another living monster, wrapping around.
+     *
+     * @param delta +1 to move right, -1 to move left.
+     */
+    public void moveTarget(int delta) {
+        if (phase != PHASE_TARGET) {
+            return;
+        }
+        int slot = target;
+        do {
+            slot = (slot + delta + enemyCount) % enemyCount;
+        } while (enemyHP[slot] <= 0);
+        if (slot != target) {
+            target = slot;
+            events.sound(AudioManager.SOUND_CURSOR);
+        }
+    }
+
+    /**
+     * Backs out of target selection to the command menu.
+     */
+    public void cancelTarget() {
+        if (phase == PHASE_TARGET) {
+            phase = PHASE_COMMAND;
+        }
+    }
+
+    /**
+     * Rolls initiative for everyone still standing and runs the round's first
+     * turn.
+     */
+    private void beginRound() {
+        phase = PHASE_ROUND;
+        rounds++;
+        turnQueue.clear();
+        initiative[PLAYER] = BattleRules.rollInitiative(context.agility, context.random);
+        turnQueue.add(PLAYER);
+        for (int i = 0; i < enemyCount; i++) {
+            if (enemyHP[i] > 0) {
+                initiative[i + 1] = BattleRules.rollInitiative(enemyAgility[i], context.random);
+                turnQueue.add(i + 1);
+            }
+        }
+        runNextAction();
+    }
+
+    /**
+     * Runs the next turn of the round, skipping monsters defeated earlier in
+     * it. Ends the battle once either side is down, and hands control back to
+     * the player when the round is over.
+     */
+    private void runNextAction() {
+        if (phase != PHASE_ROUND) {
+            return;
+        }
+        if (context.hp <= 0) {
+            checkDefeat();
+            return;
         }
+        if (livingEnemies == 0) {
+            checkVictory();
+            return;
+        }
+        Integer next;
+        while ((next = turnQueue.poll()) != null) {
+            int actor = next;
+            if (actor == PLAYER) {
+                playerAction();
+                return;
+            }
+            if (enemyHP[actor - 1] > 0) {
+                enemyAction(actor - 1);
+                return;
+            }
+        }
+        endRound();
+    }
+
+    /**
+     * Ticks the player's status effects at the end of a round, showing what
+     * changed before the player picks the next command.
+     */
+    private void endRound() {
+        StatusEffects status = context.status;
+        if (!status.isActive()) {
+            roundOver();
+            return;
+        }
+        int change = status.tickRound();
+        int expired = status.getExpired();
+        if (change == 0 && expired == 0) {
+            roundOver();
+            return;
+        }
+        context.hp = Math.min(context.maxHP, context.hp + change);
+        text.setLength(0);
+        if (change > 0) {
+            log.log(battleId, BattleLog.TYPE_HEAL, PLAYER, 0, change, context.hp);
+            text.append(healText(change));
+            text.setLength(text.length() - 1); // Drop the end marker
+        } else if (change < 0) {
+            damageTaken -= change;
+            log.log(battleId, BattleLog.TYPE_DAMAGE, PLAYER, 0, -change, context.hp);
+            text.append(LocalizationManager.getText("battle_status_hurt")).append(-change)
+                    .append(LocalizationManager.getText("battle_status_hurt_suffix"));
+        }
+        for (int bits = expired; bits != 0; bits &= bits - 1) {
+            int effect = Integer.numberOfTrailingZeros(bits);
+            log.log(battleId, BattleLog.TYPE_STATUS, PLAYER, 0, effect, 0);
+            if (text.length() > 0) {
+                text.append('@');
+            }
+            text.append(StatusEffects.text(effect, "off"));
+        }
+        text.append('E');
+        show(text.toString(), roundOver);
+    }
 
-        monsterMsg += poisonMsg + "E";
+    /**
+     * Hands control back to the player for the next round, or ends the battle
+     * if the end of the round knocked the player out.
+     */
+    private void roundOver() {
+        if (context.hp <= 0) {
+            checkDefeat();
+            return;
+        }
+        isDefending = false;
+        phase = PHASE_COMMAND;
+    }
 
-        game.displayMessage(monsterMsg, () -> {
-            if (game.playerHP <= 0) {
-                checkDefeat();
+    /**
+     * Carries out the action the player chose for this round.
+     */
+    private void playerAction() {
+        int skip = context.status.rollSkip(context.random);
+        if (skip >= 0) {
+            log.log(battleId, BattleLog.TYPE_ACTION, PLAYER, 0, BattleLog.ACTION_SKIP, skip);
+            show(StatusEffects.text(skip, "skip") + "E", nextAction);
+            return;
+        }
+        if (pendingAction == ACTION_RUN) {
+            // Try to escape: 50% chance
+            boolean escaped = BattleRules.rollEscape(context.random);
+            log.log(battleId, BattleLog.TYPE_ACTION, PLAYER, 0, BattleLog.ACTION_RUN, escaped ? 1 : 0);
+            if (escaped) {
+                events.trace("Player escaped from battle");
+                phase = PHASE_OVER;
+                context.status.endBattle();
+                log.log(battleId, BattleLog.TYPE_END, PLAYER, 0, BattleLog.OUTCOME_ESCAPED, rounds);
+                show(LocalizationManager.getText("battle_escaped") + "E", escape);
             } else {
-                playerTurn = true;
+                events.trace("Player failed to escape");
+                actionSound(AudioManager.SOUND_DEFEAT);
+                show(LocalizationManager.getText("battle_escape_failed") + "E", nextAction);
             }
-        });
+            return;
+        }
+
+        // A target defeated earlier in the round is replaced by the next one
+        if (enemyHP[target] <= 0) {
+            target = firstLiving();
+        }
+        if (pendingAction == ACTION_SPELL) {
+            log.log(battleId, BattleLog.TYPE_ACTION, PLAYER,
+                    pendingSpell == SPELL_FIREBALL ? enemyIds[target] : 0, BattleLog.ACTION_SPELL, pendingSpell);
+            show(castSpell(pendingSpell), nextAction);
+            return;
+        }
+
+        log.log(battleId, BattleLog.TYPE_ACTION, PLAYER, enemyIds[target], BattleLog.ACTION_ATTACK, target + 1);
+        int damage = BattleRules.hitDamage(context.status.attack(context.attack), enemyDefense[target]);
+        actionSound(AudioManager.SOUND_ATTACK);
+        text.setLength(0);
+        if (enemyCount > 1) {
+            text.append(LocalizationManager.getText("battle_you_attack")).append(enemyNames[target])
+                    .append(LocalizationManager.getText("battle_you_attack_suffix")).append('@');
+        }
+        text.append(LocalizationManager.getText("battle_you_deal")).append(damage)
+                .append(LocalizationManager.getText("battle_damage")).append(damageTarget(damage)).append('E');
+        events.trace("Player attacks " + enemyNames[target] + ": HP=" + enemyHP[target]);
+        show(text.toString(), nextAction);
     }
 
     /**
-     * Checks if the player has won the battle. If so, updates player stats (XP,
-     * gold),
-     * handles item drops, and transitions the game state out of battle.
+     * Casts the spell the player chose: Heal restores HP, Fireball burns the
+     * target, and the others do nothing in battle.
+     *
+     * @return The message describing the spell and its effect.
      */
-    private void checkVictory() {
-        monsterHP = 0;
-        game.battlesWon++;
-        game.playerXP += monsterXP;
-        game.playerGold += monsterGold;
+    private String castSpell(int spellIndex) {
+        context.mp -= SPELL_COSTS[spellIndex];
+        String msg = castText(SPELL_KEYS[spellIndex]);
+        if (spellIndex == SPELL_HEAL) {
+            int healAmount = BattleRules.rollHeal(context.random); // 10-15
+            context.hp = Math.min(context.maxHP, context.hp + healAmount);
+            log.log(battleId, BattleLog.TYPE_HEAL, PLAYER, 0, healAmount, context.hp);
+            actionSound(AudioManager.SOUND_HEAL);
+            return msg + healText(healAmount);
+        }
+        if (spellIndex == SPELL_FIREBALL) {
+            int damage = BattleRules.rollFireball(context.random); // 10-15 damage
+            actionSound(AudioManager.SOUND_ATTACK);
+            String targetName = enemyNames[target];
+            return msg + targetName + " took " + damage + " damage!" + damageTarget(damage) + "E";
+        }
+        return msg + LocalizationManager.getText("item_nothing") + "E";
+    }
+
+    /**
+     * Returns the message announcing that the player casts a spell.
+     *
+     * @param spellKey The localization key of the spell's name.
+     * @return The message, without an end marker.
+     */
+    static String castText(String spellKey) {
+        return LocalizationManager.getText("msg_cast_spell") +
+                LocalizationManager.getText(spellKey) +
+                (LocalizationManager.getCurrentLanguage().equals(LocalizationManager.LANG_JAPANESE)
+                        ? LocalizationManager.getText("msg_cast_spell_suffix")
+                        : "")
+                + ".";
+    }
+
+    /**
+     * Returns the message part saying how much HP the Heal spell restored.
+     *
+     * @param healAmount The HP restored.
+     * @return The message part, ending the message.
+     */
+    static String healText(int healAmount) {
+        if (LocalizationManager.getCurrentLanguage().equals(LocalizationManager.LANG_JAPANESE)) {
+            return LocalizationManager.getText("msg_spell_heal") + healAmount
+                    + LocalizationManager.getText("msg_spell_heal_suffix");
+        }
+        return LocalizationManager.getText("msg_spell_heal") + healAmount + "!E";
+    }
+
+    /**
+     * Executes a monster's turn, calculating and applying damage to the player.
+     * Considers if the player is defending to reduce incoming damage.
+     */
+    private void enemyAction(int slot) {
+        int monsterDamage = BattleRules.hitDamage(enemyAttack[slot], context.status.defense(context.defense));
+        if (isDefending) {
+            monsterDamage = BattleRules.defendedDamage(monsterDamage); // Reduce damage by 50% if defending
+        }
+        context.hp -= monsterDamage;
+        damageTaken += monsterDamage;
+        log.log(battleId, BattleLog.TYPE_ACTION, slot + 1, enemyIds[slot], BattleLog.ACTION_ATTACK, PLAYER);
+        log.log(battleId, BattleLog.TYPE_DAMAGE, PLAYER, enemyIds[slot], monsterDamage, context.hp);
+        events.trace(enemyNames[slot] + " attacks: playerHP=" + context.hp);
+
+        text.setLength(0);
+        text.append(enemyNames[slot]).append(LocalizationManager.getText("battle_monster_deals"))
+                .append(monsterDamage).append(LocalizationManager.getText("battle_damage"));
+
+        // Status effects the monster's hits carry, such as poison
+        int inflicted = enemies[slot].inflicts == 0 ? 0
+                : context.status.rollInflict(enemies[slot].inflicts, context.random);
+        for (int bits = inflicted; bits != 0; bits &= bits - 1) {
+            int effect = Integer.numberOfTrailingZeros(bits);
+            log.log(battleId, BattleLog.TYPE_STATUS, PLAYER, enemyIds[slot], effect, 1);
+            text.append(StatusEffects.text(effect, "on"));
+        }
+        text.append('E');
+        show(text.toString(), nextAction);
+    }
+
+    /**
+     * Deals damage to the current target.
+     *
+     * @param damage The damage dealt.
+     * @return A message part announcing the target's defeat, or an empty string
+     *         if it is still standing.
+     */
+    public String damageTarget(int damage) {
+        if (enemyHP[target] <= 0) {
+            return "";
+        }
+        enemyHP[target] = Math.max(0, enemyHP[target] - damage);
+        log.log(battleId, BattleLog.TYPE_DAMAGE, target + 1, enemyIds[target], damage, enemyHP[target]);
+        if (enemyHP[target] > 0) {
+            return "";
+        }
+        livingEnemies--;
+        log.log(battleId, BattleLog.TYPE_DEFEAT, target + 1, enemyIds[target], 0, 0);
+        events.trace(enemyNames[target] + " defeated, " + livingEnemies + " left");
+        return "@" + enemyNames[target] + LocalizationManager.getText("battle_is_defeated");
+    }
 
-        // --- Item Drop Logic ---
+    /**
+     * Wins the battle: awards the XP and gold of every monster in the group,
+     * rolls each one's item drop, and leaves the battle once the victory
+     * message has been read.
+     */
+    private void checkVictory() {
+        phase = PHASE_OVER;
+        int xp = 0;
+        int gold = 0;
         String itemDropMessagePart = "";
-        if (currentMonster.itemDrop != null) {
-            if (Math.random() < currentMonster.dropChance) {
-                game.getInventory().addItem(currentMonster.itemDrop);
+        for (int i = 0; i < enemyCount; i++) {
+            xp += enemyXP[i];
+            gold += enemyGold[i];
+
+            // --- Item Drop Logic ---
+            Monster monster = enemies[i];
+            if (monster.itemDrop != null && BattleRules.rollDrop(monster.dropChance, context.random)) {
+                events.itemDropped(monster.itemDrop);
+                log.log(battleId, BattleLog.TYPE_DROP, i + 1, enemyIds[i], monster.dropId, 0);
                 // Using @ for new line in message system
-                itemDropMessagePart = "@" + currentMonster.name + " dropped a " + currentMonster.itemDrop.getName()
-                        + "!";
+                itemDropMessagePart += "@" + enemyNames[i] + " dropped a " + monster.itemDrop.getName() + "!";
             }
         }
+        context.status.endBattle();
+        log.log(battleId, BattleLog.TYPE_REWARD, PLAYER, 0, xp, gold);
+        log.log(battleId, BattleLog.TYPE_END, PLAYER, 0, BattleLog.OUTCOME_WON, rounds);
+        events.battleWon(xp, gold);
 
         // NES-style victory message
-        String winMsg = currentMonster.name + " is defeated!@" +
-                LocalizationManager.getText("battle_gained") + " " + monsterXP + " XP@" +
-                "and " + monsterGold + " gold!" + itemDropMessagePart + "E";
-
-        game.displayMessage(winMsg, () -> {
-            Runnable afterLevelUp = () -> {
-                game.audioManager.playMusic(game.getPreBattleMusic());
-                game.currentMode = DraponQuestFX.MODE_MOVE;
-            };
-
-            if (game.playerXP >= game.xpToNextLevel) {
-                game.levelUp(afterLevelUp);
-            } else {
-                afterLevelUp.run();
-            }
-        });
-
-        System.out.println("Monster defeated. Player wins. Total battles won: " + game.battlesWon);
+        String winMsg = LocalizationManager.getText("battle_gained") + " " + xp + " XP@" +
+                "and " + gold + " gold!" + itemDropMessagePart + "E";
+        show(winMsg, events::battleLeft);
 
         // Play victory sound and music
-        game.audioManager.playSound(AudioManager.SOUND_VICTORY);
-        game.audioManager.playMusic(AudioManager.MUSIC_VICTORY);
+        events.sound(AudioManager.SOUND_VICTORY);
+        events.music(AudioManager.MUSIC_VICTORY);
     }
 
     /**
-     * Checks if the player has been defeated in battle. If so, sets player HP to 0
-     * and transitions the game to the GAME_OVER state.
+     * Loses the battle: sets the player's HP to 0 and reports the defeat.
      */
     private void checkDefeat() {
-        game.playerHP = 0;
-        game.displayMessage("You were defeated!E");
-        game.currentGameStatus = 4; // GAME_OVER
-        System.out.println("Player defeated. GAME_OVER");
+        phase = PHASE_OVER;
+        context.hp = 0;
+        context.status.endBattle();
+        log.log(battleId, BattleLog.TYPE_END, PLAYER, 0, BattleLog.OUTCOME_LOST, rounds);
+        show("You were defeated!E", null);
+        events.battleLost();
         // Play defeat sound and game over music
-        game.audioManager.playSound(AudioManager.SOUND_DEFEAT);
-        game.audioManager.playSound(AudioManager.SOUND_GAME_OVER);
-        game.audioManager.playMusic(AudioManager.MUSIC_GAME_OVER_MUSIC);
+        events.sound(AudioManager.SOUND_DEFEAT);
+        events.sound(AudioManager.SOUND_GAME_OVER);
+        events.music(AudioManager.MUSIC_GAME_OVER_MUSIC);
+    }
+
+    private void escape() {
+        events.sound(AudioManager.SOUND_ESCAPE);
+        events.battleLeft();
+    }
+
+    private int firstLiving() {
+        for (int i = 0; i < enemyCount; i++) {
+            if (enemyHP[i] > 0) {
+                return i;
+            }
+        }
+        return 0;
     }
 
     /**
      * Returns the current battle message.
-     * 
+     *
      * @return A string containing information about recent battle events.
      */
     public String getBattleMessage() {
         return battleMessage;
     }
 
+    /** @return The number of rounds fought so far in this battle. */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /** @return True if the battle has been won, lost or escaped. */
+    public boolean isOver() {
+        return phase == PHASE_OVER;
+    }
+
+    /** @return True while the player is choosing a target. */
+    public boolean isTargeting() {
+        return phase == PHASE_TARGET;
+    }
+
+    /** @return The enemy slot the player is aiming at. */
+    public int getTarget() {
+        return target;
+    }
+
+    /** @return The number of monsters the battle started with. */
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    /** @return The number of monsters still standing. */
+    public int getLivingEnemies() {
+        return livingEnemies;
+    }
+
     /**
-     * Returns the monster currently fighting in the battle.
-     * 
-     * @return The current Monster object.
+     * @param slot The enemy slot, below {@link #getEnemyCount()}.
+     * @return The monster in that slot.
      */
-    public Monster getCurrentMonster() {
-        return currentMonster;
+    public Monster getEnemy(int slot) {
+        return enemies[slot];
     }
 
     /**
-     * Returns the current hit points of the monster in battle.
-     * 
-     * @return The current HP of the monster.
+     * @param slot The enemy slot, below {@link #getEnemyCount()}.
+     * @return The name of the monster in that slot, with its letter.
      */
-    public int getMonsterHP() {
-        return monsterHP;
+    public String getEnemyName(int slot) {
+        return enemyNames[slot];
     }
 
-    // Magic Support Types
-    public void applyMagicDamage(int damage) {
-        if (monsterHP <= 0)
-            return;
-        monsterHP -= damage;
-        System.out.println("Magic applied damage: " + damage + ", remaining HP: " + monsterHP);
-        // Effects handled by displayMessage in DraponQuestFX
+    /**
+     * @param slot The enemy slot, below {@link #getEnemyCount()}.
+     * @return The current hit points of the monster in that slot.
+     */
+    public int getEnemyHP(int slot) {
+        return enemyHP[slot];
     }
 
-    public void endPlayerTurn() {
-        if (monsterHP <= 0) {
-            checkVictory();
-        } else {
-            monsterTurn();
-        }
+    /**
+     * @param slot The enemy slot, below {@link #getEnemyCount()}.
+     * @return The scaled maximum hit points of the monster in that slot.
+     */
+    public int getEnemyMaxHP(int slot) {
+        return enemyMaxHP[slot];
     }
 }
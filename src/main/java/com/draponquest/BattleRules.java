@@ -0,0 +1,113 @@
+package com.draponquest;
+
+import java.util.Random;
+
+/**
+ * The numbers behind a battle: turn order, damage, defending, escaping and
+ * spells. Player stats and monster scaling by level are in
+ * {@link ProgressionTable}, status effects in {@link StatusEffects}.
+ * {@link BattleManager} applies these rules, and the headless
+ * {@link BattleSimulator} plays its fights through BattleManager, so balance
+ * changes made here apply to both. Nothing in this class depends on JavaFX or
+ * on game state.
+ *
+ * @author Modern Migration
+ */
+public final class BattleRules {
+    /** The chance that running away succeeds. */
+    public static final double ESCAPE_CHANCE = 0.5;
+    /** The share of a hit taken while defending. */
+    public static final double DEFEND_FACTOR = 0.5;
+
+    /** MP cost of the Heal spell. */
+    public static final int HEAL_COST = 3;
+    /** MP cost of the Fireball spell. */
+    public static final int FIREBALL_COST = 5;
+    /** MP cost of the Return spell. */
+    public static final int RETURN_COST = 8;
+    /** MP cost of the Outside spell. */
+    public static final int OUTSIDE_COST = 6;
+    /** The least HP Heal restores and the least damage Fireball deals. */
+    private static final int SPELL_MIN = 10;
+    /** The number of different amounts Heal and Fireball roll (10 to 15). */
+    private static final int SPELL_SPREAD = 6;
+
+    private BattleRules() {
+    }
+
+    /**
+     * Rolls a combatant's initiative for a round. Higher initiatives act
+     * earlier; the roll knocks up to half the agility off, so a quicker
+     * combatant usually, but not always, goes first.
+     *
+     * @param agility The combatant's agility.
+     * @param random  The random source.
+     * @return The initiative, between {@code agility - agility / 2} and
+     *         {@code agility}.
+     */
+    public static int rollInitiative(int agility, Random random) {
+        return agility - random.nextInt(Math.max(0, agility) / 2 + 1);
+    }
+
+    /**
+     * Returns the damage of a physical hit.
+     *
+     * @param attack  The attacker's attack power.
+     * @param defense The defender's defense power.
+     * @return The damage, at least 1.
+     */
+    public static int hitDamage(int attack, int defense) {
+        return Math.max(1, attack - defense);
+    }
+
+    /**
+     * Returns the damage of a hit taken while defending.
+     *
+     * @param damage The damage of the hit.
+     * @return The reduced damage.
+     */
+    public static int defendedDamage(int damage) {
+        return (int) (damage * DEFEND_FACTOR);
+    }
+
+    /**
+     * Rolls a run attempt.
+     *
+     * @param random The random source.
+     * @return True if the player gets away.
+     */
+    public static boolean rollEscape(Random random) {
+        return random.nextDouble() < ESCAPE_CHANCE;
+    }
+
+    /**
+     * Rolls the HP restored by the Heal spell.
+     *
+     * @param random The random source.
+     * @return Between 10 and 15 HP.
+     */
+    public static int rollHeal(Random random) {
+        return SPELL_MIN + random.nextInt(SPELL_SPREAD);
+    }
+
+    /**
+     * Rolls the damage dealt by the Fireball spell.
+     *
+     * @param random The random source.
+     * @return Between 10 and 15 damage.
+     */
+    public static int rollFireball(Random random) {
+        return SPELL_MIN + random.nextInt(SPELL_SPREAD);
+    }
+
+    /**
+     * Rolls whether a defeated monster drops its item.
+     *
+     * @param dropChance The monster's drop chance.
+     * @param random     The random source.
+     * @return True if the item drops.
+     */
+    public static boolean rollDrop(double dropChance, Random random) {
+        return random.nextDouble() < dropChance;
+    }
+}
@@ -0,0 +1,427 @@
+package com.draponquest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Headless Monte Carlo battle simulator for balancing monsters.
+ * Fights groups of one up to a maximum number of every monster of the catalog
+ * at every player level from 1 up to a maximum with each of a few fixed
+ * strategies, and reports win rates, how many rounds wins take, and how much
+ * HP the player has left. Every fight is played by {@link BattleManager}
+ * itself: a synchronous {@link BattleEvents} sink runs each message's
+ * continuation at once and enters the strategy's command whenever the battle
+ * waits for one, so the simulator balances against the game's own rules.
+ * Fights run in parallel with fork/join in fixed-size batches. Each batch
+ * draws from its own random stream seeded from the run seed and the batch
+ * number, so the results do not depend on the number of threads. Run with:
+ * {@code java -cp target/classes com.draponquest.BattleSimulator [fights] [max level] [output.csv] [seed] [max group]}
+ *
+ * @author Modern Migration
+ */
+public class BattleSimulator {
+    /** Attack every turn. */
+    public static final int STRATEGY_ATTACK = 0;
+    /** Cast Fireball while MP lasts, then attack. */
+    public static final int STRATEGY_FIREBALL = 1;
+    /** Cast Heal when HP is at a third or less and MP allows, otherwise attack. */
+    public static final int STRATEGY_CAUTIOUS = 2;
+    /** Try to run every turn. */
+    public static final int STRATEGY_RUN = 3;
+    /** Names of the strategies, indexed by the {@code STRATEGY_*} constants. */
+    public static final String[] STRATEGY_NAMES = { "attack", "fireball", "cautious", "run" };
+
+    /** Fights run by one batch. */
+    private static final int BATCH_SIZE = 8192;
+    /** Round counts at or above this share the last histogram bucket. */
+    private static final int MAX_TRACKED_TURNS = 256;
+    /** Battle commands, as numbered by the battle menu. */
+    private static final int COMMAND_ATTACK = 1;
+    private static final int COMMAND_MAGIC = 2;
+    private static final int COMMAND_RUN = 4;
+
+    private final Monster[] monsters;
+    private final int maxLevel;
+    private final int maxGroup;
+    private final int fightsPerCell;
+    private final long seed;
+
+    /**
+     * The outcome of every fight of one monster, group size, level and
+     * strategy.
+     */
+    public static class Result {
+        private final int monster;
+        private final int group;
+        private final int level;
+        private final int strategy;
+        private long wins;
+        private long losses;
+        private long escapes;
+        private long poisoned;
+        /** Wins by the number of rounds taken. */
+        private final long[] turnCounts = new long[MAX_TRACKED_TURNS];
+        /** Wins by the percentage of max HP the player had left. */
+        private final long[] hpLeftCounts = new long[101];
+
+        Result(int monster, int group, int level, int strategy) {
+            this.monster = monster;
+            this.group = group;
+            this.level = level;
+            this.strategy = strategy;
+        }
+
+        synchronized void add(Result other) {
+            wins += other.wins;
+            losses += other.losses;
+            escapes += other.escapes;
+            poisoned += other.poisoned;
+            for (int i = 0; i < turnCounts.length; i++) {
+                turnCounts[i] += other.turnCounts[i];
+            }
+            for (int i = 0; i < hpLeftCounts.length; i++) {
+                hpLeftCounts[i] += other.hpLeftCounts[i];
+            }
+        }
+
+        /** @return The number of fights run. */
+        public long getFights() {
+            return wins + losses + escapes;
+        }
+
+        /** @return The share of fights the player won. */
+        public double getWinRate() {
+            return (double) wins / getFights();
+        }
+
+        /** @return The share of fights the player lost. */
+        public double getLossRate() {
+            return (double) losses / getFights();
+        }
+
+        /** @return The share of fights the player ran from. */
+        public double getEscapeRate() {
+            return (double) escapes / getFights();
+        }
+
+        /** @return The share of fights that left the player poisoned. */
+        public double getPoisonRate() {
+            return (double) poisoned / getFights();
+        }
+
+        /** @return The mean number of rounds a win took, or 0 without wins. */
+        public double getMeanTurns() {
+            long total = 0;
+            for (int i = 0; i < turnCounts.length; i++) {
+                total += i * turnCounts[i];
+            }
+            return wins == 0 ? 0 : (double) total / wins;
+        }
+
+        /**
+         * @param p A fraction between 0 and 1.
+         * @return The number of rounds within which that share of wins
+         *         ended, or 0 without wins.
+         */
+        public int getTurnsPercentile(double p) {
+            return percentile(turnCounts, p);
+        }
+
+        /**
+         * @param p A fraction between 0 and 1.
+         * @return The percentage of max HP that at most that share of wins
+         *         ended below, or 0 without wins.
+         */
+        public int getHpLeftPercentile(double p) {
+            return percentile(hpLeftCounts, p);
+        }
+
+        private int percentile(long[] counts, double p) {
+            if (wins == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p * wins));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i;
+                }
+            }
+            return counts.length - 1;
+        }
+    }
+
+    /**
+     * Constructs a simulator.
+     *
+     * @param monsters      The monsters to fight.
+     * @param maxGroup      The most monsters of a kind fought at once, at most
+     *                      {@link BattleManager#MAX_ENEMIES}.
+     * @param maxLevel      The highest player level to simulate.
+     * @param fightsPerCell The number of fights per monster, group size, level
+     *                      and strategy.
+     * @param seed          The seed all random streams are derived from.
+     */
+    public BattleSimulator(Monster[] monsters, int maxGroup, int maxLevel, int fightsPerCell, long seed) {
+        this.monsters = monsters;
+        this.maxGroup = Math.max(1, Math.min(maxGroup, BattleManager.MAX_ENEMIES));
+        this.maxLevel = maxLevel;
+        this.fightsPerCell = fightsPerCell;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs every fight on the given pool.
+     *
+     * @param pool The pool to run on.
+     * @return One result per monster, group size, level and strategy, ordered
+     *         by monster, then group size, then level, then strategy.
+     */
+    public Result[] run(ForkJoinPool pool) {
+        Result[] results = new Result[monsters.length * maxGroup * maxLevel * STRATEGY_NAMES.length];
+        int cell = 0;
+        for (int monster = 0; monster < monsters.length; monster++) {
+            for (int group = 1; group <= maxGroup; group++) {
+                for (int level = 1; level <= maxLevel; level++) {
+                    for (int strategy = 0; strategy < STRATEGY_NAMES.length; strategy++) {
+                        results[cell++] = new Result(monster, group, level, strategy);
+                    }
+                }
+            }
+        }
+        int batchesPerCell = (fightsPerCell + BATCH_SIZE - 1) / BATCH_SIZE;
+        pool.invoke(new BatchTask(0, results.length * batchesPerCell, results, batchesPerCell));
+        return results;
+    }
+
+    /**
+     * Fights one battle to the end with {@link BattleManager} and records the
+     * outcome.
+     */
+    private void fight(Result out, BattleManager battle, Sink sink, int[] group, Random random) {
+        int level = out.level;
+        int maxHP = ProgressionTable.hp(level);
+        BattleContext context = new BattleContext(level, maxHP, maxHP, ProgressionTable.mp(level),
+                ProgressionTable.attack(level), ProgressionTable.defense(level), ProgressionTable.agility(level),
+                new StatusEffects(), random, sink);
+        sink.reset();
+        battle.startBattle(context, group, out.group);
+        while (true) {
+            sink.runPending();
+            if (battle.isOver() || context.hp <= 0) {
+                break;
+            }
+            command(out.strategy, battle, context);
+        }
+
+        out.poisoned += context.status.has(StatusEffects.POISON) ? 1 : 0;
+        if (sink.won) {
+            out.wins++;
+            out.turnCounts[Math.min(battle.getRounds(), MAX_TRACKED_TURNS - 1)]++;
+            out.hpLeftCounts[Math.max(0, context.hp) * 100 / maxHP]++;
+        } else if (sink.lost || context.hp <= 0) {
+            out.losses++;
+        } else {
+            out.escapes++;
+        }
+    }
+
+    /**
+     * Enters a strategy's command for the round, as the player would from the
+     * battle menu. Attacks and Fireball go to the monster the cursor starts on.
+     */
+    private static void command(int strategy, BattleManager battle, BattleContext context) {
+        switch (strategy) {
+            case STRATEGY_FIREBALL:
+                if (context.mp >= BattleRules.FIREBALL_COST) {
+                    battle.executeBattleCommand(COMMAND_MAGIC);
+                    battle.selectSpell(BattleManager.SPELL_FIREBALL);
+                } else {
+                    battle.executeBattleCommand(COMMAND_ATTACK);
+                }
+                break;
+            case STRATEGY_CAUTIOUS:
+                if (context.hp * 3 <= context.maxHP && context.mp >= BattleRules.HEAL_COST) {
+                    battle.executeBattleCommand(COMMAND_MAGIC);
+                    battle.selectSpell(BattleManager.SPELL_HEAL);
+                } else {
+                    battle.executeBattleCommand(COMMAND_ATTACK);
+                }
+                break;
+            case STRATEGY_RUN:
+                battle.executeBattleCommand(COMMAND_RUN);
+                break;
+            default:
+                battle.executeBattleCommand(COMMAND_ATTACK);
+                break;
+        }
+        if (battle.isTargeting()) {
+            battle.executeBattleCommand(COMMAND_ATTACK); // Confirm the target
+        }
+    }
+
+    /**
+     * Plays a battle without a screen: keeps the continuation of the last
+     * message to run from the fight's loop, notes how the battle ended and
+     * drops everything else.
+     */
+    private static class Sink implements BattleEvents {
+        private Runnable pending;
+        private boolean won;
+        private boolean lost;
+
+        void reset() {
+            pending = null;
+            won = false;
+            lost = false;
+        }
+
+        void runPending() {
+            while (pending != null) {
+                Runnable next = pending;
+                pending = null;
+                next.run();
+            }
+        }
+
+        @Override
+        public void message(String text, Runnable next) {
+            pending = next;
+        }
+
+        @Override
+        public void sound(String sound) {
+        }
+
+        @Override
+        public void music(String track) {
+        }
+
+        @Override
+        public void magicMenu() {
+        }
+
+        @Override
+        public void itemDropped(Item item) {
+        }
+
+        @Override
+        public void battleWon(int xp, int gold) {
+            won = true;
+        }
+
+        @Override
+        public void battleLost() {
+            lost = true;
+        }
+
+        @Override
+        public void battleLeft() {
+        }
+
+        @Override
+        public void trace(String line) {
+        }
+    }
+
+    /**
+     * Mixes the run seed and a batch number into the seed of that batch's
+     * random stream.
+     */
+    private long batchSeed(int batch) {
+        long h = seed + 0x9E3779B97F4A7C15L * (batch + 1L);
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Runs a range of batches, splitting the range in half until a single batch
+     * is left. Batch {@code b} runs fights of cell {@code b / batchesPerCell}.
+     */
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final Result[] results;
+        private final int batchesPerCell;
+
+        BatchTask(int from, int to, Result[] results, int batchesPerCell) {
+            this.from = from;
+            this.to = to;
+            this.results = results;
+            this.batchesPerCell = batchesPerCell;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(from, mid, results, batchesPerCell),
+                        new BatchTask(mid, to, results, batchesPerCell));
+                return;
+            }
+            Result cell = results[from / batchesPerCell];
+            int first = (from % batchesPerCell) * BATCH_SIZE;
+            int fights = Math.min(BATCH_SIZE, fightsPerCell - first);
+            Result batch = new Result(cell.monster, cell.group, cell.level, cell.strategy);
+            Random random = new Random(batchSeed(from));
+            BattleManager battle = new BattleManager(monsters);
+            Sink sink = new Sink();
+            int[] group = new int[cell.group];
+            Arrays.fill(group, cell.monster);
+            for (int i = 0; i < fights; i++) {
+                fight(batch, battle, sink, group, random);
+            }
+            cell.add(batch);
+        }
+    }
+
+    /**
+     * Simulates the monster catalog and writes the results as CSV.
+     * Usage: {@code BattleSimulator [fights] [max level] [output.csv] [seed] [max group]}
+     *
+     * @param args Optionally the fights per monster, group size, level and
+     *             strategy (default 10000), the highest level (default 10),
+     *             the output file (default battle_balance.csv), the seed
+     *             (default 1) and the largest group (default 3).
+     */
+    public static void main(String[] args) {
+        int fights = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int maxLevel = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String output = args.length > 2 ? args[2] : "battle_balance.csv";
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        int maxGroup = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+
+        Monster[] monsters = MonsterCatalog.load(null);
+        long start = System.nanoTime();
+        Result[] results = new BattleSimulator(monsters, maxGroup, maxLevel, fights, seed).run(ForkJoinPool.commonPool());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(output)))) {
+            out.println("monster,group,level,strategy,fights,win_rate,loss_rate,escape_rate,poison_rate,"
+                    + "turns_mean,turns_p10,turns_p50,turns_p90,hp_left_p10,hp_left_p50,hp_left_p90");
+            for (Result r : results) {
+                out.printf(java.util.Locale.ROOT, "\"%s\",%d,%d,%s,%d,%.4f,%.4f,%.4f,%.4f,%.2f,%d,%d,%d,%d,%d,%d%n",
+                        monsters[r.monster].name, r.group, r.level, STRATEGY_NAMES[r.strategy], r.getFights(),
+                        r.getWinRate(), r.getLossRate(), r.getEscapeRate(), r.getPoisonRate(), r.getMeanTurns(),
+                        r.getTurnsPercentile(0.1), r.getTurnsPercentile(0.5), r.getTurnsPercentile(0.9),
+                        r.getHpLeftPercentile(0.1), r.getHpLeftPercentile(0.5), r.getHpLeftPercentile(0.9));
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write " + output + ": " + e.getMessage());
+            return;
+        }
+        long total = (long) results.length * fights;
+        System.out.printf("Simulated %,d fights in %.2f s (%,.0f fights/s) -> %s%n", total, seconds,
+                total / seconds, output);
+    }
+}
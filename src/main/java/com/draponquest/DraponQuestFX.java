@@ -10,6 +10,7 @@ import javafx.animation.AnimationTimer;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import java.io.*;
 import java.nio.file.*;
@@ -59,6 +60,8 @@ public class DraponQuestFX extends Application {
 
         // Set up input handling
         inputHandler = new GameInputHandler(this, scene);
+        gameCanvas.setOnMouseClicked(event -> handleMapClick(event.getX(), event.getY()));
+        mapReloader = MapHotReloader.startIfEnabled(this::onFieldTilesChanged);
 
         // Start the game loop
         gameLoop = new GameLoop();
@@ -87,6 +90,10 @@ public class DraponQuestFX extends Application {
      * Preserved from the original game.
      */
     private static final int WAIT_MSEC = 100;
+    /**
+     * The most monster sprites kept decoded at once.
+     */
+    private static final int MONSTER_SPRITE_CACHE_SIZE = 16;
 
     /**
      * A random number generator used for various game mechanics like encounters and
@@ -297,6 +304,27 @@ public class DraponQuestFX extends Application {
      */
     private int savedFieldMapY = 0;
 
+    // Auto-walk (click-to-move) state
+    /**
+     * The remaining path the player is automatically walking along, as packed
+     * tile indices from the place's {@link Pathfinder}, or null if not walking.
+     */
+    private int[] autoWalkPath = null;
+    /**
+     * The index of the next step in {@code autoWalkPath}.
+     */
+    private int autoWalkIndex = 0;
+    /**
+     * The place the current auto-walk path belongs to. The walk is cancelled if
+     * the player leaves it.
+     */
+    private int autoWalkPlace = PLACE_FIELD;
+    /**
+     * The route the player is automatically travelling along on the field, or
+     * null if not travelling.
+     */
+    private FlowField autoTravelField = null;
+
     // Script variables
     /**
      * Array storing lines of dialogue or script for events.
@@ -345,85 +373,27 @@ public class DraponQuestFX extends Application {
      */
     private Image playerImage2;
     /**
-     * Image representing the sea tile.
-     */
-    private Image seaImage;
-    /**
-     * Image representing the sand tile.
-     */
-    private Image sandImage;
-    /**
-     * Image representing the steppe tile.
-     */
-    private Image steppeImage;
-    /**
-     * Image representing the forest tile.
-     */
-    private Image forestImage;
-    /**
-     * Image representing the shop tile.
-     */
-    public Image shopImage;
-    /**
-     * Image representing the plains tile.
-     */
-    private Image plainsImage;
-    /**
-     * Image representing the mountain tile.
-     */
-    private Image mountainImage;
-    /**
-     * Image representing the town tile.
-     */
-    private Image townImage;
-    /**
-     * Image representing the castle tile.
-     */
-    private Image castleImage;
-    /** Image representing the house tile. */
-    private Image houseImage;
-    /** Image representing the inn tile. */
-    private Image innImage;
-    /**
-     * Image representing the bridge tile.
-     */
-    private Image bridgeImage;
-    /**
-     * Image representing the swamp tile.
-     */
-    private Image swampImage;
-    /**
-     * Image representing the wall tile for indoor areas.
-     */
-    private Image wallImage;
-    /**
-     * Image representing the floor tile for indoor areas.
-     */
-    private Image floorImage;
-    /**
-     * Image representing the cave tile.
-     */
-    private Image caveImage;
-    /**
-     * Image for monster type 1.
+     * Tile images indexed by tile id, loaded from the sprites named in the tile
+     * table. Null entries are drawn with the tile's fallback colour.
      */
-    private Image monster1Image;
+    private Image[] tileImages;
     /**
-     * Image for monster type 2.
+     * Fallback colours indexed by tile id, used when a tile has no image.
      */
-    private Image monster2Image;
+    private Color[] tileColors;
     /**
-     * Image for monster type 3.
+     * Minimap colours indexed by tile id.
      */
-    private Image monster3Image;
+    private Color[] minimapColors;
     /**
-     * Image for monster type 4.
+     * Monster sprites, decoded on first use and kept for the most recent
+     * monsters only.
      */
-    private Image monster4Image;
+    private final MonsterSprites monsterSprites = new MonsterSprites(MONSTER_SPRITE_CACHE_SIZE);
     /**
-     * Image for monster type 5.
+     * The encounter zone whose monster sprites were last prefetched, or -1.
      */
-    private Image monster5Image;
+    private int spriteZone = -1;
 
     /**
      * The player character's current hit points.
@@ -467,9 +437,9 @@ public class DraponQuestFX extends Application {
      */
     public int playerDefense = 2;
     /**
-     * The player character's poison status.
+     * The player character's status effects, such as poison.
      */
-    public boolean isPoisoned = false;
+    public final StatusEffects playerStatus = new StatusEffects();
     /**
      * A message displayed temporarily to the player, often after a command or
      * action.
@@ -594,6 +564,19 @@ public class DraponQuestFX extends Application {
      * Array of available monster types in the game.
      */
     public Monster[] monsters;
+    /**
+     * Weighted monster tables that decide which monsters a random encounter is
+     * against.
+     */
+    private EncounterTable encounters;
+    /**
+     * Counts down the steps to the next random encounter.
+     */
+    private final EncounterScheduler encounterScheduler = new EncounterScheduler();
+    /**
+     * Receives the roster indices of the monsters a random encounter picks.
+     */
+    private final int[] encounterGroup = new int[BattleManager.MAX_ENEMIES];
     /**
      * The player's inventory, managing items collected.
      */
@@ -606,6 +589,19 @@ public class DraponQuestFX extends Application {
      * Manages all aspects of combat encounters.
      */
     public BattleManager battleManager;
+    /**
+     * Shows battles on screen and keeps the player's stats in step with them.
+     */
+    private GameBattleEvents battleEvents;
+    /**
+     * Records every battle for offline analysis, if a log directory is set.
+     */
+    private BattleLog battleLog = BattleLog.DISABLED;
+    /**
+     * Fights random battles without input while set; null when auto battle is
+     * off.
+     */
+    private AutoBattlePolicy autoBattlePolicy;
 
     // Items
     /**
@@ -623,9 +619,30 @@ public class DraponQuestFX extends Application {
 
     // NPC System
     /**
-     * Array of Non-Player Characters (NPCs) in the game world.
+     * Every Non-Player Character (NPC) in the game world, with an occupancy grid
+     * per place ID.
+     */
+    private NpcStore npcStore;
+    /**
+     * Picks which NPCs of the current place move on each tick. Each NPC moves on
+     * 2% of ticks on average, and a tick spends at most half a millisecond on
+     * them.
+     */
+    private final NpcScheduler npcScheduler = new NpcScheduler(0.02, 500_000L);
+    /**
+     * The place ID whose NPCs are in {@link #npcScheduler}, or -1 if it must be
+     * refilled.
+     */
+    private int scheduledPlace = -1;
+    /**
+     * Works out where the due NPCs step, in parallel once enough of them are due
+     * in the same tick.
      */
-    private NPC[] npcs = new NPC[13];
+    private final NpcMovePlanner npcMovePlanner = new NpcMovePlanner(Integer.getInteger(
+            NpcMovePlanner.PARALLEL_THRESHOLD_PROPERTY, NpcMovePlanner.DEFAULT_PARALLEL_THRESHOLD));
+    /** The ids of the NPCs due to move this tick. */
+    private int[] dueNpcs = new int[16];
+    private int dueNpcCount = 0;
     /**
      * Image for a soldier NPC.
      */
@@ -639,65 +656,39 @@ public class DraponQuestFX extends Application {
      */
     private Image kingImage;
     /**
-     * Array of treasure chests scattered throughout the game world.
+     * The treasure chest of each dungeon floor, by floor number. Created when a
+     * chest is first checked, so opened chests stay opened when a floor is
+     * evicted and generated again.
      */
-    private TreasureChest[] treasureChests;
-
+    private java.util.Map<Integer, TreasureChest> floorChests = new java.util.HashMap<>();
     /**
-     * NPC Inner Class
+     * The floors of the cave dungeon, with the next floor generated in the
+     * background.
      */
-    class NPC {
-        /**
-         * The unique identifier for this NPC.
-         */
-        public int id;
-        /**
-         * The world coordinates (X, Y) of the NPC's position.
-         */
-        public int x, y;
-        /**
-         * The type of NPC (e.g., 0=Soldier, 1=Merchant, 2=King).
-         */
-        public int type;
-        /**
-         * The direction the NPC is facing (0=Down, 1=Left, 2=Right, 3=Up).
-         */
-        public int direction;
-        /**
-         * The ID of the script associated with this NPC for dialogue or events.
-         */
-        public int scriptID;
-        /**
-         * The ID of the place where this NPC resides (e.g., 0=Field, 1=Building).
-         */
-        public int placeID;
-        /**
-         * Flag indicating whether the NPC is currently visible.
-         */
-        public boolean visible;
+    private DungeonManager dungeon;
 
-        /**
-         * Constructs a new NPC.
-         * 
-         * @param id     The unique identifier for this NPC.
-         * @param x      The initial X-coordinate of the NPC.
-         * @param y      The initial Y-coordinate of the NPC.
-         * @param type   The type of NPC.
-         * @param dir    The initial direction the NPC is facing.
-         * @param script The ID of the script associated with this NPC.
-         * @param place  The ID of the place where this NPC resides.
-         */
-        public NPC(int id, int x, int y, int type, int dir, int script, int place) {
-            this.id = id;
-            this.x = x;
-            this.y = y;
-            this.type = type;
-            this.direction = dir;
-            this.scriptID = script;
-            this.placeID = place;
-            this.visible = true;
-        }
-    }
+    // Pathfinding
+    /**
+     * Pathfinding service for the overworld field map.
+     */
+    private Pathfinder fieldPathfinder;
+    /**
+     * Pathfinding service for the town map.
+     */
+    private Pathfinder townPathfinder;
+    /**
+     * Precomputed routes to every named town, castle and cave on the field.
+     */
+    private FlowFieldCache travelRoutes;
+    /**
+     * The field minimap at one pixel per tile, drawn once and then updated pixel
+     * by pixel when tiles change.
+     */
+    private WritableImage fieldMinimap;
+    /**
+     * Reloads the field map when its file changes, in development mode only.
+     */
+    private MapHotReloader mapReloader;
 
     /**
      * Resets all critical game state variables to their initial values,
@@ -712,28 +703,30 @@ public class DraponQuestFX extends Application {
         playerDirection = 1; // 0=Up, 1=Down, 2=Left, 3=Right
         showMinimap = true;
 
-        fieldMapEndWidth = 40; // 40 + 8 = 48 (Tantegel X)
-        fieldMapEndHeight = 48; // 48 + 8 = 56 (Tantegel Y)
+        fieldMapEndWidth = fieldMapData.getStartCol() - 8; // 40 + 8 = 48 (Tantegel X)
+        fieldMapEndHeight = fieldMapData.getStartRow() - 8; // 48 + 8 = 56 (Tantegel Y)
         savedFieldMapX = 0;
         savedFieldMapY = 0;
+        if (dungeon != null) {
+            dungeon.reset();
+        }
+        floorChests.clear();
+        fieldMapData.clearOverlays();
 
         scriptLines = null;
         scriptID = 0;
         scriptLineIndex = 0;
         scriptAdvanceTick = 0;
+        cancelAutoWalk();
 
-        playerHP = 40;
-        maxPlayerHP = 40;
-        playerMP = 10;
-        maxPlayerMP = 10;
         playerXP = 0;
-
         playerLevel = 1;
-        xpToNextLevel = 10;
+        setLevelStats();
+        playerHP = maxPlayerHP;
+        playerMP = maxPlayerMP;
         playerGold = 0;
-        playerAttack = 5;
-        playerDefense = 2;
-        isPoisoned = false;
+        playerStatus.clear();
+        encounterScheduler.reset();
         commandMessage = null;
         commandMessageTime = 0;
 
@@ -765,7 +758,8 @@ public class DraponQuestFX extends Application {
         inventory.addItem(potion); // Add initial potion
         inventory.addItem(antidote);
         shop = new Shop();
-        battleManager = new BattleManager(this);
+        battleManager = new BattleManager(monsters, battleLog);
+        battleEvents = new GameBattleEvents(this);
         initNPCs(); // Re-initialize NPCs with new random positions
     }
 
@@ -778,6 +772,32 @@ public class DraponQuestFX extends Application {
         System.out.println("Initializing game components");
         // Initialize map data
         fieldMapData.initialize();
+        fieldPathfinder = new Pathfinder(fieldMapData.getFieldPassability(), fieldMapData::mapDataReturnField,
+                PassabilityMap.MOVE_WALKER);
+        townPathfinder = new Pathfinder(fieldMapData.getTownPassability(), fieldMapData::mapDataReturnTown,
+                PassabilityMap.MOVE_WALKER);
+        dungeon = new DungeonManager(random.nextLong());
+        travelRoutes = new FlowFieldCache(fieldMapData.getFieldPassability(), fieldMapData::mapDataReturnField,
+                fieldMapData.getNamedLocations());
+        registerEventHandlers();
+        eventMapData.indexTiles(PLACE_FIELD, fieldMapData.FIELD_MAP_WIDTH, fieldMapData.FIELD_MAP_WIDTH,
+                fieldMapData::mapDataReturnField);
+        eventMapData.indexTiles(PLACE_BLDNG, fieldMapData.getTownPassability().getWidth(),
+                fieldMapData.getTownPassability().getHeight(), fieldMapData::mapDataReturnTown);
+        eventMapData.load();
+        npcStore = new NpcStore(
+                new OccupancyGrid(fieldMapData.FIELD_MAP_WIDTH, fieldMapData.FIELD_MAP_WIDTH),
+                new OccupancyGrid(fieldMapData.getTownPassability().getWidth(),
+                        fieldMapData.getTownPassability().getHeight()),
+                new OccupancyGrid(DungeonFloor.MAX_FLOOR_SIZE, DungeonFloor.MAX_FLOOR_SIZE));
+        for (int place : new int[] { PLACE_FIELD, PLACE_BLDNG, PLACE_CAVE }) {
+            FreeTileSet freeTiles = npcStore.getFreeTiles(place);
+            freeTiles.setExcluded(tile -> isExitTile(place, tile % freeTiles.getWidth(),
+                    tile / freeTiles.getWidth()));
+        }
+
+        battleLog = BattleLog.openFromProperty();
+        autoBattlePolicy = AutoBattlePolicy.fromProperty();
 
         // Initialize audio system
         audioManager = AudioManager.getInstance();
@@ -799,114 +819,8 @@ public class DraponQuestFX extends Application {
             playerImage2 = null;
         }
 
-        // Load tile images
-        try {
-            seaImage = new Image(getClass().getResourceAsStream("/images/sea.png"));
-        } catch (Exception e) {
-            seaImage = null;
-        }
-        try {
-            sandImage = new Image(getClass().getResourceAsStream("/images/snd.png"));
-        } catch (Exception e) {
-            sandImage = null;
-        }
-        try {
-            steppeImage = new Image(getClass().getResourceAsStream("/images/stp.png"));
-        } catch (Exception e) {
-            steppeImage = null;
-        }
-        try {
-            forestImage = new Image(getClass().getResourceAsStream("/images/wd.png"));
-        } catch (Exception e) {
-            forestImage = null;
-        }
-        try {
-            shopImage = new Image(getClass().getResourceAsStream("/images/shop.png"));
-        } catch (Exception e) {
-            shopImage = null;
-        }
-        try {
-            plainsImage = new Image(getClass().getResourceAsStream("/images/plains.png"));
-        } catch (Exception e) {
-            plainsImage = null;
-        }
-        try {
-            mountainImage = new Image(getClass().getResourceAsStream("/images/mountain.png"));
-        } catch (Exception e) {
-            mountainImage = null;
-        }
-        try {
-            townImage = new Image(getClass().getResourceAsStream("/images/town.png"));
-        } catch (Exception e) {
-            townImage = null;
-        }
-        try {
-            castleImage = new Image(getClass().getResourceAsStream("/images/castle.png"));
-        } catch (Exception e) {
-            castleImage = null;
-        }
-        try {
-            houseImage = new Image(getClass().getResourceAsStream("/images/shop.png"));
-        } catch (Exception e) {
-            houseImage = null;
-        }
-        try {
-            innImage = new Image(getClass().getResourceAsStream("/images/shop.png"));
-        } catch (Exception e) {
-            innImage = null;
-        }
-        try {
-            bridgeImage = new Image(getClass().getResourceAsStream("/images/bridge.png"));
-        } catch (Exception e) {
-            bridgeImage = null;
-        }
-        try {
-            swampImage = new Image(getClass().getResourceAsStream("/images/swamp.png"));
-        } catch (Exception e) {
-            swampImage = null;
-        }
-        try {
-            wallImage = new Image(getClass().getResourceAsStream("/images/wall.png"));
-        } catch (Exception e) {
-            // wall.png might not exist yet, keeping fallback or try png
-            wallImage = null;
-        }
-        try {
-            floorImage = new Image(getClass().getResourceAsStream("/images/floor.png"));
-        } catch (Exception e) {
-            floorImage = null;
-        }
-        try {
-            caveImage = new Image(getClass().getResourceAsStream("/images/cave.png"));
-        } catch (Exception e) {
-            caveImage = null;
-        }
-        try {
-            monster1Image = new Image(getClass().getResourceAsStream("/images/monster1.gif"));
-        } catch (Exception e) {
-            monster1Image = null;
-        }
-        try {
-            monster2Image = new Image(getClass().getResourceAsStream("/images/monster2.gif"));
-        } catch (Exception e) {
-            monster2Image = null;
-        }
-        try {
-            monster3Image = new Image(getClass().getResourceAsStream("/images/monster3.gif"));
-        } catch (Exception e) {
-            monster3Image = null;
-        }
-        try {
-            monster4Image = new Image(getClass().getResourceAsStream("/images/monster4.gif"));
-        } catch (Exception e) {
-            monster4Image = null;
-        }
-        try {
-            monster5Image = new Image(getClass().getResourceAsStream("/images/monster5.gif"));
-        } catch (Exception e) {
-            monster5Image = null;
-        }
-
+        // Load tile images and colours from the tile table
+        loadTileGraphics();
         // Load NPC images
         try {
             soldierImage = new Image(getClass().getResourceAsStream("/images/soldier1.png"));
@@ -924,18 +838,12 @@ public class DraponQuestFX extends Application {
             kingImage = playerImage1;
         }
         // Initialize monsters array
-        monsters = new Monster[] {
-                new Monster(monster1Image, "Tung Tung Tung Sahur", 4, 2, 1, 5, 10, herb, 0.2, false, false, false),
-                new Monster(monster2Image, "Tralalero Tralala", 6, 4, 2, 8, 15, herb, 0.3, false, false, false),
-                new Monster(monster3Image, "Bombardiro Crocodilo", 9, 6, 3, 12, 20, potion, 0.2, false, false, false),
-                new Monster(monster4Image, "Ballerina Cappuccina", 8, 5, 2, 15, 25, potion, 0.3, false, false, false),
-                new Monster(monster5Image, "Cappuccino Assassino", 12, 7, 4, 25, 40, antidote, 0.1, true, true, false)
-        };
-
-        treasureChests = new TreasureChest[] {
-                new TreasureChest(potion, fieldMapData.caveChestLocation[1], fieldMapData.caveChestLocation[0],
-                        PLACE_CAVE)
-        };
+        java.util.Map<String, Item> drops = new java.util.HashMap<>();
+        drops.put("herb", herb);
+        drops.put("potion", potion);
+        drops.put("antidote", antidote);
+        monsters = MonsterCatalog.load(drops);
+        encounters = EncounterTable.load(monsters.length);
     }
 
     /**
@@ -946,87 +854,59 @@ public class DraponQuestFX extends Application {
      * or when an area is loaded.
      */
     private void initNPCs() {
-        // King, Soldier, and Merchant will have random walkable positions in the
-        // building
-        int[] kingPos = generateRandomWalkableCoord(PLACE_BLDNG);
-        npcs[2] = new NPC(2, kingPos[0], kingPos[1], 2, random.nextInt(4), 0, PLACE_BLDNG); // King with Script ID 0
-
-        int[] soldierPos = generateRandomWalkableCoord(PLACE_BLDNG);
-        npcs[3] = new NPC(3, soldierPos[0], soldierPos[1], 0, random.nextInt(4), 2, PLACE_BLDNG); // Soldier with Script
-                                                                                                  // ID 2
-
-        int[] merchantPos = generateRandomWalkableCoord(PLACE_BLDNG);
-        npcs[4] = new NPC(4, merchantPos[0], merchantPos[1], 1, random.nextInt(4), 3, PLACE_BLDNG); // Merchant with
-                                                                                                    // Script ID 3
-
-        int[] soldierPos2 = generateRandomWalkableCoord(PLACE_BLDNG);
-        npcs[5] = new NPC(5, soldierPos2[0], soldierPos2[1], 0, random.nextInt(4), 4, PLACE_BLDNG);
-
-        int[] merchantPos2 = generateRandomWalkableCoord(PLACE_BLDNG);
-        npcs[6] = new NPC(6, merchantPos2[0], merchantPos2[1], 1, random.nextInt(4), 5, PLACE_BLDNG);
-
-        int[] soldierPos3 = generateRandomWalkableCoord(PLACE_BLDNG);
-        npcs[7] = new NPC(7, soldierPos3[0], soldierPos3[1], 0, random.nextInt(4), 6, PLACE_BLDNG);
+        npcStore.clear();
+        scheduledPlace = -1;
+        for (int[] npc : NpcStore.readPlacements()) {
+            int placeID = npc[0];
+            int x = npc[1];
+            int y = npc[2];
+            if (x == NpcStore.RANDOM || y == NpcStore.RANDOM) {
+                int[] pos = generateRandomWalkableCoord(placeID);
+                if (pos == null) {
+                    System.out.println("No free tile left for an NPC in place " + placeID);
+                    continue;
+                }
+                x = pos[0];
+                y = pos[1];
+            }
+            int direction = npc[4] == NpcStore.RANDOM ? random.nextInt(4) : npc[4];
+            if (npcStore.spawn(x, y, npc[3], direction, npc[5], placeID) < 0) {
+                System.out.println("Could not place NPC at " + x + "," + y + " in place " + placeID);
+            }
+        }
     }
 
     /**
-     * Generates random walkable coordinates for NPCs within a given place.
-     * This ensures NPCs don't spawn on walls or in the sea.
+     * Picks a random walkable tile of a place that no NPC stands on.
+     * This ensures NPCs don't spawn on walls, in the sea, or on each other.
+     * Exit tiles are left out of the draw, see {@link #isExitTile}.
      * 
      * @param placeID The ID of the place for which to generate coordinates (e.g.,
      *                PLACE_BLDNG, PLACE_CAVE).
      * @return An int array containing the {x, y} coordinates of a random walkable
-     *         tile.
+     *         tile, or null if every walkable tile is taken.
      */
     private int[] generateRandomWalkableCoord(int placeID) {
-        int x, y;
-        int mapWidth = 0;
-        int mapHeight = 0;
-        int minX = 0, minY = 0;
-
-        // Determine bounds based on placeID
-        if (placeID == PLACE_BLDNG || placeID == PLACE_CAVE) {
-            mapWidth = 16;
-            mapHeight = 16;
-            minX = 1; // Avoid walls on edges
-            minY = 1; // Avoid walls on edges
-        } else { // PLACE_FIELD
-            mapWidth = fieldMapData.FIELD_MAP_WIDTH;
-            mapHeight = fieldMapData.FIELD_MAP_WIDTH;
-            minX = 0;
-            minY = 0;
-        }
-
-        while (true) {
-            x = random.nextInt(mapWidth - minX * 2) + minX;
-            y = random.nextInt(mapHeight - minY * 2) + minY;
-
-            int tile;
-            if (placeID == PLACE_BLDNG) {
-                tile = fieldMapData.mapDataReturnTown(y, x);
-            } else if (placeID == PLACE_CAVE) {
-                tile = fieldMapData.mapDataReturnCave(y, x);
-            } else {
-                tile = fieldMapData.mapDataReturnField(y, x);
-            }
-
-            // Check if the tile is walkable and not the player's initial spawn point (for
-            // building)
-            if (isWalkable(y, x) && !(placeID == PLACE_BLDNG && x == 8 && y == 15)) { // Player spawns at (8,15)
-                                                                                      // relative in building
-                // Ensure no other NPC is already at this position
-                boolean collision = false;
-                for (NPC npc : npcs) {
-                    if (npc != null && npc.placeID == placeID && npc.x == x && npc.y == y) {
-                        collision = true;
-                        break;
-                    }
-                }
-                if (!collision) {
-                    return new int[] { x, y };
-                }
-            }
+        FreeTileSet freeTiles = npcStore.getFreeTiles(placeID);
+        int tile = freeTiles.sample(getPassability(placeID), random);
+        if (tile < 0) {
+            return null;
         }
+        return new int[] { tile % freeTiles.getWidth(), tile / freeTiles.getWidth() };
+    }
+
+    /**
+     * Checks whether stepping onto a tile leaves its place, like the town
+     * gate. NPCs are kept off these so they never block the way in or out.
+     *
+     * @param placeID The place of the tile.
+     * @param x       The column of the tile.
+     * @param y       The row of the tile.
+     * @return true if the tile has an exit trigger.
+     */
+    private static boolean isExitTile(int placeID, int x, int y) {
+        eventMapData.Trigger trigger = eventMapData.find(placeID, eventMapData.ON_ENTER, x, y);
+        return trigger != null && eventMapData.ACTION_EXIT.equals(trigger.getAction());
     }
 
     /**
@@ -1117,6 +997,7 @@ public class DraponQuestFX extends Application {
         // Update NPCs if not in battle or a menu
         if (currentMode == MODE_MOVE) {
             updateNPCs();
+            updateAutoWalk();
         }
 
         if (currentMode == MODE_INN) {
@@ -1133,59 +1014,35 @@ public class DraponQuestFX extends Application {
     /**
      * Updates the positions and directions of NPCs, allowing them to move randomly
      * within walkable areas and handling collisions with other NPCs or the player.
+     * Only the NPCs the scheduler says are due this tick are visited; see
+     * {@link NpcMovePlanner} for how they are moved.
      */
     private void updateNPCs() {
-        // Chance for an NPC to move, e.g., 10% per tick
-        final double moveChance = 0.02;
-
-        for (NPC npc : npcs) {
-            // Only move NPCs that exist, are in the current area
-            if (npc != null && npc.placeID == currentPlace && random.nextDouble() < moveChance) {
-
-                int direction = random.nextInt(4); // 0=Up, 1=Down, 2=Left, 3=Right
-
-                int targetX = npc.x;
-                int targetY = npc.y;
-
-                switch (direction) {
-                    case 0:
-                        targetY--;
-                        break; // Up
-                    case 1:
-                        targetY++;
-                        break; // Down
-                    case 2:
-                        targetX--;
-                        break; // Left
-                    case 3:
-                        targetX++;
-                        break; // Right
-                }
-
-                // --- Collision Detection ---
-                // 1. Check for map boundaries and walkable tiles
-                if (!isWalkable(targetY, targetX)) {
-                    continue; // Skip move if target is a wall or out of bounds
-                }
-
-                // 2. Check for collision with other NPCs
-                if (isNpcAt(targetX, targetY, currentPlace)) {
-                    continue; // Skip move if another NPC is there
-                }
-
-                // 3. Check for collision with the player
-                int playerX = fieldMapEndWidth + 8;
-                int playerY = fieldMapEndHeight + 8;
-                if (targetX == playerX && targetY == playerY) {
-                    continue; // Skip move if player is there
-                }
-
-                // If all checks pass, move the NPC
-                npc.x = targetX;
-                npc.y = targetY;
-                npc.direction = direction; // Update direction so sprite can face correctly
+        // NPCs outside the current area sleep; after a place change, schedule
+        // the ones here instead
+        if (scheduledPlace != currentPlace) {
+            npcScheduler.clear();
+            for (int i = 0; i < npcStore.countIn(currentPlace); i++) {
+                npcScheduler.schedule(npcStore.idIn(currentPlace, i), random);
             }
+            scheduledPlace = currentPlace;
         }
+        dueNpcCount = 0;
+        npcScheduler.tick(random, this::addDueNpc);
+        npcMovePlanner.moveAll(npcStore, dueNpcs, dueNpcCount, random.nextLong(),
+                getPassability(currentPlace), fieldMapEndWidth + 8, fieldMapEndHeight + 8);
+    }
+
+    /**
+     * Adds an NPC to the ones moving this tick.
+     *
+     * @param id The NPC's id.
+     */
+    private void addDueNpc(int id) {
+        if (dueNpcCount == dueNpcs.length) {
+            dueNpcs = java.util.Arrays.copyOf(dueNpcs, dueNpcCount * 2);
+        }
+        dueNpcs[dueNpcCount++] = id;
     }
 
     /**
@@ -1306,147 +1163,41 @@ public class DraponQuestFX extends Application {
                 } else {
                     tile = fieldMapData.mapDataReturnField(i + fieldMapEndHeight, j + fieldMapEndWidth);
                 }
-                Image tileImage = null;
-                switch (tile) {
-                    case fieldMapData.TILE_SEA:
-                        tileImage = seaImage;
-                        break;
-                    case fieldMapData.TILE_SAND:
-                        tileImage = sandImage;
-                        break;
-                    case fieldMapData.TILE_STEPPE:
-                        tileImage = steppeImage;
-                        break;
-                    case fieldMapData.TILE_FOREST:
-                        tileImage = forestImage;
-                        break;
-                    case fieldMapData.TILE_SHOP:
-                        tileImage = shopImage;
-                        break;
-                    case fieldMapData.TILE_PLAINS:
-                        tileImage = plainsImage;
-                        break;
-                    case fieldMapData.TILE_MOUNTAIN:
-                        tileImage = mountainImage;
-                        break;
-                    case fieldMapData.TILE_TOWN:
-                        tileImage = townImage;
-                        break;
-                    case fieldMapData.TILE_CASTLE:
-                        tileImage = castleImage;
-                        break;
-                    case fieldMapData.TILE_HOUSE:
-                        tileImage = houseImage;
-                        break;
-                    case fieldMapData.TILE_INN:
-                        tileImage = innImage;
-                        break;
-                    case fieldMapData.TILE_BRIDGE:
-                        tileImage = bridgeImage;
-                        break;
-                    case fieldMapData.TILE_SWAMP:
-                        tileImage = swampImage;
-                        break;
-                    case fieldMapData.TILE_WALL:
-                        tileImage = wallImage;
-                        break;
-                    case fieldMapData.TILE_FLOOR:
-                        tileImage = floorImage;
-                        break;
-                    case fieldMapData.TILE_CAVE:
-                        tileImage = caveImage;
-                        break;
-                    case fieldMapData.TILE_CHEST:
-                        // Will be colored below
-                        break;
-                }
-                if (tileImage != null && !tileImage.isError()) {
+                Image tileImage = tile >= 0 && tile < tileImages.length ? tileImages[tile] : null;
+                if (tileImage != null) {
                     gc.drawImage(tileImage, j * 32, i * 32, 32, 32);
                 } else {
-                    switch (tile) {
-                        case 0:
-                            gc.setFill(Color.DEEPSKYBLUE);
-                            break;
-                        case 1:
-                            gc.setFill(Color.GOLD);
-                            break;
-                        case 2:
-                            gc.setFill(Color.LIGHTGRAY);
-                            break;
-                        case 3:
-                            gc.setFill(Color.FORESTGREEN);
-                            break;
-                        case fieldMapData.TILE_SHOP:
-                            gc.setFill(Color.BROWN); // Shop
-                            break;
-                        case fieldMapData.TILE_PLAINS:
-                            gc.setFill(Color.LIMEGREEN); // Plains
-                            break;
-                        case fieldMapData.TILE_MOUNTAIN:
-                            gc.setFill(Color.DARKGRAY); // Mountain
-                            break;
-                        case fieldMapData.TILE_TOWN:
-                            gc.setFill(Color.ORANGE); // Town
-                            break;
-                        case fieldMapData.TILE_CASTLE:
-                            gc.setFill(Color.LIGHTGRAY); // Castle
-                            break;
-                        case fieldMapData.TILE_BRIDGE:
-                            gc.setFill(Color.SADDLEBROWN); // Bridge
-                            break;
-                        case fieldMapData.TILE_SWAMP:
-                            gc.setFill(Color.DARKGREEN); // Swamp
-                            break;
-                        case fieldMapData.TILE_WALL:
-                            gc.setFill(Color.DARKSLATEGRAY); // Wall
-                            break;
-                        case fieldMapData.TILE_FLOOR:
-                            gc.setFill(Color.rgb(200, 180, 150)); // Floor
-                            break;
-                        case fieldMapData.TILE_CAVE:
-                            gc.setFill(Color.BLACK); // Cave
-                            break;
-                        case fieldMapData.TILE_CHEST:
-                            gc.setFill(Color.GOLD); // Chest
-                            break;
-                        default:
-                            gc.setFill(Color.BLACK);
-                            break;
-                    }
+                    gc.setFill(tile >= 0 && tile < tileColors.length ? tileColors[tile] : Color.BLACK);
                     gc.fillRect(j * 32, i * 32, 32, 32);
                 }
             }
         }
 
-        // Draw NPCs
-        for (
-
-                int i = 0; i < npcs.length; i++) {
-            if (npcs[i] != null && npcs[i].placeID == currentPlace) {
-                // Correct logic: find offset from top-left tile
-                int tileX = npcs[i].x - fieldMapEndWidth;
-                int tileY = npcs[i].y - fieldMapEndHeight;
-
-                if (tileX >= 0 && tileX < 16 && tileY >= 0 && tileY < 16) {
-                    // Draw NPC sprite based on type
-                    Image sprite = playerImage1;
-                    switch (npcs[i].type) {
-                        case 0:
-                            sprite = (soldierImage != null) ? soldierImage : playerImage1;
-                            break;
-                        case 1:
-                            sprite = (merchantImage != null) ? merchantImage : playerImage1;
-                            break;
-                        case 2:
-                            sprite = (kingImage != null) ? kingImage : playerImage1;
-                            break;
-                        case 4:
-                            sprite = (merchantImage != null) ? merchantImage : playerImage1;
-                            break;
-                    }
-                    if (sprite != null) {
-                        gc.drawImage(sprite, tileX * 32, tileY * 32, 32, 32);
-                    }
+        // Draw NPCs standing on the visible tiles
+        for (int tileY = 0; tileY < 16; tileY++) {
+            for (int tileX = 0; tileX < 16; tileX++) {
+                int npc = npcStore.at(currentPlace, tileX + fieldMapEndWidth, tileY + fieldMapEndHeight);
+                if (npc == OccupancyGrid.NONE) {
+                    continue;
+                }
+                // Draw NPC sprite based on type
+                Image sprite = playerImage1;
+                switch (npcStore.getType(npc)) {
+                    case 0:
+                        sprite = (soldierImage != null) ? soldierImage : playerImage1;
+                        break;
+                    case 1:
+                        sprite = (merchantImage != null) ? merchantImage : playerImage1;
+                        break;
+                    case 2:
+                        sprite = (kingImage != null) ? kingImage : playerImage1;
+                        break;
+                    case 4:
+                        sprite = (merchantImage != null) ? merchantImage : playerImage1;
+                        break;
+                }
+                if (sprite != null) {
+                    gc.drawImage(sprite, tileX * 32, tileY * 32, 32, 32);
                 }
             }
         }
@@ -1479,7 +1230,7 @@ public class DraponQuestFX extends Application {
     private void setTextColor(GraphicsContext gc) {
         if (playerHP < maxPlayerHP * 0.05) {
             gc.setFill(Color.RED);
-        } else if (isPoisoned) {
+        } else if (playerStatus.has(StatusEffects.POISON)) {
             gc.setFill(Color.YELLOW);
         } else {
             gc.setFill(Color.WHITE);
@@ -1578,22 +1329,54 @@ public class DraponQuestFX extends Application {
             gc.setFill(Color.rgb(0, 0, 0, 0.85)); // Darker for more focus
             gc.fillRect(0, 0, DISP_WIDTH, DISP_HEIGHT);
 
-            // Monster Name and Image
-            if (battleManager.getCurrentMonster() != null) {
+            // Monster Names, Images and HP bars, side by side
+            int enemyCount = battleManager.getEnemyCount();
+            if (enemyCount > 0) {
                 gc.setTextAlign(javafx.scene.text.TextAlignment.CENTER);
                 gc.setFont(javafx.scene.text.Font.font("Arial", 28));
                 gc.setFill(Color.YELLOW);
-                gc.fillText(battleManager.getCurrentMonster().name, DISP_WIDTH / 2, 180);
-
-                if (battleManager.getCurrentMonster().image != null
-                        && !battleManager.getCurrentMonster().image.isError()) {
-                    gc.drawImage(battleManager.getCurrentMonster().image, (DISP_WIDTH - 128) / 2, 200, 128, 128);
+                String title;
+                if (battleManager.isTargeting() || battleManager.getLivingEnemies() == 1) {
+                    int shown = battleManager.isTargeting() ? battleManager.getTarget() : 0;
+                    while (!battleManager.isTargeting() && shown < enemyCount - 1
+                            && battleManager.getEnemyHP(shown) <= 0) {
+                        shown++;
+                    }
+                    title = battleManager.getEnemyName(shown);
                 } else {
+                    title = battleManager.getLivingEnemies() + LocalizationManager.getText("battle_monsters");
+                }
+                gc.fillText(title, DISP_WIDTH / 2, 180);
+
+                int slotWidth = (DISP_WIDTH - 40) / enemyCount;
+                int size = Math.min(128, slotWidth - 8);
+                for (int i = 0; i < enemyCount; i++) {
+                    if (battleManager.getEnemyHP(i) <= 0) {
+                        continue;
+                    }
+                    int x = 20 + i * slotWidth + (slotWidth - size) / 2;
+                    Image monsterImage = monsterSprites.get(battleManager.getEnemy(i));
+                    if (monsterImage != null) {
+                        gc.drawImage(monsterImage, x, 200, size, size);
+                    } else {
+                        gc.setFill(Color.DARKRED);
+                        gc.fillRect(x, 200, size, size);
+                        gc.setFill(Color.WHITE);
+                        gc.setFont(javafx.scene.text.Font.font("Arial", 18));
+                        gc.fillText("No Image", x + size / 2, 200 + size / 2);
+                    }
+                    // HP bar
+                    double hpRatio = (double) battleManager.getEnemyHP(i) / battleManager.getEnemyMaxHP(i);
                     gc.setFill(Color.DARKRED);
-                    gc.fillRect((DISP_WIDTH - 128) / 2, 200, 128, 128);
-                    gc.setFill(Color.WHITE);
-                    gc.setFont(javafx.scene.text.Font.font("Arial", 18));
-                    gc.fillText("No Image", DISP_WIDTH / 2, 260);
+                    gc.fillRect(x, 206 + size, size, 6);
+                    gc.setFill(Color.LIMEGREEN);
+                    gc.fillRect(x, 206 + size, size * hpRatio, 6);
+                    // Target cursor
+                    if (battleManager.isTargeting() && battleManager.getTarget() == i) {
+                        gc.setStroke(Color.YELLOW);
+                        gc.setLineWidth(3);
+                        gc.strokeRect(x - 4, 196, size + 8, size + 20);
+                    }
                 }
             }
 
@@ -1804,7 +1587,7 @@ public class DraponQuestFX extends Application {
 
             if (playerHP < maxPlayerHP * 0.05) {
                 gc.setFill(Color.RED);
-            } else if (isPoisoned) {
+            } else if (playerStatus.has(StatusEffects.POISON)) {
                 gc.setFill(Color.YELLOW);
             } else {
                 gc.setFill(Color.WHITE);
@@ -2103,12 +1886,15 @@ public class DraponQuestFX extends Application {
 
         if (currentPlace == PLACE_FIELD) {
             // Field map is 128x128, render at 1:1 scale
-            for (int r = 0; r < 128; r++) {
-                for (int c = 0; c < 128; c++) {
-                    int tile = fieldMapData.mapDataReturnField(r, c);
-                    gc.getPixelWriter().setColor(x + c, y + r, getMinimapTileColor(tile));
+            if (fieldMinimap == null) {
+                fieldMinimap = new WritableImage(fieldMapData.FIELD_MAP_WIDTH, fieldMapData.FIELD_MAP_WIDTH);
+                for (int r = 0; r < fieldMapData.FIELD_MAP_WIDTH; r++) {
+                    for (int c = 0; c < fieldMapData.FIELD_MAP_WIDTH; c++) {
+                        updateFieldMinimapPixel(r, c);
+                    }
                 }
             }
+            gc.drawImage(fieldMinimap, x, y);
             // Draw player position
             int playerRow = fieldMapEndHeight + 8;
             int playerCol = fieldMapEndWidth + 8;
@@ -2136,6 +1922,39 @@ public class DraponQuestFX extends Application {
         }
     }
 
+    /**
+     * Redraws one pixel of the cached field minimap from the current tile.
+     *
+     * @param row The row of the tile.
+     * @param col The column of the tile.
+     */
+    private void updateFieldMinimapPixel(int row, int col) {
+        int tile = fieldMapData.mapDataReturnField(row, col);
+        fieldMinimap.getPixelWriter().setColor(col, row, getMinimapTileColor(tile));
+    }
+
+    /**
+     * Called on the FX thread after field tiles were changed by a map reload.
+     * Updates the affected minimap pixels, event triggers and travel routes;
+     * paths and walkability follow the field's passability bits on their own.
+     *
+     * @param indices The packed indices ({@code row * width + col}) of the
+     *                changed tiles.
+     */
+    private void onFieldTilesChanged(int[] indices) {
+        if (fieldMinimap != null) {
+            for (int index : indices) {
+                updateFieldMinimapPixel(index / fieldMapData.FIELD_MAP_WIDTH, index % fieldMapData.FIELD_MAP_WIDTH);
+            }
+        }
+        for (int index : indices) {
+            int row = index / fieldMapData.FIELD_MAP_WIDTH;
+            int col = index % fieldMapData.FIELD_MAP_WIDTH;
+            eventMapData.indexTile(PLACE_FIELD, col, row, fieldMapData.mapDataReturnField(row, col));
+        }
+        travelRoutes.invalidateAll();
+    }
+
     /**
      * Returns a simplified color representation for a given tile type, used for
      * rendering the minimap.
@@ -2144,44 +1963,49 @@ public class DraponQuestFX extends Application {
      * @return A JavaFX Color object corresponding to the tile type.
      */
     private javafx.scene.paint.Color getMinimapTileColor(int tile) {
-        switch (tile) {
-            case fieldMapData.TILE_SEA:
-                return Color.DEEPSKYBLUE;
-            case fieldMapData.TILE_SAND:
-                return Color.GOLD;
-            case fieldMapData.TILE_STEPPE:
-                return Color.LIGHTGRAY;
-            case fieldMapData.TILE_FOREST:
-                return Color.FORESTGREEN;
-            case fieldMapData.TILE_SHOP:
-                return Color.BROWN;
-            case fieldMapData.TILE_PLAINS:
-                return Color.LIMEGREEN;
-            case fieldMapData.TILE_MOUNTAIN:
-                return Color.DARKGRAY;
-            case fieldMapData.TILE_TOWN:
-                return Color.ORANGE;
-            case fieldMapData.TILE_CASTLE:
-                return Color.LIGHTGRAY;
-            case fieldMapData.TILE_HOUSE:
-                return Color.BROWN;
-            case fieldMapData.TILE_INN:
-                return Color.DEEPPINK;
-            case fieldMapData.TILE_BRIDGE:
-                return Color.SADDLEBROWN;
-            case fieldMapData.TILE_SWAMP:
-                return Color.PURPLE;
-            case fieldMapData.TILE_WALL:
-                return Color.DARKSLATEGRAY;
-            case fieldMapData.TILE_FLOOR:
-                return Color.rgb(200, 180, 150);
-            case fieldMapData.TILE_CAVE:
-                return Color.BLACK;
-            case fieldMapData.TILE_CHEST:
-                return Color.YELLOW;
-            default:
-                return Color.BLACK;
+        if (tile < 0 || tile >= minimapColors.length) {
+            return Color.BLACK;
         }
+        return minimapColors[tile];
+    }
+
+    /**
+     * Loads every tile sprite named in the tile table and converts the table's
+     * colours once, so rendering only indexes arrays by tile id. Tiles sharing a
+     * sprite share the loaded image.
+     */
+    private void loadTileGraphics() {
+        int count = TileDef.count();
+        tileImages = new Image[count];
+        tileColors = new Color[count];
+        minimapColors = new Color[count];
+        java.util.Map<String, Image> loaded = new java.util.HashMap<>();
+        for (int tile = 0; tile < count; tile++) {
+            TileDef def = TileDef.get(tile);
+            tileColors[tile] = argbToColor(def.getFallbackArgb());
+            minimapColors[tile] = argbToColor(def.getMinimapArgb());
+            String sprite = def.getSprite();
+            if (sprite == null) {
+                continue;
+            }
+            if (!loaded.containsKey(sprite)) {
+                Image image;
+                try {
+                    image = new Image(getClass().getResourceAsStream("/images/" + sprite));
+                    if (image.isError()) {
+                        image = null;
+                    }
+                } catch (Exception e) {
+                    image = null;
+                }
+                loaded.put(sprite, image);
+            }
+            tileImages[tile] = loaded.get(sprite);
+        }
+    }
+
+    private static Color argbToColor(int argb) {
+        return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, ((argb >>> 24) & 0xFF) / 255.0);
     }
 
     /**
@@ -2269,6 +2093,14 @@ public class DraponQuestFX extends Application {
     public void handleBattleInput(KeyCode keyCode) {
         if (isWaitingForInput)
             return;
+        if (battleManager.isTargeting()) {
+            if (keyCode == KeyCode.LEFT || keyCode == KeyCode.A) {
+                battleManager.moveTarget(-1);
+            } else if (keyCode == KeyCode.RIGHT || keyCode == KeyCode.D) {
+                battleManager.moveTarget(1);
+            }
+            return;
+        }
         switch (keyCode) {
             case UP:
             case W:
@@ -2302,6 +2134,7 @@ public class DraponQuestFX extends Application {
             return;
         }
         if (currentMode == MODE_MOVE) {
+            cancelAutoWalk();
             moveFieldMap(0); // Up direction
         } else if (currentMode == MODE_COM) {
             currentCommand--;
@@ -2322,6 +2155,7 @@ public class DraponQuestFX extends Application {
             return;
         }
         if (currentMode == MODE_MOVE) {
+            cancelAutoWalk();
             moveFieldMap(1); // Down direction
         } else if (currentMode == MODE_COM) {
             currentCommand++;
@@ -2341,6 +2175,7 @@ public class DraponQuestFX extends Application {
             return;
         }
         if (currentMode == MODE_MOVE) {
+            cancelAutoWalk();
             moveFieldMap(2); // Left direction
         }
     }
@@ -2355,6 +2190,7 @@ public class DraponQuestFX extends Application {
             return;
         }
         if (currentMode == MODE_MOVE) {
+            cancelAutoWalk();
             moveFieldMap(3); // Right direction
         }
     }
@@ -2364,8 +2200,8 @@ public class DraponQuestFX extends Application {
      * the battle has concluded).
      */
     public void hitSoft2() {
-        System.out.println("ESC pressed. currentMode=" + currentMode + ", playerHP=" + playerHP + ", monsterHP="
-                + battleManager.getMonsterHP());
+        System.out.println("ESC pressed. currentMode=" + currentMode + ", playerHP=" + playerHP
+                + ", livingEnemies=" + battleManager.getLivingEnemies());
         if (commandMessage != null) {
             commandMessage = null;
             return;
@@ -2378,8 +2214,10 @@ public class DraponQuestFX extends Application {
                 audioManager.playMusic(AudioManager.MUSIC_FIELD);
             }
         } else if (currentMode == MODE_BATTLE) {
-            // Only exit battle if battle is over
-            if (playerHP <= 0 || battleManager.getMonsterHP() <= 0) {
+            // Back out of target selection; only exit battle if battle is over
+            if (battleManager.isTargeting()) {
+                battleManager.cancelTarget();
+            } else if (playerHP <= 0 || battleManager.isOver()) {
                 System.out.println("ESC: Exiting battle mode (battle over)");
                 currentMode = MODE_MOVE;
                 // Return to pre-battle music
@@ -2447,26 +2285,393 @@ public class DraponQuestFX extends Application {
     /**
      * Checks if a specific map tile at the given row and column coordinates is
      * walkable by the player.
-     * Unwalkable tiles include sea (0) and walls (11).
+     * Unwalkable tiles include sea (0) and walls (11). The check is a single bit
+     * test against the precomputed passability layer of the current place.
      * 
      * @param row The row index of the tile to check.
      * @param col The column index of the tile to check.
      * @return True if the tile is walkable, false otherwise.
      */
     private boolean isWalkable(int row, int col) {
-        int tile;
-        if (currentPlace == PLACE_BLDNG) {
-            tile = fieldMapData.mapDataReturnTown(row, col);
-        } else if (currentPlace == PLACE_CAVE) {
-            tile = fieldMapData.mapDataReturnCave(row, col);
+        return getPassability(currentPlace).isPassable(PassabilityMap.MOVE_WALKER, row, col);
+    }
+
+    /**
+     * Returns the precomputed passability layers for the given place.
+     * 
+     * @param placeID The ID of the place (e.g., PLACE_FIELD, PLACE_BLDNG).
+     * @return The passability layers of that place's map.
+     */
+    private PassabilityMap getPassability(int placeID) {
+        if (placeID == PLACE_BLDNG) {
+            return fieldMapData.getTownPassability();
+        } else if (placeID == PLACE_CAVE) {
+            return fieldMapData.getCavePassability();
+        }
+        return fieldMapData.getFieldPassability();
+    }
+
+    /**
+     * Shows a dungeon floor and places the player on the given tile of it.
+     *
+     * @param floor The floor to show.
+     * @param row   The row the player arrives on.
+     * @param col   The column the player arrives on.
+     */
+    private void enterDungeonFloor(DungeonFloor floor, int row, int col) {
+        cancelAutoWalk();
+        showDungeonFloor(floor);
+        fieldMapEndHeight = row - 8;
+        fieldMapEndWidth = col - 8;
+        if (floor.getNumber() > 1) {
+            currentLocationName = "B" + floor.getNumber() + "F";
+            locationNameTimer = System.currentTimeMillis();
+        }
+        System.out.println("Entered dungeon floor " + floor.getNumber() + " (" + floor.getWidth() + "x"
+                + floor.getHeight() + ")");
+    }
+
+    /**
+     * Makes a dungeon floor the current cave map and replaces the cave's event
+     * triggers with those of the floor: its stairs and the exit at the bottom.
+     *
+     * @param floor The floor to show.
+     */
+    private void showDungeonFloor(DungeonFloor floor) {
+        fieldMapData.setCaveFloor(floor);
+        eventMapData.clearPlace(PLACE_CAVE);
+        eventMapData.indexTiles(PLACE_CAVE, floor.getWidth(), floor.getHeight(), fieldMapData::mapDataReturnCave);
+        int exitCol = floor.getEntranceCol();
+        for (int col = exitCol - 1; col <= exitCol; col++) {
+            eventMapData.add(new eventMapData.Trigger(PLACE_CAVE, col, floor.getEntranceRow(), eventMapData.ON_ENTER,
+                    1, eventMapData.ACTION_EXIT, null));
+        }
+        monsterSprites.prefetch(monsters, encounters.getCaveMonsters(dungeon.getCurrentFloor()));
+        spriteZone = -1;
+    }
+
+    /**
+     * Starts decoding the sprites of the monsters the player's encounter zone
+     * can throw at them, once per zone entered.
+     */
+    private void prefetchZoneSprites() {
+        int zone = fieldMapData.getEncounterZone(fieldMapEndHeight + 8, fieldMapEndWidth + 8);
+        if (zone != spriteZone) {
+            spriteZone = zone;
+            monsterSprites.prefetch(monsters, encounters.getFieldMonsters(zone));
+        }
+    }
+
+    /**
+     * Registers the game logic run by event triggers.
+     */
+    private void registerEventHandlers() {
+        eventMapData.register(eventMapData.ACTION_AREA, this::onEnterArea);
+        eventMapData.register(eventMapData.ACTION_SHOP, trigger -> {
+            currentMode = MODE_SHOP;
+            shopMode = 0;
+            shopCursor = 0;
+            shopMessage = "Welcome!";
+            shopMessageTime = System.currentTimeMillis();
+            audioManager.playMusic(townTileMusic(trigger, AudioManager.MUSIC_SHOP));
+            return false;
+        });
+        eventMapData.register(eventMapData.ACTION_INN, trigger -> {
+            currentMode = MODE_INN;
+            audioManager.playMusic(townTileMusic(trigger, AudioManager.MUSIC_INN));
+            return false;
+        });
+        eventMapData.register(eventMapData.ACTION_STAIRS, trigger -> {
+            DungeonFloor floor = dungeon.descend();
+            enterDungeonFloor(floor, floor.getEntranceRow(), floor.getEntranceCol());
+            audioManager.playSound(AudioManager.SOUND_MOVE);
+            return true;
+        });
+        eventMapData.register(eventMapData.ACTION_EXIT, this::onExitArea);
+        eventMapData.register(eventMapData.ACTION_MESSAGE, trigger -> {
+            displayMessage(LocalizationManager.getText(trigger.getArgument()) + "E");
+            return true;
+        });
+    }
+
+    /**
+     * Returns the music of the town tile a trigger is on.
+     *
+     * @param trigger  The trigger.
+     * @param fallback The track to play if the tile has no music.
+     * @return The track name.
+     */
+    private String townTileMusic(eventMapData.Trigger trigger, String fallback) {
+        String music = TileDef.get(fieldMapData.mapDataReturnTown(trigger.getY(), trigger.getX())).getMusic();
+        return music != null ? music : fallback;
+    }
+
+    /**
+     * Enters the town, castle or cave whose entrance the player stepped onto.
+     *
+     * @param trigger The entrance trigger on the field.
+     * @return False, so the step continues in the new area.
+     */
+    private boolean onEnterArea(eventMapData.Trigger trigger) {
+        int row = trigger.getY();
+        int col = trigger.getX();
+        TileDef def = TileDef.get(fieldMapData.mapDataReturnField(row, col));
+        savedFieldMapX = fieldMapEndWidth;
+        savedFieldMapY = fieldMapEndHeight;
+        if (def.getMusic() != null) {
+            audioManager.playMusic(def.getMusic());
+        }
+
+        if (def.getEnterAction() == TileDef.ENTER_CAVE) {
+            currentPlace = PLACE_CAVE;
+            DungeonFloor floor = dungeon.enter();
+            enterDungeonFloor(floor, floor.getEntranceRow(), floor.getEntranceCol());
+        } else {
+            currentPlace = PLACE_BLDNG;
+            // Start at the bottom of the area (entrance)
+            fieldMapEndWidth = 0;
+            fieldMapEndHeight = 7; // 7 + 8 = 15 (bottom row)
+        }
+
+        String locName = fieldMapData.getLocationName(row, col);
+        if (locName != null) {
+            currentLocationName = locName;
+            // Check for special music based on location name
+            if (locName.toLowerCase().contains("tower")) {
+                audioManager.playMusic(AudioManager.MUSIC_TOWER);
+            }
+        } else {
+            // Default to the tile's name if the location is not named
+            currentLocationName = def.getName();
+        }
+        locationNameTimer = System.currentTimeMillis();
+
+        System.out.println("Entered area from field at: " + savedFieldMapY + "," + savedFieldMapX);
+        return false;
+    }
+
+    /**
+     * Leaves a town or cave floor through its exit: back up to the previous
+     * floor in the dungeon, otherwise out to the field.
+     *
+     * @param trigger The exit trigger.
+     * @return True, since the player has been moved.
+     */
+    private boolean onExitArea(eventMapData.Trigger trigger) {
+        if (currentPlace == PLACE_CAVE && dungeon.getCurrentFloor() > 1) {
+            // Climb back up to the previous floor, arriving on its stairs
+            DungeonFloor floor = dungeon.ascend();
+            enterDungeonFloor(floor, floor.getStairsRow(), floor.getStairsCol());
+            return true;
+        }
+        if (currentPlace == PLACE_CAVE) {
+            dungeon.leave();
+        }
+        currentPlace = PLACE_FIELD;
+        fieldMapEndWidth = savedFieldMapX;
+        fieldMapEndHeight = savedFieldMapY;
+        audioManager.playMusic(AudioManager.MUSIC_FIELD);
+        audioManager.playSound(AudioManager.SOUND_MOVE);
+        System.out.println("Exited area by stepping onto exit tile at: " + (fieldMapEndHeight + 8) + ","
+                + (fieldMapEndWidth + 8));
+        return true;
+    }
+
+    /**
+     * Returns the treasure chest of a dungeon floor, creating it on first use.
+     * The first floor holds a potion; deeper floors alternate between herbs,
+     * antidotes and potions.
+     *
+     * @param floor The floor whose chest to return.
+     * @return The floor's treasure chest.
+     */
+    private TreasureChest getFloorChest(DungeonFloor floor) {
+        return floorChests.computeIfAbsent(floor.getNumber(), number -> {
+            Item[] loot = { potion, herb, antidote };
+            Item item = loot[(number - 1) % loot.length];
+            return new TreasureChest(item, floor.getChestCol(), floor.getChestRow(), PLACE_CAVE);
+        });
+    }
+
+    /**
+     * Returns the pathfinding service for the given place.
+     * 
+     * @param placeID The ID of the place (e.g., PLACE_FIELD, PLACE_BLDNG).
+     * @return The pathfinder for that place's map.
+     */
+    private Pathfinder getPathfinder(int placeID) {
+        if (placeID == PLACE_BLDNG) {
+            return townPathfinder;
+        } else if (placeID == PLACE_CAVE) {
+            return fieldMapData.getCaveFloor().getPathfinder();
+        }
+        return fieldPathfinder;
+    }
+
+    /**
+     * Handles a mouse click on the game canvas. While the player is free to move,
+     * clicking a tile makes the player walk there automatically.
+     * 
+     * @param x The X-coordinate of the click in canvas pixels.
+     * @param y The Y-coordinate of the click in canvas pixels.
+     */
+    private void handleMapClick(double x, double y) {
+        if (currentGameStatus != GAME_OPEN || currentMode != MODE_MOVE
+                || (currentFullMessage != null && !currentFullMessage.isEmpty())) {
+            return;
+        }
+        int targetRow = (int) (y / 32) + fieldMapEndHeight;
+        int targetCol = (int) (x / 32) + fieldMapEndWidth;
+        startAutoWalk(targetRow, targetCol);
+    }
+
+    /**
+     * Starts walking the player automatically towards a tile in the current place.
+     * One step is taken per game tick until the target is reached or the walk is
+     * interrupted.
+     * 
+     * @param targetRow The row of the destination tile.
+     * @param targetCol The column of the destination tile.
+     */
+    private void startAutoWalk(int targetRow, int targetCol) {
+        int playerRow = fieldMapEndHeight + 8;
+        int playerCol = fieldMapEndWidth + 8;
+        int[] path = getPathfinder(currentPlace).findPath(playerRow, playerCol, targetRow, targetCol);
+        if (path == null || path.length == 0) {
+            System.out.println("Auto-walk: no path to " + targetRow + "," + targetCol);
+            cancelAutoWalk();
+            return;
+        }
+        System.out.println("Auto-walk: " + path.length + " steps to " + targetRow + "," + targetCol);
+        autoWalkPath = path;
+        autoWalkIndex = 0;
+        autoWalkPlace = currentPlace;
+    }
+
+    /**
+     * Starts travelling automatically to a named town, castle or cave on the
+     * field, following its precomputed flow field.
+     * 
+     * @param name The name of the destination, e.g. "Kol".
+     * @return True if travel started, false if the destination is unknown,
+     *         its route is still being computed or it cannot be reached from
+     *         here.
+     */
+    public boolean travelTo(String name) {
+        if (currentPlace != PLACE_FIELD || travelRoutes == null) {
+            return false;
+        }
+        FlowField route = travelRoutes.get(name);
+        int direction = route == null ? FlowField.NO_ROUTE
+                : route.directionAt(fieldMapEndHeight + 8, fieldMapEndWidth + 8);
+        if (direction == FlowField.NO_ROUTE || direction == FlowField.AT_GOAL) {
+            System.out.println("Travel: no route to " + name);
+            return false;
+        }
+        cancelAutoWalk();
+        autoTravelField = route;
+        autoWalkPlace = PLACE_FIELD;
+        commandMessage = LocalizationManager.getText("travel_to") + name
+                + LocalizationManager.getText("travel_to_suffix");
+        commandMessageTime = System.currentTimeMillis();
+        System.out.println("Travel: heading to " + name);
+        return true;
+    }
+
+    /**
+     * Travels automatically to the closest named town, castle or cave that can be
+     * reached from the player's position on the field. If a closer destination's
+     * route is still being computed, says so instead of heading further away.
+     */
+    public void travelToNearestLocation() {
+        if (currentGameStatus != GAME_OPEN || currentMode != MODE_MOVE || currentPlace != PLACE_FIELD) {
+            return;
+        }
+        int playerRow = fieldMapEndHeight + 8;
+        int playerCol = fieldMapEndWidth + 8;
+        java.util.List<String> names = new java.util.ArrayList<>();
+        for (String name : travelRoutes.getDestinationNames()) {
+            names.add(name);
+        }
+        names.sort(java.util.Comparator.comparingInt(name -> {
+            java.awt.Point p = travelRoutes.getDestination(name);
+            return Math.abs(p.y - playerRow) + Math.abs(p.x - playerCol);
+        }));
+        for (String name : names) {
+            if (!travelRoutes.isReady(name)) {
+                commandMessage = LocalizationManager.getText("travel_not_ready");
+                commandMessageTime = System.currentTimeMillis();
+                return;
+            }
+            if (travelTo(name)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops any automatic walk or travel in progress.
+     */
+    private void cancelAutoWalk() {
+        autoWalkPath = null;
+        autoWalkIndex = 0;
+        autoTravelField = null;
+    }
+
+    /**
+     * Takes the next step of the current auto-walk path, if any. The walk is
+     * cancelled when the player changes place, is blocked, or a message opens.
+     */
+    private void updateAutoWalk() {
+        if ((autoWalkPath == null && autoTravelField == null) || currentGameStatus != GAME_OPEN
+                || (currentFullMessage != null && !currentFullMessage.isEmpty())) {
+            return;
+        }
+        int playerRow = fieldMapEndHeight + 8;
+        int playerCol = fieldMapEndWidth + 8;
+        if (currentPlace != autoWalkPlace) {
+            cancelAutoWalk();
+            return;
+        }
+
+        int direction;
+        if (autoTravelField != null) {
+            direction = autoTravelField.directionAt(playerRow, playerCol);
+            if (direction == FlowField.NO_ROUTE || direction == FlowField.AT_GOAL) {
+                cancelAutoWalk();
+                return;
+            }
+        } else {
+            if (autoWalkIndex >= autoWalkPath.length) {
+                cancelAutoWalk();
+                return;
+            }
+            Pathfinder pathfinder = getPathfinder(currentPlace);
+            int nextRow = pathfinder.rowOf(autoWalkPath[autoWalkIndex]);
+            int nextCol = pathfinder.colOf(autoWalkPath[autoWalkIndex]);
+            if (nextRow == playerRow - 1 && nextCol == playerCol) {
+                direction = 0;
+            } else if (nextRow == playerRow + 1 && nextCol == playerCol) {
+                direction = 1;
+            } else if (nextRow == playerRow && nextCol == playerCol - 1) {
+                direction = 2;
+            } else if (nextRow == playerRow && nextCol == playerCol + 1) {
+                direction = 3;
+            } else {
+                cancelAutoWalk(); // Player was moved off the path
+                return;
+            }
+        }
+
+        int expectedRow = playerRow + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+        int expectedCol = playerCol + (direction == 2 ? -1 : direction == 3 ? 1 : 0);
+        moveFieldMap(direction);
+        if (currentPlace == autoWalkPlace && fieldMapEndHeight + 8 == expectedRow
+                && fieldMapEndWidth + 8 == expectedCol) {
+            autoWalkIndex++;
         } else {
-            tile = fieldMapData.mapDataReturnField(row, col);
+            cancelAutoWalk(); // Blocked, entered an area, or triggered an event
         }
-        // Sea (0) and Wall (11) are unwalkable
-        boolean walkable = tile != 0 && tile != fieldMapData.TILE_WALL;
-        // System.out.println("isWalkable: row=" + row + ", col=" + col + ", tile=" +
-        // tile + ", walkable=" + walkable);
-        return walkable;
     }
 
     /**
@@ -2481,12 +2686,7 @@ public class DraponQuestFX extends Application {
      *         place, false otherwise.
      */
     private boolean isNpcAt(int targetX, int targetY, int targetPlaceId) {
-        for (NPC npc : npcs) {
-            if (npc != null && npc.placeID == targetPlaceId && npc.x == targetX && npc.y == targetY) {
-                return true;
-            }
-        }
-        return false;
+        return npcStore.at(targetPlaceId, targetX, targetY) != OccupancyGrid.NONE;
     }
 
     /**
@@ -2526,110 +2726,16 @@ public class DraponQuestFX extends Application {
             return; // Block movement
         }
 
-        // EXIT LOGIC FOR TOWN/CAVE
-        if (currentPlace != PLACE_FIELD) {
-            // Player's new position after move
-            int targetPlayerRow = newRow + 8;
-            int targetPlayerCol = newCol + 8;
-
-            // Check if moving onto the exit tile from inside
-            if (direction == 1 && targetPlayerRow == 15 && (targetPlayerCol == 7 || targetPlayerCol == 8)) {
-                currentPlace = PLACE_FIELD;
-                fieldMapEndWidth = savedFieldMapX;
-                fieldMapEndHeight = savedFieldMapY;
-                audioManager.playMusic(AudioManager.MUSIC_FIELD);
-                audioManager.playSound(AudioManager.SOUND_MOVE);
-                System.out.println("Exited area by stepping onto exit tile at: " + (fieldMapEndHeight + 8) + ","
-                        + (fieldMapEndWidth + 8));
-                return;
-            }
-        }
-
         if (playerRow >= 0 && playerRow < fieldMapData.getMapLength() &&
                 playerCol >= 0 && playerCol < fieldMapData.FIELD_MAP_WIDTH &&
                 isWalkable(playerRow, playerCol)) {
             fieldMapEndHeight = newRow;
             fieldMapEndWidth = newCol;
 
-            // Check for entering a shop
-            if (currentPlace == PLACE_BLDNG) {
-                int playerX = fieldMapEndWidth + 8;
-                int playerY = fieldMapEndHeight + 8;
-                int tile = fieldMapData.mapDataReturnTown(playerY, playerX);
-                if (tile == fieldMapData.TILE_SHOP) {
-                    currentMode = MODE_SHOP;
-                    shopMode = 0;
-                    shopCursor = 0;
-                    shopMessage = "Welcome!";
-                    shopMessageTime = System.currentTimeMillis();
-                    // Play shop theme
-                    audioManager.playMusic(AudioManager.MUSIC_SHOP);
-                } else if (tile == fieldMapData.TILE_INN) {
-                    currentMode = MODE_INN;
-                    audioManager.playMusic(AudioManager.MUSIC_INN);
-                }
-            }
-
-            // Transition logic
-            int currentTile;
-            if (currentPlace == PLACE_FIELD) {
-                currentTile = fieldMapData.mapDataReturnField(playerRow, playerCol);
-                // Enter town, castle, or cave if on appropriate tile
-                if (currentTile == fieldMapData.TILE_TOWN || currentTile == fieldMapData.TILE_CASTLE
-                        || currentTile == fieldMapData.TILE_CAVE) {
-                    savedFieldMapX = fieldMapEndWidth;
-                    savedFieldMapY = fieldMapEndHeight;
-
-                    if (currentTile == fieldMapData.TILE_CAVE) {
-                        currentPlace = PLACE_CAVE;
-                        audioManager.playMusic(AudioManager.MUSIC_CAVE);
-                    } else {
-                        currentPlace = PLACE_BLDNG;
-                        if (currentTile == fieldMapData.TILE_CASTLE) {
-                            audioManager.playMusic(AudioManager.MUSIC_CASTLE);
-                        } else {
-                            audioManager.playMusic(AudioManager.MUSIC_TOWN);
-                        }
-                    }
-
-                    // Start at the bottom of the area (entrance)
-                    fieldMapEndWidth = 0;
-                    fieldMapEndHeight = 7; // 7 + 8 = 15 (bottom row)
-                    // Start at the bottom of the area (entrance)
-                    fieldMapEndWidth = 0;
-                    fieldMapEndHeight = 7; // 7 + 8 = 15 (bottom row)
-
-                    // Set location name
-                    // Use playerRow and playerCol to get the specific tile the player entered
-                    String locName = fieldMapData.getLocationName(playerRow, playerCol);
-
-                    if (locName != null) {
-                        currentLocationName = locName;
-                        locationNameTimer = System.currentTimeMillis();
-                        
-                        // Check for special music based on location name
-                        if (locName.toLowerCase().contains("tower") || locName.toLowerCase().contains("tower of zot")) {
-                            audioManager.playMusic(AudioManager.MUSIC_TOWER);
-                        } else if (currentTile == fieldMapData.TILE_CAVE) {
-                            audioManager.playMusic(AudioManager.MUSIC_CAVE);
-                        }
-                    } else {
-                        // Default names if not specific
-                        if (currentTile == fieldMapData.TILE_TOWN)
-                            currentLocationName = "Town";
-                        else if (currentTile == fieldMapData.TILE_CASTLE)
-                            currentLocationName = "Castle";
-                        else if (currentTile == fieldMapData.TILE_CAVE) {
-                            currentLocationName = "Cave";
-                            audioManager.playMusic(AudioManager.MUSIC_CAVE); // Default cave music
-                        }
-                        locationNameTimer = System.currentTimeMillis();
-                    }
-
-                    System.out.println("Entered area from field at: " + savedFieldMapY + "," + savedFieldMapX);
-                }
+            // Shops, inns, area entrances, exits and stairs are triggers in the event layer
+            if (eventMapData.fire(currentPlace, eventMapData.ON_ENTER, playerCol, playerRow, direction)) {
+                return;
             }
-            // (Exit logic removed from here as it's now handled at the start of the method)
 
             if (currentPlace == PLACE_FIELD) {
                 if (fieldMapEndHeight < 0)
@@ -2641,54 +2747,87 @@ public class DraponQuestFX extends Application {
                 if (fieldMapEndWidth > fieldMapData.FIELD_MAP_WIDTH - 16)
                     fieldMapEndWidth = fieldMapData.FIELD_MAP_WIDTH - 16;
             } else {
-                // Town/Cave is 16x16, player centered at 8
+                // Town is 16x16 and cave floors grow with depth, player centered at 8
+                int areaHeight = getPassability(currentPlace).getHeight();
+                int areaWidth = getPassability(currentPlace).getWidth();
                 if (fieldMapEndHeight < -8)
                     fieldMapEndHeight = -8;
-                if (fieldMapEndHeight > 7)
-                    fieldMapEndHeight = 7;
+                if (fieldMapEndHeight > areaHeight - 9)
+                    fieldMapEndHeight = areaHeight - 9;
                 if (fieldMapEndWidth < -8)
                     fieldMapEndWidth = -8;
-                if (fieldMapEndWidth > 7)
-                    fieldMapEndWidth = 7;
+                if (fieldMapEndWidth > areaWidth - 9)
+                    fieldMapEndWidth = areaWidth - 9;
             }
 
             System.out.println("Player moved to: fieldMapEndHeight=" + fieldMapEndHeight + ", fieldMapEndWidth="
                     + fieldMapEndWidth);
-            // Random encounter: 3% chance in field, 8% in cave
-            double encounterRate = (currentPlace == PLACE_CAVE) ? 0.08 : 0.03;
-            if ((currentPlace == PLACE_FIELD || currentPlace == PLACE_CAVE) && Math.random() < encounterRate) {
+            // Random encounter at the rate of the tile stepped onto; towns have none.
+            // The scheduler counts down steps drawn ahead rather than rolling each step
+            int steppedTile = currentPlace == PLACE_CAVE
+                    ? fieldMapData.mapDataReturnCave(fieldMapEndHeight + 8, fieldMapEndWidth + 8)
+                    : fieldMapData.mapDataReturnField(fieldMapEndHeight + 8, fieldMapEndWidth + 8);
+            if (currentPlace == PLACE_FIELD) {
+                prefetchZoneSprites();
+            }
+            if ((currentPlace == PLACE_FIELD || currentPlace == PLACE_CAVE)
+                    && encounterScheduler.step(TileDef.get(steppedTile))) {
                 System.out.println("Random encounter triggered!");
-                battleManager.startBattle();
+                int groupSize = currentPlace == PLACE_CAVE
+                        ? encounters.pickCaveGroup(dungeon.getCurrentFloor(), steppedTile, random, encounterGroup)
+                        : encounters.pickFieldGroup(
+                                fieldMapData.getEncounterZone(fieldMapEndHeight + 8, fieldMapEndWidth + 8),
+                                steppedTile, random, encounterGroup);
+                startBattle(encounterGroup, groupSize);
             }
             // Play movement sound
             audioManager.playSound(AudioManager.SOUND_MOVE);
             score += 1;
 
-            // Poison Damage Logic
-            if (isPoisoned) {
-                playerHP -= 1;
-                System.out.println("Poison damage! playerHP=" + playerHP);
-                // Flash effect or sound could go here
-                // For now, just a message periodically? Or just the HP drop.
-                // Let's check for death
-                if (playerHP <= 0) {
-                    playerHP = 0;
-                    // Handle Game Over in Overworld
-                    currentGameStatus = GAME_OVER;
-                    audioManager.playSound(AudioManager.SOUND_DEFEAT); // Or specific sound
-                    audioManager.playSound(AudioManager.SOUND_GAME_OVER);
-                    audioManager.playMusic(AudioManager.MUSIC_GAME_OVER_MUSIC);
-                    // Force render update to show game over screen immediately/next frame
-                } else {
-                    // Periodic message could be annoying, so maybe just screen flash in render?
-                    // Or just show "The poison effects your body" every 10 steps?
-                    if (score % 10 == 0) {
-                        displayMessage("The poison affects your body.E");
-                    }
-                }
+            // Status effects such as poison and regeneration; one check however many there are
+            if (playerStatus.isActive()) {
+                applyStatusStep();
             }
         } else {
             System.out.println("Move blocked: not walkable or out of bounds");
+            eventMapData.fire(currentPlace, eventMapData.ON_FACE, playerCol, playerRow, direction);
+        }
+    }
+
+    /**
+     * Ticks the player's status effects for a step on the field: applies their
+     * HP change, ends the game if it knocks the player out, and tells the
+     * player when an effect wears off.
+     */
+    private void applyStatusStep() {
+        int change = playerStatus.tickStep();
+        if (change != 0) {
+            playerHP = Math.min(maxPlayerHP, playerHP + change);
+            System.out.println("Status effects: HP " + change + ", playerHP=" + playerHP);
+        }
+        if (playerHP <= 0) {
+            playerHP = 0;
+            // Handle Game Over in Overworld
+            currentGameStatus = GAME_OVER;
+            audioManager.playSound(AudioManager.SOUND_DEFEAT);
+            audioManager.playSound(AudioManager.SOUND_GAME_OVER);
+            audioManager.playMusic(AudioManager.MUSIC_GAME_OVER_MUSIC);
+            return;
+        }
+        int expired = playerStatus.getExpired();
+        if (expired != 0) {
+            // Every effect that ran out on this step gets its own page
+            StringBuilder message = new StringBuilder();
+            for (int bits = expired; bits != 0; bits &= bits - 1) {
+                if (message.length() > 0) {
+                    message.append('@');
+                }
+                message.append(StatusEffects.text(Integer.numberOfTrailingZeros(bits), "off"));
+            }
+            displayMessage(message.append('E').toString());
+        } else if (change < 0 && score % 10 == 0) {
+            // A reminder every few steps rather than on every one
+            displayMessage(LocalizationManager.getText("status_field_hurt"));
         }
     }
 
@@ -2703,6 +2842,10 @@ public class DraponQuestFX extends Application {
                     currentGameStatus, currentMode, currentPlace, currentCommand,
                     fieldMapEndWidth, fieldMapEndHeight, scriptID, scriptLineIndex, flip,
                     playerXP, playerLevel, xpToNextLevel, maxPlayerHP, playerGold);
+            // Map changes follow on their own lines; the base maps are rebuilt from the seed
+            saveData += "\nencounters " + encounterScheduler.save()
+                    + "\ndungeon " + dungeon.getSeed() + " " + dungeon.getCurrentFloor() + "\n"
+                    + fieldMapData.saveOverlays();
             Files.write(Paths.get(saveFileName), saveData.getBytes());
             saveMessage = LocalizationManager.getText("save_success");
             saveMessageTime = System.currentTimeMillis();
@@ -2724,7 +2867,8 @@ public class DraponQuestFX extends Application {
         System.out.println("Loading game...");
         try {
             String saveData = Files.readString(Paths.get(saveFileName));
-            String[] parts = saveData.split(",");
+            String[] lines = saveData.split("\\R");
+            String[] parts = lines[0].split(",");
             if (parts.length >= 14) {
                 currentGameStatus = Integer.parseInt(parts[0]);
                 currentMode = Integer.parseInt(parts[1]);
@@ -2740,6 +2884,11 @@ public class DraponQuestFX extends Application {
                 xpToNextLevel = Integer.parseInt(parts[11]);
                 maxPlayerHP = Integer.parseInt(parts[12]);
                 playerGold = Integer.parseInt(parts[13]);
+                // Stats the save does not hold follow from the level
+                maxPlayerMP = ProgressionTable.mp(playerLevel);
+                playerAttack = ProgressionTable.attack(playerLevel);
+                playerDefense = ProgressionTable.defense(playerLevel);
+                loadMapChanges(lines);
                 saveMessage = LocalizationManager.getText("load_success");
                 saveMessageTime = System.currentTimeMillis();
                 System.out.println("Game loaded.");
@@ -2753,28 +2902,94 @@ public class DraponQuestFX extends Application {
         }
     }
 
+    /**
+     * Restores the dungeon and the map changes saved after the first line of a
+     * save file. Saves without these lines keep the current dungeon.
+     *
+     * @param lines The lines of the save file.
+     */
+    private void loadMapChanges(String[] lines) {
+        int floorNumber = 0;
+        boolean hasDungeon = false;
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].trim().split("\\s+");
+            if (fields.length >= 3 && fields[0].equals("dungeon")) {
+                try {
+                    long seed = Long.parseLong(fields[1]);
+                    floorNumber = Integer.parseInt(fields[2]);
+                    dungeon.reset(seed);
+                    floorChests.clear();
+                    fieldMapData.clearOverlays();
+                    hasDungeon = true;
+                } catch (NumberFormatException e) {
+                    System.out.println("Ignoring bad dungeon line in save: " + lines[i]);
+                }
+            } else if (fields.length >= 4 && fields[0].equals("encounters")) {
+                try {
+                    encounterScheduler.restore(java.util.Arrays.copyOfRange(fields, 1, 4));
+                } catch (NumberFormatException e) {
+                    System.out.println("Ignoring bad encounters line in save: " + lines[i]);
+                }
+            } else if (hasDungeon) {
+                fieldMapData.loadOverlay(lines[i]);
+            }
+        }
+        cancelAutoWalk();
+        if (currentPlace == PLACE_CAVE && hasDungeon) {
+            showDungeonFloor(dungeon.enterFloor(floorNumber));
+        }
+    }
+
+    /**
+     * Starts a battle against a group of monsters, remembering the music to
+     * return to afterwards. With auto battle on, the battle is over by the
+     * time this returns and only its summary is left to read.
+     *
+     * @param group The indices of the monsters in the roster.
+     * @param count The number of monsters in the group.
+     */
+    private void startBattle(int[] group, int count) {
+        currentMode = MODE_BATTLE;
+        setPreBattleMusic(audioManager.getCurrentMusicTrack());
+        battleManager.startBattle(battleEvents.newContext(random), group, count, autoBattlePolicy);
+    }
+
     /**
      * Increases the player's level, updating their stats (HP, Attack, Defense)
      * and calculating the new experience requirement for the next level.
      * Displays a message informing the player of their level up.
      */
     public void levelUp(Runnable callback) {
-        playerLevel++;
-        xpToNextLevel = (int) (xpToNextLevel * 1.5);
-        maxPlayerHP += 10;
-        maxPlayerMP += 5;
+        int oldHP = maxPlayerHP;
+        int oldMP = maxPlayerMP;
+        int oldAttack = playerAttack;
+        int oldDefense = playerDefense;
+        // A big reward can be worth several levels at once
+        playerLevel = Math.min(ProgressionTable.maxLevel(),
+                Math.max(playerLevel + 1, ProgressionTable.levelFor(playerXP)));
+        setLevelStats();
         playerHP = maxPlayerHP;
         playerMP = maxPlayerMP;
-        playerAttack += 2;
-        playerDefense += 1;
 
         String msg = "You have reached level " + playerLevel + "!@" +
-                "Max HP increased by 10!\n" +
-                "Max MP increased by 5!\n" +
-                "Attack +2, Defense +1E";
+                "Max HP increased by " + (maxPlayerHP - oldHP) + "!\n" +
+                "Max MP increased by " + (maxPlayerMP - oldMP) + "!\n" +
+                "Attack +" + (playerAttack - oldAttack) + ", Defense +" + (playerDefense - oldDefense) + "E";
         displayMessage(msg, callback);
     }
 
+    /**
+     * Sets the player's max HP and MP, attack, defense and next experience
+     * threshold to those of their level in the {@link ProgressionTable}.
+     */
+    private void setLevelStats() {
+        maxPlayerHP = ProgressionTable.hp(playerLevel);
+        maxPlayerMP = ProgressionTable.mp(playerLevel);
+        playerAttack = ProgressionTable.attack(playerLevel);
+        playerDefense = ProgressionTable.defense(playerLevel);
+        xpToNextLevel = ProgressionTable.xpFor(playerLevel + 1);
+    }
+
     /**
      * Increases the player's level, updating their stats (HP, Attack, Defense)
      * and calculating the new experience requirement for the next level.
@@ -2830,40 +3045,28 @@ public class DraponQuestFX extends Application {
                 break; // Right
         }
 
-        boolean found = false;
-        for (int j = 0; j < npcs.length; j++) {
-            if (npcs[j] != null && npcs[j].placeID == currentPlace) {
-                // Check if NPC is at target coordinates
-                if (npcs[j].x == targetCol && npcs[j].y == targetRow) {
-                    found = true;
-                    final int scriptID = npcs[j].scriptID;
-                    final String preTalkMusic = audioManager.getCurrentMusicTrack();
+        int npc = npcStore.at(currentPlace, targetCol, targetRow);
+        if (npc != OccupancyGrid.NONE) {
+            final int scriptID = npcStore.getScriptId(npc);
+            final String preTalkMusic = audioManager.getCurrentMusicTrack();
 
-                    // Use the NPC's assigned scriptID to get the correct dialogue
-                    String msg = scriptData.getScript(scriptID) + "E";
-
-                    // Play situational music
-                    if (scriptID == 2) {
-                        audioManager.playMusic(AudioManager.MUSIC_SUSPENSE);
-                    } else if (scriptID == 3) {
-                        audioManager.playMusic(AudioManager.MUSIC_LOVE);
-                    }
+            // Use the NPC's assigned scriptID to get the correct dialogue
+            String msg = scriptData.getScript(scriptID) + "E";
 
-                    displayMessage(msg, () -> {
-                        // Resume previous music if it was changed
-                        if (scriptID == 2 || scriptID == 3) {
-                            audioManager.playMusic(preTalkMusic);
-                        }
-                    });
-                    // Optional: make NPC face player
-                    // npcs[j].direction = (playerDirection + 1) % 4; // Simplified logic to face
-                    // player
-                    break; // Found an NPC, stop checking
-                }
+            // Play situational music
+            if (scriptID == 2) {
+                audioManager.playMusic(AudioManager.MUSIC_SUSPENSE);
+            } else if (scriptID == 3) {
+                audioManager.playMusic(AudioManager.MUSIC_LOVE);
             }
-        }
 
-        if (!found) {
+            displayMessage(msg, () -> {
+                // Resume previous music if it was changed
+                if (scriptID == 2 || scriptID == 3) {
+                    audioManager.playMusic(preTalkMusic);
+                }
+            });
+        } else {
             displayMessage("There is no one there.E");
         }
     }
@@ -2899,24 +3102,27 @@ public class DraponQuestFX extends Application {
         System.out.println("Player at (" + playerCol + ", " + playerRow + "), checking tile at (" + targetCol + ", "
                 + targetRow + ")");
 
+        if (eventMapData.fire(currentPlace, eventMapData.ON_CHECK, targetCol, targetRow, playerDirection)) {
+            return;
+        }
+
         if (currentPlace == PLACE_CAVE) {
             int tile = fieldMapData.mapDataReturnCave(targetRow, targetCol);
             System.out.println("Tile at target is: " + tile);
             if (tile == fieldMapData.TILE_CHEST) {
                 System.out.println("Found a chest tile!");
-                for (TreasureChest chest : treasureChests) {
-                    if (chest.getPlaceID() == currentPlace && chest.getX() == targetCol && chest.getY() == targetRow) {
-                        System.out.println("Matching chest object found.");
-                        if (!chest.isOpen()) {
-                            Item item = chest.open();
-                            getInventory().addItem(item);
-                            displayMessage("You found a " + item.getName() + "!E");
-                            fieldMapData.setCaveTile(targetRow, targetCol, fieldMapData.TILE_FLOOR);
-                        } else {
-                            displayMessage("The chest is empty.E");
-                        }
-                        return;
+                TreasureChest chest = getFloorChest(fieldMapData.getCaveFloor());
+                if (chest.getX() == targetCol && chest.getY() == targetRow) {
+                    System.out.println("Matching chest object found.");
+                    if (!chest.isOpen()) {
+                        Item item = chest.open();
+                        getInventory().addItem(item);
+                        displayMessage("You found a " + item.getName() + "!E");
+                        fieldMapData.setCaveTile(targetRow, targetCol, fieldMapData.TILE_FLOOR);
+                    } else {
+                        displayMessage("The chest is empty.E");
                     }
+                    return;
                 }
             }
         }
@@ -3190,23 +3396,22 @@ public class DraponQuestFX extends Application {
                     System.err.println("Invalid heal amount in effect: " + effect);
                     message = "Error: Invalid item effect.E";
                 }
-            } else if (effect.equals("cure_poison")) {
-                if (isPoisoned) {
-                    isPoisoned = false;
-                    // JP: item_cure -> "@毒が 消えた！E"
-                    // EN: item_cure -> ".@The poison has left your body.E"
-                    // Both assume prefix + name + mid/suffix?
-                    // English: "You used the " + name + ".@The poison..."
-                    // JP: "あなたは " + name + "@毒が..." (Missing 'used' verb? "item_used" was "あなたは ")
-                    // wait, JP `item_used` matches English "You used the ".
-                    // But for cure_poison, JP `item_cure` is just suffix?
-                    // I defined JP item_cure as "@毒が 消えた！E".
-                    // So: "あなたは " + name + "@毒が 消えた！E" -> "You [Name] Poision gone!"
-                    // It's acceptable for NES style.
-
+            } else if (effect.startsWith("repel_")) {
+                try {
+                    encounterScheduler.repel(Integer.parseInt(effect.substring(6)));
                     message = LocalizationManager.getText("item_used") + selectedItem.getName()
-                            + LocalizationManager.getText("item_cure");
-                    // audioManager.playSound(AudioManager.SOUND_CURE); // If exists
+                            + LocalizationManager.getText("item_repel");
+                    itemUsed = true;
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid repel steps in effect: " + effect);
+                    message = "Error: Invalid item effect.E";
+                }
+            } else if (effect.startsWith("cure_")) {
+                // Cures the status effect named after the prefix, e.g. cure_poison
+                int status = StatusEffects.idOf(effect.substring(5));
+                if (status >= 0 && playerStatus.remove(status)) {
+                    message = LocalizationManager.getText("item_used") + selectedItem.getName()
+                            + StatusEffects.text(status, "cure");
                     itemUsed = true;
                 } else {
                     message = LocalizationManager.getText("item_no_effect");
@@ -3257,6 +3462,25 @@ public class DraponQuestFX extends Application {
         audioManager.setSoundEnabled(!audioManager.isSoundEnabled());
     }
 
+    /**
+     * Turns auto battle on or off for the battles that follow. Turning it on
+     * uses the thresholds of the {@value AutoBattlePolicy#PROPERTY} property,
+     * or the defaults.
+     */
+    public void toggleAutoBattle() {
+        if (autoBattlePolicy == null) {
+            autoBattlePolicy = AutoBattlePolicy.fromProperty();
+            if (autoBattlePolicy == null) {
+                autoBattlePolicy = new AutoBattlePolicy();
+            }
+            commandMessage = LocalizationManager.getText("auto_battle_on");
+        } else {
+            autoBattlePolicy = null;
+            commandMessage = LocalizationManager.getText("auto_battle_off");
+        }
+        commandMessageTime = System.currentTimeMillis();
+    }
+
     /**
      * Toggles the game's display language between English and Japanese.
      * This also refreshes script data to reflect the new language.
@@ -3323,19 +3547,19 @@ public class DraponQuestFX extends Application {
 
         switch (spellIndex) {
             case 0:
-                cost = 3;
+                cost = BattleRules.HEAL_COST;
                 spellKey = "spell_heal";
                 break;
             case 1:
-                cost = 5;
+                cost = BattleRules.FIREBALL_COST;
                 spellKey = "spell_fireball";
                 break;
             case 2:
-                cost = 8;
+                cost = BattleRules.RETURN_COST;
                 spellKey = "spell_return";
                 break;
             case 3:
-                cost = 6;
+                cost = BattleRules.OUTSIDE_COST;
                 spellKey = "spell_outside";
                 break;
         }
@@ -3345,62 +3569,34 @@ public class DraponQuestFX extends Application {
             return;
         }
 
+        // In battle, the spell takes effect on the player's turn of the round
+        if (previousMode == MODE_BATTLE) {
+            battleManager.selectSpell(spellIndex);
+            return;
+        }
+
         playerMP -= cost;
-        String msg = LocalizationManager.getText("msg_cast_spell") +
-                LocalizationManager.getText(spellKey) +
-                (LocalizationManager.getCurrentLanguage().equals(LocalizationManager.LANG_JAPANESE)
-                        ? LocalizationManager.getText("msg_cast_spell_suffix")
-                        : "")
-                + ".";
+        String msg = BattleManager.castText(spellKey);
 
         // Append effect message
-        final int finalSpellIndex = spellIndex;
         if (spellIndex == 0) { // Heal
-            int healAmount = 10 + random.nextInt(6); // 10-15
-            playerHP = Math.min(maxPlayerHP, playerHP + healAmount);
-            if (LocalizationManager.getCurrentLanguage().equals(LocalizationManager.LANG_JAPANESE)) {
-                msg += LocalizationManager.getText("msg_spell_heal") + healAmount
-                        + LocalizationManager.getText("msg_spell_heal_suffix");
-            } else {
-                msg += LocalizationManager.getText("msg_spell_heal") + healAmount + "!E";
-            }
-            audioManager.playSound(AudioManager.SOUND_HEAL);
-
-            if (previousMode == MODE_BATTLE) {
-                displayMessage(msg, () -> {
-                    battleManager.endPlayerTurn();
-                });
-                return;
-            }
+            msg += castHeal();
         } else if (spellIndex == 1) { // Fireball
-            if (previousMode == MODE_BATTLE) {
-                int damage = 10 + random.nextInt(6); // 10-15 damage
-                msg += "The monster took " + damage + " damage!E";
-                audioManager.playSound(AudioManager.SOUND_ATTACK);
-                battleManager.applyMagicDamage(damage);
-                displayMessage(msg, () -> {
-                    battleManager.endPlayerTurn();
-                });
-                return;
-            } else {
-                msg += LocalizationManager.getText("item_nothing") + "E";
-            }
+            msg += LocalizationManager.getText("item_nothing") + "E";
         } else if (spellIndex == 2) { // Return
-            if (previousMode == MODE_BATTLE) {
-                msg += LocalizationManager.getText("item_nothing") + "E";
-            } else {
-                // Warp to Tantegel entrance on Field
-                currentPlace = PLACE_FIELD;
-                fieldMapEndWidth = 40;
-                fieldMapEndHeight = 48;
-                msg += LocalizationManager.getText("msg_spell_return") + "E";
-                audioManager.playSound(AudioManager.SOUND_VICTORY);
+            // Warp to Tantegel entrance on Field
+            if (currentPlace == PLACE_CAVE) {
+                dungeon.leave();
             }
+            currentPlace = PLACE_FIELD;
+            fieldMapEndWidth = fieldMapData.getStartCol() - 8;
+            fieldMapEndHeight = fieldMapData.getStartRow() - 8;
+            msg += LocalizationManager.getText("msg_spell_return") + "E";
+            audioManager.playSound(AudioManager.SOUND_VICTORY);
         } else if (spellIndex == 3) { // Outside
-            if (previousMode == MODE_BATTLE) {
-                msg += LocalizationManager.getText("item_nothing") + "E";
-            } else if (currentPlace == PLACE_CAVE) {
+            if (currentPlace == PLACE_CAVE) {
                 // Return to field, saved position
+                dungeon.leave();
                 currentPlace = PLACE_FIELD;
                 fieldMapEndWidth = savedFieldMapX;
                 fieldMapEndHeight = savedFieldMapY;
@@ -3414,6 +3610,16 @@ public class DraponQuestFX extends Application {
         displayMessage(msg);
     }
 
+    /**
+     * Restores 10-15 HP and returns the message part describing it.
+     */
+    private String castHeal() {
+        int healAmount = BattleRules.rollHeal(random); // 10-15
+        playerHP = Math.min(maxPlayerHP, playerHP + healAmount);
+        audioManager.playSound(AudioManager.SOUND_HEAL);
+        return BattleManager.healText(healAmount);
+    }
+
     /**
      * Handles keyboard input specific to the magic screen.
      */
@@ -3431,7 +3637,7 @@ public class DraponQuestFX extends Application {
                 magicCursor = 0;
         } else if (keyCode == KeyCode.ENTER || keyCode == KeyCode.SPACE) {
             castSpell(magicCursor);
-            // If we are in battle, castSpell will handle endPlayerTurn via callback
+            // If we are in battle, BattleManager runs the spell on the player's turn
             // We should NOT set currentMode = MODE_MOVE here if we are in battle.
             // Actually, if we cast a spell, we should probably switch to MODE_MOVE (field)
             // or remain in MODE_BATTLE (but let the message box handle the transition).
@@ -0,0 +1,232 @@
+package com.draponquest;
+
+import java.util.Arrays;
+
+/**
+ * A single generated floor of the cave dungeon.
+ * Holds the floor's tile grid together with everything derived from it that
+ * would otherwise be computed when the player arrives: passability layers, a
+ * pathfinder, and the locations of the entrance, the treasure chest and the
+ * stairs down. Floors are generated deterministically from the dungeon seed,
+ * so an evicted floor can be rebuilt identically later. The tile grid is never
+ * changed after generation; changes made during play are kept in a
+ * {@link TileOverlay}.
+ *
+ * @author Modern Migration
+ */
+public class DungeonFloor {
+    /**
+     * The size of the first floor in tiles. Each deeper floor grows by
+     * {@link #FLOOR_GROWTH} tiles per side, up to {@link #MAX_FLOOR_SIZE}.
+     */
+    public static final int BASE_FLOOR_SIZE = 16;
+    /** How many tiles each side grows per floor. */
+    public static final int FLOOR_GROWTH = 16;
+    /** The largest floor size in tiles. */
+    public static final int MAX_FLOOR_SIZE = 128;
+
+    /** The floor number, starting at 1 for the floor entered from the field. */
+    private final int number;
+    private final int width;
+    private final int height;
+    private final int[][] tiles;
+    private final PassabilityMap passability;
+    private final Pathfinder pathfinder;
+    private final int chestRow;
+    private final int chestCol;
+    private final int stairsRow;
+    private final int stairsCol;
+
+    private DungeonFloor(int number, int[][] tiles, int chestRow, int chestCol, int stairsRow, int stairsCol) {
+        this.number = number;
+        this.height = tiles.length;
+        this.width = tiles[0].length;
+        this.tiles = tiles;
+        this.chestRow = chestRow;
+        this.chestCol = chestCol;
+        this.stairsRow = stairsRow;
+        this.stairsCol = stairsCol;
+        this.passability = new PassabilityMap(width, height);
+        this.passability.rebuild(tiles);
+        this.pathfinder = new Pathfinder(passability, this::getTile, PassabilityMap.MOVE_WALKER);
+    }
+
+    /**
+     * Returns the side length in tiles of the given floor.
+     *
+     * @param number The floor number, starting at 1.
+     * @return The width and height of that floor.
+     */
+    public static int floorSize(int number) {
+        return Math.min(MAX_FLOOR_SIZE, BASE_FLOOR_SIZE + FLOOR_GROWTH * (number - 1));
+    }
+
+    /**
+     * Generates a floor. The entrance is at the bottom center; the chest goes to
+     * the dead end with the longest walk from the entrance and the stairs down to
+     * the next-longest one.
+     *
+     * @param number      The floor number, starting at 1.
+     * @param dungeonSeed The seed of the whole dungeon.
+     * @return The generated floor.
+     */
+    public static DungeonFloor generate(int number, long dungeonSeed) {
+        int size = floorSize(number);
+        // Mix the floor number into the seed so every floor differs
+        long seed = dungeonSeed + 0x9E3779B97F4A7C15L * number;
+        // The first floor keeps the classic winding corridors; deeper floors vary
+        int algorithm = number == 1 ? MazeGenerator.ALGORITHM_BACKTRACKER : (int) Math.floorMod(seed, 3L);
+        int[][] tiles = MazeGenerator.generate(size, size, seed, algorithm);
+
+        // Carve a path down to the entrance at the bottom center
+        int exitC = size / 2;
+        if (tiles[size - 3][exitC] == fieldMapData.TILE_WALL) {
+            tiles[size - 3][exitC] = fieldMapData.TILE_FLOOR;
+        }
+        tiles[size - 2][exitC - 1] = fieldMapData.TILE_FLOOR;
+        tiles[size - 2][exitC] = fieldMapData.TILE_FLOOR;
+        tiles[size - 1][exitC - 1] = fieldMapData.TILE_FLOOR;
+        tiles[size - 1][exitC] = fieldMapData.TILE_FLOOR;
+
+        int[] deadEnds = rankDeadEnds(tiles, size - 1, exitC - 1);
+        int chest = deadEnds.length > 0 ? deadEnds[0] : 2 * size + 2;
+        int stairs = deadEnds.length > 1 ? deadEnds[1] : chest;
+        tiles[chest / size][chest % size] = fieldMapData.TILE_CHEST;
+        if (stairs == chest) {
+            // Too small for both: put the stairs next to the entrance instead
+            stairs = (size - 2) * size + exitC - 1;
+        }
+        tiles[stairs / size][stairs % size] = fieldMapData.TILE_STAIRS;
+
+        return new DungeonFloor(number, tiles, chest / size, chest % size, stairs / size, stairs % size);
+    }
+
+    /**
+     * Finds every dead end reachable from the entrance and sorts them by walking
+     * distance, farthest first. Distances come from a breadth-first search over
+     * the floor tiles.
+     *
+     * @return Packed tile indices ({@code row * width + col}) of the dead ends.
+     */
+    private static int[] rankDeadEnds(int[][] tiles, int entranceR, int entranceC) {
+        int height = tiles.length;
+        int width = tiles[0].length;
+        int[] dr = { -1, 1, 0, 0 };
+        int[] dc = { 0, 0, -1, 1 };
+        int[] dist = new int[width * height];
+        Arrays.fill(dist, -1);
+        int[] queue = new int[width * height];
+        int head = 0;
+        int tail = 0;
+        int entrance = entranceR * width + entranceC;
+        dist[entrance] = 0;
+        queue[tail++] = entrance;
+
+        // Dead ends packed as (distance << 32 | index) so sorting orders by distance
+        long[] deadEnds = new long[width * height];
+        int deadEndCount = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            int r = node / width;
+            int c = node % width;
+            int floorNeighbors = 0;
+            for (int i = 0; i < 4; i++) {
+                int nr = r + dr[i];
+                int nc = c + dc[i];
+                if (nr < 0 || nr >= height || nc < 0 || nc >= width || tiles[nr][nc] != fieldMapData.TILE_FLOOR) {
+                    continue;
+                }
+                floorNeighbors++;
+                int next = nr * width + nc;
+                if (dist[next] < 0) {
+                    dist[next] = dist[node] + 1;
+                    queue[tail++] = next;
+                }
+            }
+            if (floorNeighbors == 1 && r > 0 && r < height - 1) {
+                deadEnds[deadEndCount++] = ((long) dist[node] << 32) | node;
+            }
+        }
+        Arrays.sort(deadEnds, 0, deadEndCount);
+        int[] ranked = new int[deadEndCount];
+        for (int i = 0; i < deadEndCount; i++) {
+            ranked[i] = (int) deadEnds[deadEndCount - 1 - i];
+        }
+        return ranked;
+    }
+
+    /**
+     * Returns the tile at the given position, or {@link fieldMapData#TILE_WALL}
+     * outside the floor.
+     *
+     * @param row The row index of the tile.
+     * @param col The column index of the tile.
+     * @return The tile type.
+     */
+    public int getTile(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return fieldMapData.TILE_WALL;
+        }
+        return tiles[row][col];
+    }
+
+    /** @return The floor number, starting at 1. */
+    public int getNumber() {
+        return number;
+    }
+
+    /** @return The width of the floor in tiles. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return The height of the floor in tiles. */
+    public int getHeight() {
+        return height;
+    }
+
+    /** @return The floor's tile grid, indexed as {@code tiles[row][col]}. */
+    int[][] getTiles() {
+        return tiles;
+    }
+
+    /** @return The floor's passability layers. */
+    public PassabilityMap getPassability() {
+        return passability;
+    }
+
+    /** @return The pathfinder for this floor. */
+    public Pathfinder getPathfinder() {
+        return pathfinder;
+    }
+
+    /** @return The row of the treasure chest. */
+    public int getChestRow() {
+        return chestRow;
+    }
+
+    /** @return The column of the treasure chest. */
+    public int getChestCol() {
+        return chestCol;
+    }
+
+    /** @return The row of the stairs down. */
+    public int getStairsRow() {
+        return stairsRow;
+    }
+
+    /** @return The column of the stairs down. */
+    public int getStairsCol() {
+        return stairsCol;
+    }
+
+    /** @return The row of the entrance tile the player arrives on. */
+    public int getEntranceRow() {
+        return height - 1;
+    }
+
+    /** @return The column of the entrance tile the player arrives on. */
+    public int getEntranceCol() {
+        return width / 2;
+    }
+}
@@ -0,0 +1,197 @@
+package com.draponquest;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps track of the floors of the cave dungeon.
+ * While the player is on floor N, floor N+1 is generated on a background
+ * thread and published through an {@link AtomicReference}, so walking down the
+ * stairs only swaps a reference on the FX thread. Only the current floor and
+ * its neighbours stay resident; other floors are evicted and rebuilt from the
+ * dungeon seed if the player returns to them.
+ *
+ * @author Modern Migration
+ */
+public class DungeonManager {
+    /** The seed every floor of this dungeon is generated from. */
+    private volatile long seed;
+    /** Generates the next floor in the background. */
+    private final ExecutorService generator;
+    /** The next floor once it has been generated, or null while it is pending. */
+    private final AtomicReference<DungeonFloor> prefetched = new AtomicReference<>();
+    /** The floor number the background generator should publish. */
+    private volatile int wantedFloor = 0;
+    /** Floors currently kept in memory, by floor number. Only touched on the FX thread. */
+    private final Map<Integer, DungeonFloor> resident = new HashMap<>();
+    /** The floor the player is on, or 0 when outside the dungeon. */
+    private int currentFloor = 0;
+
+    /**
+     * Constructs a dungeon manager.
+     *
+     * @param seed The seed all floors are generated from.
+     */
+    public DungeonManager(long seed) {
+        this.seed = seed;
+        this.generator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dungeon-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prefetch(1);
+    }
+
+    /**
+     * Enters the dungeon from the field and returns the first floor.
+     *
+     * @return The first floor.
+     */
+    public DungeonFloor enter() {
+        return moveTo(1);
+    }
+
+    /**
+     * Goes straight to a floor, as when loading a game saved in the dungeon.
+     *
+     * @param number The floor number, starting at 1.
+     * @return The floor.
+     */
+    public DungeonFloor enterFloor(int number) {
+        return moveTo(Math.max(1, number));
+    }
+
+    /**
+     * Goes down the stairs to the next floor. If the background generation has
+     * not finished yet the floor is generated on the calling thread instead.
+     *
+     * @return The floor below the current one.
+     */
+    public DungeonFloor descend() {
+        return moveTo(currentFloor + 1);
+    }
+
+    /**
+     * Goes back up to the previous floor.
+     *
+     * @return The floor above the current one, or null on the first floor.
+     */
+    public DungeonFloor ascend() {
+        if (currentFloor <= 1) {
+            return null;
+        }
+        return moveTo(currentFloor - 1);
+    }
+
+    /**
+     * Leaves the dungeon. Resident floors stay cached for the next visit.
+     */
+    public void leave() {
+        currentFloor = 0;
+    }
+
+    /**
+     * Forgets every generated floor, restoring all chests and stairs.
+     */
+    public void reset() {
+        reset(seed);
+    }
+
+    /**
+     * Forgets every generated floor and switches to a different dungeon layout.
+     *
+     * @param seed The seed all floors are generated from from now on.
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        resident.clear();
+        prefetched.set(null);
+        wantedFloor = 0;
+        currentFloor = 0;
+        prefetch(1);
+    }
+
+    /**
+     * Returns the seed the floors of this dungeon are generated from.
+     *
+     * @return The dungeon seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of the floor the player is on.
+     *
+     * @return The current floor number, or 0 outside the dungeon.
+     */
+    public int getCurrentFloor() {
+        return currentFloor;
+    }
+
+    private DungeonFloor moveTo(int number) {
+        DungeonFloor floor = resident.get(number);
+        if (floor == null) {
+            DungeonFloor ready = prefetched.get();
+            if (ready != null && ready.getNumber() == number && prefetched.compareAndSet(ready, null)) {
+                floor = ready;
+                wantedFloor = 0;
+            } else {
+                System.out.println("Floor " + number + " not ready, generating now");
+                floor = DungeonFloor.generate(number, seed);
+            }
+            resident.put(number, floor);
+        }
+        currentFloor = number;
+        evictAbandoned();
+        prefetch(number + 1);
+        return floor;
+    }
+
+    /**
+     * Drops floors that are not next to the current floor.
+     */
+    private void evictAbandoned() {
+        Iterator<Integer> it = resident.keySet().iterator();
+        while (it.hasNext()) {
+            int number = it.next();
+            if (Math.abs(number - currentFloor) > 1) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Starts generating a floor in the background unless it is already resident
+     * or prefetched.
+     */
+    private void prefetch(int number) {
+        if (resident.containsKey(number)) {
+            return;
+        }
+        DungeonFloor ready = prefetched.get();
+        if ((ready != null && ready.getNumber() == number) || (ready == null && wantedFloor == number)) {
+            return; // Already generated or still being generated
+        }
+        wantedFloor = number;
+        prefetched.set(null);
+        long floorSeed = seed;
+        generator.execute(() -> {
+            if (wantedFloor != number || seed != floorSeed) {
+                return; // Superseded before it started
+            }
+            long start = System.nanoTime();
+            DungeonFloor floor = DungeonFloor.generate(number, floorSeed);
+            // Publish only if no other floor or dungeon was requested in the meantime
+            if (wantedFloor == number && seed == floorSeed) {
+                prefetched.set(floor);
+                System.out.println("Prefetched dungeon floor " + number + " in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.draponquest;
+
+import java.util.Random;
+
+/**
+ * Decides on which step the next random encounter happens. Rather than
+ * rolling a chance on every step, the number of steps until the next
+ * encounter is drawn once from the geometric distribution that the per-step
+ * roll would produce, and each step only counts it down. A step onto rough
+ * terrain counts as several steps (see {@link TileDef#getEncounterSteps()}).
+ * When the player moves onto terrain with a different encounter rate the count
+ * is drawn again at the new rate; the distribution has no memory, so this
+ * gives the same encounters per step as rolling every time.
+ * While a repel is active steps count it down instead and bring no
+ * encounters. The scheduler draws from its own random stream, so with a fixed
+ * seed the same walk meets monsters on the same steps.
+ *
+ * @author Modern Migration
+ */
+public class EncounterScheduler {
+    /** System property fixing the seed of the encounter stream. */
+    public static final String SEED_PROPERTY = "draponquest.encounterSeed";
+    /** Marks a count that has not been drawn yet. */
+    private static final int UNDRAWN = -1;
+
+    private final Random random;
+    /** Steps left until the next encounter, or {@link #UNDRAWN}. */
+    private int stepsLeft = UNDRAWN;
+    /** The per-step encounter rate {@link #stepsLeft} was drawn for. */
+    private double rate;
+    /** Steps left on the active repel; 0 if none. */
+    private int repelSteps;
+
+    /**
+     * Constructs a scheduler whose stream is seeded from the
+     * {@value #SEED_PROPERTY} system property, or at random if it is not set.
+     */
+    public EncounterScheduler() {
+        this(seedFromProperty());
+    }
+
+    /**
+     * Constructs a scheduler with a fixed seed.
+     *
+     * @param seed The seed of the encounter stream.
+     */
+    public EncounterScheduler(long seed) {
+        this.random = new Random(seed);
+    }
+
+    private static long seedFromProperty() {
+        String seed = System.getProperty(SEED_PROPERTY);
+        if (seed != null) {
+            try {
+                return Long.parseLong(seed.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid encounter seed, using a random one: " + seed);
+            }
+        }
+        return new Random().nextLong();
+    }
+
+    /**
+     * Counts a step onto a tile and tells whether it brings an encounter.
+     * Tiles without encounters are not counted.
+     *
+     * @param tile The tile stepped onto.
+     * @return True if a battle starts on this step.
+     */
+    public boolean step(TileDef tile) {
+        double tileRate = tile.getEncounterRate();
+        int weight = tile.getEncounterSteps();
+        if (tileRate <= 0 || weight <= 0) {
+            return false;
+        }
+        if (repelSteps > 0) {
+            repelSteps--;
+            return false;
+        }
+        if (stepsLeft == UNDRAWN || tileRate != rate) {
+            draw(tileRate);
+        }
+        stepsLeft -= weight;
+        if (stepsLeft > 0) {
+            return false;
+        }
+        draw(tileRate);
+        return true;
+    }
+
+    /**
+     * Keeps encounters away for a number of steps, replacing a shorter repel.
+     *
+     * @param steps The steps the repel lasts.
+     */
+    public void repel(int steps) {
+        repelSteps = Math.max(repelSteps, steps);
+    }
+
+    /** @return The steps left on the active repel; 0 if none. */
+    public int getRepelSteps() {
+        return repelSteps;
+    }
+
+    /**
+     * Forgets the count and any repel, as at the start of a new game.
+     */
+    public void reset() {
+        stepsLeft = UNDRAWN;
+        repelSteps = 0;
+    }
+
+    /**
+     * Returns the scheduler's state for a save file.
+     *
+     * @return The steps left, the rate they were drawn for, and the repel
+     *         steps, separated by spaces.
+     */
+    public String save() {
+        return stepsLeft + " " + rate + " " + repelSteps;
+    }
+
+    /**
+     * Restores the state written by {@link #save()}.
+     *
+     * @param fields The saved values, in the order {@link #save()} writes them.
+     * @throws NumberFormatException If a value is malformed.
+     */
+    public void restore(String[] fields) {
+        stepsLeft = Integer.parseInt(fields[0]);
+        rate = Double.parseDouble(fields[1]);
+        repelSteps = Math.max(0, Integer.parseInt(fields[2]));
+        if (stepsLeft <= 0) {
+            stepsLeft = UNDRAWN;
+        }
+    }
+
+    /**
+     * Draws the number of steps up to and including the next encounter.
+     */
+    private void draw(double tileRate) {
+        rate = tileRate;
+        if (tileRate >= 1) {
+            stepsLeft = 1;
+            return;
+        }
+        double steps = 1 + Math.floor(Math.log(1 - random.nextDouble()) / Math.log1p(-tileRate));
+        stepsLeft = (int) Math.min(Integer.MAX_VALUE, steps);
+    }
+}
@@ -0,0 +1,284 @@
+package com.draponquest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Weighted monster tables for random encounters, loaded from
+ * {@code /data/encounters.txt}.
+ * Field encounters are looked up by encounter zone (see
+ * {@link fieldMapData#getEncounterZone}) and terrain, cave encounters by floor
+ * and terrain. Every combination is resolved to an {@link AliasTable} when the
+ * file is loaded, so choosing a monster is two array lookups and one O(1)
+ * sample. A table may also allow groups of several monsters, each picked from
+ * the same table.
+ *
+ * @author Modern Migration
+ */
+public class EncounterTable {
+    /** The resource the tables are loaded from. */
+    private static final String ENCOUNTERS_RESOURCE = "/data/encounters.txt";
+    /** Marks the optional group size token of a table line. */
+    private static final String GROUP_PREFIX = "group:";
+
+    /** Field tables indexed by {@code [zone][tile]}. */
+    private final Entry[][] fieldTables;
+    /** Cave tables indexed by {@code [floor - 1][tile]}. */
+    private final Entry[][] caveTables;
+    /** The monsters each zone's tables can pick, indexed by zone. */
+    private final int[][] fieldMonsters;
+    /** The monsters each floor's tables can pick, indexed by {@code floor - 1}. */
+    private final int[][] caveMonsters;
+
+    private EncounterTable(List<Entry> entries, int monsterCount) {
+        this.fieldTables = resolve(entries, false, monsterCount);
+        this.caveTables = resolve(entries, true, monsterCount);
+        this.fieldMonsters = candidates(entries, false, fieldTables.length, monsterCount);
+        this.caveMonsters = candidates(entries, true, caveTables.length, monsterCount);
+    }
+
+    /**
+     * Loads the encounter tables. Entries naming a monster index outside the
+     * roster are reported and skipped; areas without a table pick uniformly
+     * from all monsters.
+     *
+     * @param monsterCount The number of monsters in the game's roster.
+     * @return The loaded tables.
+     */
+    public static EncounterTable load(int monsterCount) {
+        List<Entry> entries = new ArrayList<>();
+        try (InputStream is = EncounterTable.class.getResourceAsStream(ENCOUNTERS_RESOURCE)) {
+            if (is == null) {
+                System.err.println("Encounter tables not found: " + ENCOUNTERS_RESOURCE);
+            } else {
+                Scanner scanner = new Scanner(is, "UTF-8");
+                int lineNumber = 0;
+                while (scanner.hasNextLine()) {
+                    String line = scanner.nextLine().trim();
+                    lineNumber++;
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    try {
+                        entries.add(parse(line.split("\\s+"), monsterCount));
+                    } catch (RuntimeException e) {
+                        System.err.println("Bad encounter table on line " + lineNumber + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return new EncounterTable(entries, monsterCount);
+    }
+
+    /**
+     * Picks the monsters for a field encounter.
+     *
+     * @param zone   The encounter zone the player is in.
+     * @param tile   The tile the player stepped onto.
+     * @param random The random number source.
+     * @param group  Receives the indices of the monsters in the game's roster;
+     *               its length caps the group size.
+     * @return The number of monsters picked, at least 1.
+     */
+    public int pickFieldGroup(int zone, int tile, Random random, int[] group) {
+        return pick(fieldTables, zone, tile, random, group);
+    }
+
+    /**
+     * Picks the monsters for a cave encounter. Floors deeper than the deepest
+     * table use that table.
+     *
+     * @param floor  The cave floor, starting at 1.
+     * @param tile   The tile the player stepped onto.
+     * @param random The random number source.
+     * @param group  Receives the indices of the monsters in the game's roster;
+     *               its length caps the group size.
+     * @return The number of monsters picked, at least 1.
+     */
+    public int pickCaveGroup(int floor, int tile, Random random, int[] group) {
+        return pick(caveTables, floor - 1, tile, random, group);
+    }
+
+    /**
+     * Returns every monster a zone's field encounters can pick, whatever the
+     * terrain.
+     *
+     * @param zone The encounter zone.
+     * @return The monsters' indices in the game's roster, in ascending order.
+     */
+    public int[] getFieldMonsters(int zone) {
+        return fieldMonsters[Math.max(0, Math.min(zone, fieldMonsters.length - 1))];
+    }
+
+    /**
+     * Returns every monster a cave floor's encounters can pick, whatever the
+     * terrain.
+     *
+     * @param floor The cave floor, starting at 1.
+     * @return The monsters' indices in the game's roster, in ascending order.
+     */
+    public int[] getCaveMonsters(int floor) {
+        return caveMonsters[Math.max(0, Math.min(floor - 1, caveMonsters.length - 1))];
+    }
+
+    private static int pick(Entry[][] tables, int area, int tile, Random random, int[] group) {
+        Entry[] byTile = tables[Math.max(0, Math.min(area, tables.length - 1))];
+        Entry entry = byTile[Math.max(0, Math.min(tile, byTile.length - 1))];
+        int count = 1 + random.nextInt(Math.min(entry.groupMax, group.length));
+        for (int i = 0; i < count; i++) {
+            group[i] = entry.table.sample(random);
+        }
+        return count;
+    }
+
+    /**
+     * Builds the lookup for one kind of area. For each area and tile the most
+     * specific table applies: the terrain's own table, else the area's
+     * {@code *} table, else a uniform pick.
+     */
+    private static Entry[][] resolve(List<Entry> entries, boolean cave, int monsterCount) {
+        int areas = 1;
+        for (Entry entry : entries) {
+            if (entry.cave == cave) {
+                areas = Math.max(areas, entry.area + 1);
+            }
+        }
+        double[] ones = new double[monsterCount];
+        Arrays.fill(ones, 1.0);
+        Entry uniform = new Entry(cave, -1, -1, 1, ones, new AliasTable(ones));
+
+        int tiles = TileDef.count();
+        Entry[][] tables = new Entry[areas][tiles];
+        for (int area = 0; area < areas; area++) {
+            Entry fallback = uniform;
+            for (Entry entry : entries) {
+                if (entry.cave == cave && entry.area == area && entry.tile < 0) {
+                    fallback = entry;
+                }
+            }
+            Arrays.fill(tables[area], fallback);
+            for (Entry entry : entries) {
+                if (entry.cave == cave && entry.area == area && entry.tile >= 0) {
+                    tables[area][entry.tile] = entry;
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Lists, per area, the monsters with a positive weight in any of its
+     * tables. Areas without a {@code *} table can fall back to a uniform pick
+     * and so list every monster.
+     */
+    private static int[][] candidates(List<Entry> entries, boolean cave, int areas, int monsterCount) {
+        int[][] result = new int[areas][];
+        for (int area = 0; area < areas; area++) {
+            boolean[] possible = new boolean[monsterCount];
+            boolean hasDefault = false;
+            for (Entry entry : entries) {
+                if (entry.cave == cave && entry.area == area) {
+                    hasDefault |= entry.tile < 0;
+                    for (int m = 0; m < monsterCount; m++) {
+                        possible[m] |= entry.weights[m] > 0;
+                    }
+                }
+            }
+            if (!hasDefault) {
+                Arrays.fill(possible, true);
+            }
+            int count = 0;
+            for (boolean p : possible) {
+                count += p ? 1 : 0;
+            }
+            result[area] = new int[count];
+            count = 0;
+            for (int m = 0; m < monsterCount; m++) {
+                if (possible[m]) {
+                    result[area][count++] = m;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Entry parse(String[] f, int monsterCount) {
+        if (f.length < 4) {
+            throw new IllegalArgumentException("expected area, number, terrain and at least one monster");
+        }
+        boolean cave;
+        int area;
+        if (f[0].equals("field")) {
+            cave = false;
+            area = Integer.parseInt(f[1]);
+        } else if (f[0].equals("cave")) {
+            cave = true;
+            area = Integer.parseInt(f[1]) - 1;
+        } else {
+            throw new IllegalArgumentException("unknown area " + f[0]);
+        }
+        if (area < 0) {
+            throw new IllegalArgumentException("bad " + f[0] + " number " + f[1]);
+        }
+        int tile = f[2].equals("*") ? -1 : tileByName(f[2]);
+
+        double[] weights = new double[monsterCount];
+        int groupMax = 1;
+        for (int i = 3; i < f.length; i++) {
+            if (f[i].startsWith(GROUP_PREFIX)) {
+                groupMax = Integer.parseInt(f[i].substring(GROUP_PREFIX.length()));
+                if (groupMax < 1) {
+                    throw new IllegalArgumentException("bad group size " + f[i]);
+                }
+                continue;
+            }
+            String[] pair = f[i].split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("expected monster:weight, found " + f[i]);
+            }
+            int monster = Integer.parseInt(pair[0]);
+            if (monster < 0 || monster >= monsterCount) {
+                System.err.println("Skipping unknown monster " + monster + " in encounter table");
+                continue;
+            }
+            weights[monster] += Double.parseDouble(pair[1]);
+        }
+        return new Entry(cave, area, tile, groupMax, weights, new AliasTable(weights));
+    }
+
+    private static int tileByName(String name) {
+        for (int tile = 0; tile < TileDef.count(); tile++) {
+            if (TileDef.get(tile).getName().equalsIgnoreCase(name)) {
+                return tile;
+            }
+        }
+        throw new IllegalArgumentException("unknown terrain " + name);
+    }
+
+    /** One line of the data file. */
+    private static class Entry {
+        final boolean cave;
+        final int area;
+        /** The tile id, or -1 for the area's default table. */
+        final int tile;
+        /** The most monsters one encounter can have. */
+        final int groupMax;
+        final double[] weights;
+        final AliasTable table;
+
+        Entry(boolean cave, int area, int tile, int groupMax, double[] weights, AliasTable table) {
+            this.cave = cave;
+            this.area = area;
+            this.tile = tile;
+            this.groupMax = groupMax;
+            this.weights = weights;
+            this.table = table;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.draponquest;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A precomputed route to a single destination tile.
+ * For every tile of the map the field stores the direction of the next step
+ * on a cheapest path to the destination, packed into one byte per tile. Any
+ * number of walkers can follow the field with one array lookup per step.
+ *
+ * @author Modern Migration
+ */
+public class FlowField {
+    /** Direction value for tiles from which the destination cannot be reached. */
+    public static final int NO_ROUTE = -1;
+    /** Direction value for the destination tile itself. */
+    public static final int AT_GOAL = 4;
+
+    /** Row offsets for the four movement directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_ROW = { -1, 1, 0, 0 };
+    /** Column offsets for the four movement directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_COL = { 0, 0, -1, 1 };
+    /** The direction pointing back along each of the four directions. */
+    private static final byte[] OPPOSITE = { 1, 0, 3, 2 };
+
+    private final int width;
+    private final int height;
+    private final int goalRow;
+    private final int goalCol;
+    /**
+     * The next-step direction per tile, indexed by {@code row * width + col}.
+     */
+    private final byte[] directions;
+    /**
+     * The passability version of the map this field was computed from.
+     */
+    private final int mapVersion;
+
+    private FlowField(int width, int height, int goalRow, int goalCol, byte[] directions, int mapVersion) {
+        this.width = width;
+        this.height = height;
+        this.goalRow = goalRow;
+        this.goalCol = goalCol;
+        this.directions = directions;
+        this.mapVersion = mapVersion;
+    }
+
+    /**
+     * Computes the flow field towards a destination with Dijkstra's algorithm,
+     * running outwards from the destination and weighting each step by the cost
+     * of the tile being entered. Town, castle and cave entrances other than the
+     * destination get a direction but are never expanded, so routes go around
+     * them while a traveller standing on one can still set off.
+     *
+     * @param passability The passability layers of the map.
+     * @param tileAt      A function returning the tile at (row, col).
+     * @param moveClass   The movement class to route for.
+     * @param goalRow     The row of the destination tile.
+     * @param goalCol     The column of the destination tile.
+     * @return The computed flow field.
+     */
+    public static FlowField compute(PassabilityMap passability, IntBinaryOperator tileAt, int moveClass,
+            int goalRow, int goalCol) {
+        int version = passability.getVersion();
+        int width = passability.getWidth();
+        int height = passability.getHeight();
+        byte[] directions = new byte[width * height];
+        Arrays.fill(directions, (byte) NO_ROUTE);
+        if (!passability.isPassable(moveClass, goalRow, goalCol)) {
+            return new FlowField(width, height, goalRow, goalCol, directions, version);
+        }
+
+        int[] dist = new int[width * height];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        long[] heap = new long[width * height];
+        int heapSize = 0;
+
+        int goal = goalRow * width + goalCol;
+        dist[goal] = 0;
+        directions[goal] = AT_GOAL;
+        heap[heapSize++] = goal;
+
+        while (heapSize > 0) {
+            // Pop the cheapest entry
+            long top = heap[0];
+            long last = heap[--heapSize];
+            int i = 0;
+            while (2 * i + 1 < heapSize) {
+                int child = 2 * i + 1;
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (last <= heap[child]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            if (heapSize > 0) {
+                heap[i] = last;
+            }
+
+            int node = (int) top;
+            int d = (int) (top >>> 32);
+            if (d > dist[node]) {
+                continue; // Stale entry
+            }
+            int row = node / width;
+            int col = node % width;
+            // Stepping from a neighbour onto this node costs this node's terrain
+            int enterCost = Pathfinder.movementCost(tileAt.applyAsInt(row, col));
+            for (int dir = 0; dir < 4; dir++) {
+                int nr = row + DIR_ROW[dir];
+                int nc = col + DIR_COL[dir];
+                if (!passability.isPassable(moveClass, nr, nc)) {
+                    continue;
+                }
+                int next = nr * width + nc;
+                int nd = d + enterCost;
+                if (nd < dist[next]) {
+                    dist[next] = nd;
+                    directions[next] = OPPOSITE[dir];
+                    if (isEntrance(tileAt.applyAsInt(nr, nc))) {
+                        continue; // Leave it, but never route through it
+                    }
+                    if (heapSize == heap.length) {
+                        heap = Arrays.copyOf(heap, heap.length * 2);
+                    }
+                    long entry = ((long) nd << 32) | next;
+                    int j = heapSize++;
+                    while (j > 0) {
+                        int up = (j - 1) >>> 1;
+                        if (heap[up] <= entry) {
+                            break;
+                        }
+                        heap[j] = heap[up];
+                        j = up;
+                    }
+                    heap[j] = entry;
+                }
+            }
+        }
+        return new FlowField(width, height, goalRow, goalCol, directions, version);
+    }
+
+    /**
+     * Checks whether a tile leads into another area when stepped on.
+     */
+    private static boolean isEntrance(int tile) {
+        return TileDef.get(tile).isAreaEntrance();
+    }
+
+    /**
+     * Returns the direction of the next step towards the destination.
+     *
+     * @param row The row of the current tile.
+     * @param col The column of the current tile.
+     * @return 0=Up, 1=Down, 2=Left, 3=Right, {@link #AT_GOAL} on the destination,
+     *         or {@link #NO_ROUTE} if the destination cannot be reached.
+     */
+    public int directionAt(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return NO_ROUTE;
+        }
+        return directions[row * width + col];
+    }
+
+    /**
+     * Returns the row of the destination tile.
+     *
+     * @return The destination row.
+     */
+    public int getGoalRow() {
+        return goalRow;
+    }
+
+    /**
+     * Returns the column of the destination tile.
+     *
+     * @return The destination column.
+     */
+    public int getGoalCol() {
+        return goalCol;
+    }
+
+    /**
+     * Returns the passability version of the map this field was computed from.
+     *
+     * @return The map version.
+     */
+    public int getMapVersion() {
+        return mapVersion;
+    }
+}
@@ -0,0 +1,154 @@
+package com.draponquest;
+
+import java.awt.Point;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Holds one {@link FlowField} per named destination (towns, castles, caves)
+ * of a map. The fields are computed in parallel on a background executor when
+ * the cache is created and recomputed whenever the map's passability version
+ * changes. Lookups never wait for a computation, so they are safe to make on
+ * the FX thread.
+ *
+ * @author Modern Migration
+ */
+public class FlowFieldCache {
+    /**
+     * The passability layers of the map the fields route over.
+     */
+    private final PassabilityMap passability;
+    /**
+     * Returns the tile at (row, col), used for terrain costs.
+     */
+    private final IntBinaryOperator tileAt;
+    /**
+     * The destinations, keyed by name; {@code x} is the column and {@code y} the
+     * row, as in {@link fieldMapData#getNamedLocations()}.
+     */
+    private final Map<String, Point> destinations;
+    /**
+     * The pending or finished flow field per destination name.
+     */
+    private final Map<String, Future<FlowField>> fields = new LinkedHashMap<>();
+    /**
+     * Background threads computing the flow fields.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructs the cache and immediately starts computing a flow field for
+     * every destination in the background.
+     *
+     * @param passability  The passability layers of the map.
+     * @param tileAt       A function returning the tile at (row, col).
+     * @param destinations The destinations keyed by name.
+     */
+    public FlowFieldCache(PassabilityMap passability, IntBinaryOperator tileAt, Map<String, Point> destinations) {
+        this.passability = passability;
+        this.tileAt = tileAt;
+        this.destinations = new LinkedHashMap<>(destinations);
+        int threads = Math.max(1, Math.min(destinations.size(), Runtime.getRuntime().availableProcessors()));
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "flow-field");
+            thread.setDaemon(true);
+            return thread;
+        });
+        invalidateAll();
+    }
+
+    /**
+     * Discards every flow field and schedules all of them to be recomputed from
+     * the current map.
+     */
+    public synchronized void invalidateAll() {
+        for (Future<FlowField> pending : fields.values()) {
+            pending.cancel(false);
+        }
+        fields.clear();
+        for (Map.Entry<String, Point> entry : destinations.entrySet()) {
+            fields.put(entry.getKey(), submit(entry.getValue()));
+        }
+    }
+
+    /**
+     * Checks whether the flow field towards a destination has finished
+     * computing.
+     *
+     * @param name The name of the destination.
+     * @return True if {@link #get(String)} will not find it still pending.
+     */
+    public synchronized boolean isReady(String name) {
+        Future<FlowField> pending = fields.get(name);
+        return pending != null && pending.isDone();
+    }
+
+    /**
+     * Returns the flow field towards a destination without waiting for it. A
+     * field computed from an older version of the map is discarded and every
+     * field is recomputed in the background.
+     *
+     * @param name The name of the destination.
+     * @return The flow field, or null if the destination is unknown, the field
+     *         is still being computed or it is out of date.
+     */
+    public synchronized FlowField get(String name) {
+        Future<FlowField> pending = fields.get(name);
+        if (pending == null || !pending.isDone()) {
+            return null;
+        }
+        FlowField field = result(pending);
+        if (field == null || field.getMapVersion() != passability.getVersion()) {
+            // Map changed since this field was computed: refresh everything in the
+            // background
+            invalidateAll();
+            return null;
+        }
+        return field;
+    }
+
+    /**
+     * Returns the names of all destinations in this cache.
+     *
+     * @return The destination names.
+     */
+    public Iterable<String> getDestinationNames() {
+        return destinations.keySet();
+    }
+
+    /**
+     * Returns the location of a destination.
+     *
+     * @param name The name of the destination.
+     * @return The destination point ({@code x} = column, {@code y} = row), or
+     *         null if unknown.
+     */
+    public Point getDestination(String name) {
+        return destinations.get(name);
+    }
+
+    private Future<FlowField> submit(Point target) {
+        return executor.submit(
+                () -> FlowField.compute(passability, tileAt, PassabilityMap.MOVE_WALKER, target.y, target.x));
+    }
+
+    /**
+     * Returns the result of a finished computation.
+     */
+    private FlowField result(Future<FlowField> pending) {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | java.util.concurrent.CancellationException e) {
+            System.err.println("Flow field computation failed: " + e.getMessage());
+            return null;
+        }
+    }
+}
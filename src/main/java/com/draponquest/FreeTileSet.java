@@ -0,0 +1,171 @@
+package com.draponquest;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * The walkable tiles of one map that nobody stands on, kept so a uniformly
+ * random one can be drawn in constant time.
+ * Members are packed indices ({@code y * width + x}) held densely at the front
+ * of an array, with a reverse table from index to position. Adding appends and
+ * removing swaps the last member into the hole, so both are constant time.
+ * Occupancy is updated incrementally through {@link #occupy} and
+ * {@link #vacate}. Walkability comes from a {@link PassabilityMap}; when that
+ * map's version changes the set is rebuilt from it and the occupancy grid on
+ * the next draw. Tiles matched by the exclusion set with {@link #setExcluded}
+ * never join, e.g. exits nobody should be placed on.
+ *
+ * @author Modern Migration
+ */
+public class FreeTileSet {
+    /** Marks a tile that is not in the set. */
+    private static final int ABSENT = -1;
+
+    private final int width;
+    private final int height;
+    private final OccupancyGrid occupancy;
+    /** The members, in the first {@link #size} slots. */
+    private final int[] members;
+    /** The slot each tile index is held in, or {@link #ABSENT}. */
+    private final int[] slotOf;
+    private int size = 0;
+    /** The passability map the set was last built from; null if none yet. */
+    private PassabilityMap source;
+    private int sourceVersion;
+    /** Tiles that never join the set, by packed index; null if none. */
+    private IntPredicate excluded;
+
+    /**
+     * Constructs an empty set for a map.
+     *
+     * @param occupancy Who stands on each tile of the map; it also gives the
+     *                  map's size.
+     */
+    public FreeTileSet(OccupancyGrid occupancy) {
+        this.width = occupancy.getWidth();
+        this.height = occupancy.getHeight();
+        this.occupancy = occupancy;
+        this.members = new int[width * height];
+        this.slotOf = new int[width * height];
+        Arrays.fill(slotOf, ABSENT);
+    }
+
+    /**
+     * Keeps matching tiles out of the set. The test is applied again whenever
+     * the set is rebuilt, so it may depend on the map's current layout.
+     *
+     * @param excluded Tests a packed index ({@code y * width + x}); null to
+     *                 exclude nothing.
+     */
+    public void setExcluded(IntPredicate excluded) {
+        this.excluded = excluded;
+        invalidate();
+    }
+
+    /**
+     * Removes a tile that someone has stepped onto.
+     *
+     * @param x The column of the tile.
+     * @param y The row of the tile.
+     */
+    public void occupy(int x, int y) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            remove(y * width + x);
+        }
+    }
+
+    /**
+     * Adds back a tile that someone has left, if it is walkable.
+     *
+     * @param x The column of the tile.
+     * @param y The row of the tile.
+     */
+    public void vacate(int x, int y) {
+        if (source != null && x < width && y < height
+                && source.isPassable(PassabilityMap.MOVE_WALKER, y, x)) {
+            add(y * width + x);
+        }
+    }
+
+    /**
+     * Forgets every member, so the next draw rebuilds the set.
+     */
+    public void invalidate() {
+        for (int i = 0; i < size; i++) {
+            slotOf[members[i]] = ABSENT;
+        }
+        size = 0;
+        source = null;
+    }
+
+    /**
+     * Draws a uniformly random free walkable tile.
+     *
+     * @param passability The current passability layers of the map.
+     * @param random      The random source.
+     * @return The packed index ({@code y * width + x}) of the tile, or -1 if
+     *         there is no free walkable tile.
+     */
+    public int sample(PassabilityMap passability, Random random) {
+        sync(passability);
+        if (size == 0) {
+            return -1;
+        }
+        return members[random.nextInt(size)];
+    }
+
+    /**
+     * Returns the number of free walkable tiles.
+     *
+     * @param passability The current passability layers of the map.
+     * @return The number of tiles {@link #sample} can draw from.
+     */
+    public int size(PassabilityMap passability) {
+        sync(passability);
+        return size;
+    }
+
+    /** @return The width of the map in tiles, for unpacking drawn indices. */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Rebuilds the set if the passability map is new or has changed.
+     */
+    private void sync(PassabilityMap passability) {
+        if (passability == source && passability.getVersion() == sourceVersion) {
+            return;
+        }
+        invalidate();
+        int rows = Math.min(height, passability.getHeight());
+        int cols = Math.min(width, passability.getWidth());
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                if (passability.isPassable(PassabilityMap.MOVE_WALKER, y, x) && occupancy.isFree(x, y)) {
+                    add(y * width + x);
+                }
+            }
+        }
+        source = passability;
+        sourceVersion = passability.getVersion();
+    }
+
+    private void add(int index) {
+        if (slotOf[index] == ABSENT && (excluded == null || !excluded.test(index))) {
+            slotOf[index] = size;
+            members[size++] = index;
+        }
+    }
+
+    private void remove(int index) {
+        int slot = slotOf[index];
+        if (slot != ABSENT) {
+            int last = members[--size];
+            members[slot] = last;
+            slotOf[last] = slot;
+            slotOf[index] = ABSENT;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.draponquest;
+
+import java.util.Random;
+
+/**
+ * Connects battles to the running game: builds each battle's
+ * {@link BattleContext} from the player, shows its messages in the message box,
+ * plays its sounds and music, and copies the player's stats back from the
+ * context whenever a message is shown, so the battle screen stays current.
+ *
+ * @author Modern Migration
+ */
+public class GameBattleEvents implements BattleEvents {
+    /** The game the battles are shown in. */
+    private final DraponQuestFX game;
+    /** The context of the battle in progress, or null before the first. */
+    private BattleContext context;
+
+    /**
+     * Constructs the sink for a game.
+     *
+     * @param game The game the battles are shown in.
+     */
+    public GameBattleEvents(DraponQuestFX game) {
+        this.game = game;
+    }
+
+    /**
+     * Builds the context of a new battle from the player's current stats.
+     *
+     * @param random The random stream for the battle.
+     * @return The context, whose events come to this sink.
+     */
+    public BattleContext newContext(Random random) {
+        StatusEffects status = new StatusEffects();
+        status.copyFrom(game.playerStatus);
+        int agility = ProgressionTable.agility(game.playerLevel);
+        context = new BattleContext(game.playerLevel, game.playerHP, game.maxPlayerHP, game.playerMP,
+                game.playerAttack, game.playerDefense, agility, status, random, this);
+        return context;
+    }
+
+    @Override
+    public void message(String text, Runnable next) {
+        syncPlayer();
+        game.displayMessage(text, next);
+    }
+
+    @Override
+    public void sound(String sound) {
+        game.audioManager.playSound(sound);
+    }
+
+    @Override
+    public void music(String track) {
+        game.audioManager.playMusic(track);
+    }
+
+    @Override
+    public void magicMenu() {
+        System.out.println("Battle: Switching to Magic Mode");
+        game.previousMode = DraponQuestFX.MODE_BATTLE;
+        game.currentMode = DraponQuestFX.MODE_MAGIC;
+    }
+
+    @Override
+    public void itemDropped(Item item) {
+        game.getInventory().addItem(item);
+    }
+
+    @Override
+    public void battleWon(int xp, int gold) {
+        syncPlayer();
+        game.battlesWon++;
+        game.playerXP += xp;
+        game.playerGold += gold;
+        System.out.println("Monsters defeated. Player wins. Total battles won: " + game.battlesWon);
+    }
+
+    @Override
+    public void battleLost() {
+        syncPlayer();
+        game.currentGameStatus = 4; // GAME_OVER
+        System.out.println("Player defeated. GAME_OVER");
+    }
+
+    @Override
+    public void battleLeft() {
+        if (game.playerXP >= game.xpToNextLevel) {
+            game.levelUp(this::returnToField);
+        } else {
+            returnToField();
+        }
+    }
+
+    @Override
+    public void trace(String line) {
+        System.out.println(line);
+    }
+
+    /**
+     * Returns to the field with the music that played before the battle.
+     */
+    private void returnToField() {
+        game.audioManager.playMusic(game.getPreBattleMusic());
+        game.currentMode = DraponQuestFX.MODE_MOVE;
+    }
+
+    /**
+     * Copies the stats a battle can change back to the player.
+     */
+    private void syncPlayer() {
+        game.playerHP = context.hp;
+        game.playerMP = context.mp;
+        game.playerStatus.copyFrom(context.status);
+    }
+}
@@ -128,6 +128,14 @@ public class GameInputHandler {
                 // Toggle language (English/Japanese)
                 game.toggleLanguage();
                 break;
+            case B:
+                // Toggle auto battle on/off
+                game.toggleAutoBattle();
+                break;
+            case N:
+                // Travel to the nearest town, castle or cave
+                game.travelToNearestLocation();
+                break;
             case OPEN_BRACKET:
                 // Decrease volume
                 game.decreaseVolume();
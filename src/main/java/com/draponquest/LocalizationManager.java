@@ -100,6 +100,45 @@ public class LocalizationManager {
         englishText.put("battle_gained", "You gained ");
         englishText.put("battle_you_defeated", "You were defeated!");
         englishText.put("battle_ongoing", "Battle ongoing, not exiting");
+        englishText.put("battle_appears", " appears!");
+        englishText.put("battle_and", " and ");
+        englishText.put("battle_more_appear", " more appear!");
+        englishText.put("battle_monsters", " monsters");
+        englishText.put("battle_you_attack", "You attack ");
+        englishText.put("battle_you_attack_suffix", "!");
+        englishText.put("battle_is_defeated", " is defeated!");
+        englishText.put("battle_status_hurt", "You take ");
+        englishText.put("battle_status_hurt_suffix", " damage!");
+        englishText.put("auto_battle_summary", "Auto battle: ");
+        englishText.put("auto_battle_rounds", " rounds, ");
+        englishText.put("auto_battle_damage", " damage taken.");
+        englishText.put("auto_battle_on", "Auto battle: on");
+        englishText.put("auto_battle_off", "Auto battle: off");
+        englishText.put("travel_to", "Travelling to ");
+        englishText.put("travel_to_suffix", "");
+        englishText.put("travel_not_ready", "Still charting the way. Try again shortly.");
+
+        // Status effects: gained in battle, turn lost, worn off, cured by an item
+        englishText.put("status_poison_on", "@You were poisoned!");
+        englishText.put("status_poison_cure", ".@The poison has left your body.E");
+        englishText.put("status_sleep_on", "@You fell asleep!");
+        englishText.put("status_sleep_skip", "You are fast asleep.");
+        englishText.put("status_sleep_off", "You woke up.");
+        englishText.put("status_sleep_cure", ".@You feel wide awake.E");
+        englishText.put("status_paralysis_on", "@You are paralyzed!");
+        englishText.put("status_paralysis_skip", "You are paralyzed and can't move!");
+        englishText.put("status_paralysis_off", "You can move again.");
+        englishText.put("status_paralysis_cure", ".@You can move again.E");
+        englishText.put("status_regen_on", "@Your wounds begin to close!");
+        englishText.put("status_regen_off", "Your wounds stop closing.");
+        englishText.put("status_regen_cure", ".@Your wounds stop closing.E");
+        englishText.put("status_attack_up_on", "@Your strength surges!");
+        englishText.put("status_attack_up_off", "Your strength returns to normal.");
+        englishText.put("status_attack_up_cure", ".@Your strength returns to normal.E");
+        englishText.put("status_defense_up_on", "@Your guard tightens!");
+        englishText.put("status_defense_up_off", "Your guard returns to normal.");
+        englishText.put("status_defense_up_cure", ".@Your guard returns to normal.E");
+        englishText.put("status_field_hurt", "The poison affects your body.E");
 
         // Event text
         englishText.put("event_title", "EVENT! (ESC to exit)");
@@ -135,7 +174,7 @@ public class LocalizationManager {
         // Item usage
         englishText.put("item_used", "You used the ");
         englishText.put("item_heal", ".@HP recovered ");
-        englishText.put("item_cure", ".@The poison has left your body.E");
+        englishText.put("item_repel", ".@Monsters will keep away for a while.E");
         englishText.put("item_no_effect", "It wouldn't have any effect now.E");
         englishText.put("item_nothing", ".@But nothing happened.E");
 
@@ -197,6 +236,45 @@ public class LocalizationManager {
         japaneseText.put("battle_gained", "経験値とゴールドを獲得しました！");
         japaneseText.put("battle_you_defeated", "あなたは倒された！");
         japaneseText.put("battle_ongoing", "戦闘中、終了しません");
+        japaneseText.put("battle_appears", " が あらわれた！");
+        japaneseText.put("battle_and", " と ");
+        japaneseText.put("battle_more_appear", "ひきの なかまが あらわれた！");
+        japaneseText.put("battle_monsters", "ひきの モンスター");
+        japaneseText.put("battle_you_attack", "あなたは ");
+        japaneseText.put("battle_you_attack_suffix", " に こうげきした！");
+        japaneseText.put("battle_is_defeated", " を たおした！");
+        japaneseText.put("battle_status_hurt", "あなたは ");
+        japaneseText.put("battle_status_hurt_suffix", " の ダメージを うけた！");
+        japaneseText.put("auto_battle_summary", "オートバトル: ");
+        japaneseText.put("auto_battle_rounds", " ターン、");
+        japaneseText.put("auto_battle_damage", " の ダメージを うけた。");
+        japaneseText.put("auto_battle_on", "オートバトル: オン");
+        japaneseText.put("auto_battle_off", "オートバトル: オフ");
+        japaneseText.put("travel_to", "");
+        japaneseText.put("travel_to_suffix", " へ むかっている。");
+        japaneseText.put("travel_not_ready", "みちを しらべている。 すこし まってから ためしてください。");
+
+        // Status effects
+        japaneseText.put("status_poison_on", "@あなたは 毒に おかされた！");
+        japaneseText.put("status_poison_cure", "@毒が 消えた！E");
+        japaneseText.put("status_sleep_on", "@あなたは ねむってしまった！");
+        japaneseText.put("status_sleep_skip", "あなたは ねむっている。");
+        japaneseText.put("status_sleep_off", "あなたは めをさました！");
+        japaneseText.put("status_sleep_cure", "@めが さめた！E");
+        japaneseText.put("status_paralysis_on", "@あなたは からだが しびれた！");
+        japaneseText.put("status_paralysis_skip", "あなたは しびれて うごけない！");
+        japaneseText.put("status_paralysis_off", "しびれが とれた！");
+        japaneseText.put("status_paralysis_cure", "@しびれが とれた！E");
+        japaneseText.put("status_regen_on", "@きずが ふさがりはじめた！");
+        japaneseText.put("status_regen_off", "きずの かいふくが とまった。");
+        japaneseText.put("status_regen_cure", "@きずの かいふくが とまった。E");
+        japaneseText.put("status_attack_up_on", "@こうげきりょくが あがった！");
+        japaneseText.put("status_attack_up_off", "こうげきりょくが もとにもどった。");
+        japaneseText.put("status_attack_up_cure", "@こうげきりょくが もとにもどった。E");
+        japaneseText.put("status_defense_up_on", "@しゅびりょくが あがった！");
+        japaneseText.put("status_defense_up_off", "しゅびりょくが もとにもどった。");
+        japaneseText.put("status_defense_up_cure", "@しゅびりょくが もとにもどった。E");
+        japaneseText.put("status_field_hurt", "毒が からだを むしばんでいる。E");
 
         // Event text
         japaneseText.put("event_title", "イベント！(ESCで終了)");
@@ -273,7 +351,7 @@ public class LocalizationManager {
         japaneseText.put("item_heal", "@HPが ");
         japaneseText.put("item_heal_suffix", " かいふくした！E");
 
-        japaneseText.put("item_cure", "@毒が 消えた！E");
+        japaneseText.put("item_repel", "@まものが よってこなくなった！E");
         japaneseText.put("item_no_effect", "今は使っても意味がないようだ。E");
         japaneseText.put("item_nothing", "@しかし 何も起こらなかった。E");
 
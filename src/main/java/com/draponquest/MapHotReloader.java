@@ -0,0 +1,193 @@
+package com.draponquest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+
+/**
+ * Development helper that reloads the field map while the game is running.
+ * A background thread watches the map file with a {@link WatchService}. When
+ * the file changes it re-parses it and diffs it against the last applied
+ * layout, then hands only the changed tiles to the FX thread, which writes them
+ * through {@link fieldMapData#setFieldTile} so passability stays in sync.
+ * Enabled with {@code -Ddraponquest.devMode=true}.
+ *
+ * @author Modern Migration
+ */
+public class MapHotReloader {
+    /** System property that turns on development mode. */
+    public static final String DEV_MODE_PROPERTY = "draponquest.devMode";
+    /** System property naming the map file to watch. */
+    public static final String MAP_FILE_PROPERTY = "draponquest.mapFile";
+    /** The map file watched when {@link #MAP_FILE_PROPERTY} is not set. */
+    public static final String DEFAULT_MAP_FILE = "src/main/resources/alefgard_data.txt";
+
+    /**
+     * How long to wait after a change before reading the file, so that editors
+     * that write in several steps are read once, after they finish.
+     */
+    private static final long SETTLE_MILLIS = 150;
+
+    private final Path mapFile;
+    private final Consumer<int[]> onTilesChanged;
+    private final WatchService watcher;
+    /**
+     * The field layout as last applied. Only touched by the watcher thread after
+     * construction.
+     */
+    private int[][] applied;
+
+    /**
+     * Constructs a reloader and snapshots the live field map. Must be called on
+     * the FX thread, after {@link fieldMapData#initialize()}.
+     *
+     * @param mapFile        The map file to watch.
+     * @param onTilesChanged Called on the FX thread after changes are applied,
+     *                       with the packed indices ({@code row * width + col}) of
+     *                       the changed tiles.
+     * @throws IOException If the watch service cannot be created.
+     */
+    public MapHotReloader(Path mapFile, Consumer<int[]> onTilesChanged) throws IOException {
+        this.mapFile = mapFile.toAbsolutePath();
+        this.onTilesChanged = onTilesChanged;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        this.applied = new int[fieldMapData.FIELD_MAP_WIDTH][fieldMapData.FIELD_MAP_WIDTH];
+        for (int r = 0; r < fieldMapData.FIELD_MAP_WIDTH; r++) {
+            for (int c = 0; c < fieldMapData.FIELD_MAP_WIDTH; c++) {
+                applied[r][c] = fieldMapData.mapDataReturnField(r, c);
+            }
+        }
+    }
+
+    /**
+     * Starts watching the map file if development mode is enabled.
+     *
+     * @param onTilesChanged Called on the FX thread with the packed indices of
+     *                       the tiles that changed.
+     * @return The running reloader, or null if development mode is off or the
+     *         file cannot be watched.
+     */
+    public static MapHotReloader startIfEnabled(Consumer<int[]> onTilesChanged) {
+        if (!Boolean.getBoolean(DEV_MODE_PROPERTY)) {
+            return null;
+        }
+        Path file = Paths.get(System.getProperty(MAP_FILE_PROPERTY, DEFAULT_MAP_FILE));
+        if (!Files.isRegularFile(file)) {
+            System.err.println("Map hot reload disabled, file not found: " + file.toAbsolutePath());
+            return null;
+        }
+        try {
+            MapHotReloader reloader = new MapHotReloader(file, onTilesChanged);
+            reloader.start();
+            return reloader;
+        } catch (IOException e) {
+            System.err.println("Map hot reload disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Starts the watcher thread.
+     *
+     * @throws IOException If the map file's directory cannot be watched.
+     */
+    public void start() throws IOException {
+        mapFile.getParent().register(watcher, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_CREATE);
+        Thread thread = new Thread(this::watchLoop, "map-hot-reload");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Watching " + mapFile + " for map changes");
+    }
+
+    /**
+     * Stops watching the map file.
+     */
+    public void stop() {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            System.err.println("Error closing map watcher: " + e.getMessage());
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && mapFile.getFileName().equals(context)) {
+                        relevant = true;
+                    }
+                }
+                key.reset();
+                if (!relevant) {
+                    continue;
+                }
+                Thread.sleep(SETTLE_MILLIS);
+                // Drop the events caused by the rest of the same save
+                WatchKey pending;
+                while ((pending = watcher.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Parses the map file, diffs it against the last applied layout and queues
+     * the changed tiles for the FX thread.
+     */
+    private void reload() {
+        int[][] loaded;
+        try (InputStream is = Files.newInputStream(mapFile)) {
+            loaded = fieldMapData.parseField(is);
+        } catch (IOException e) {
+            System.err.println("Map reload failed: " + e.getMessage());
+            return;
+        }
+        int width = fieldMapData.FIELD_MAP_WIDTH;
+        int[] changed = new int[width * width];
+        int count = 0;
+        for (int r = 0; r < width; r++) {
+            for (int c = 0; c < width; c++) {
+                if (loaded[r][c] != applied[r][c]) {
+                    changed[count++] = r * width + c;
+                }
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        applied = loaded;
+        int[] indices = Arrays.copyOf(changed, count);
+        int[] tiles = new int[count];
+        for (int i = 0; i < count; i++) {
+            tiles[i] = loaded[indices[i] / width][indices[i] % width];
+        }
+        Platform.runLater(() -> {
+            for (int i = 0; i < indices.length; i++) {
+                fieldMapData.setFieldTile(indices[i] / width, indices[i] % width, tiles[i]);
+            }
+            System.out.println("Map reloaded: " + indices.length + " tile(s) changed");
+            onTilesChanged.accept(indices);
+        });
+    }
+}
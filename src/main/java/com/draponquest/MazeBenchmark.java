@@ -0,0 +1,49 @@
+package com.draponquest;
+
+/**
+ * Command-line benchmark for {@link MazeGenerator}.
+ * Generates mazes of increasing size with every algorithm and prints the
+ * average generation time and throughput. Run with:
+ * {@code java -cp target/classes com.draponquest.MazeBenchmark [iterations]}
+ *
+ * @author Modern Migration
+ */
+public class MazeBenchmark {
+    /**
+     * The maze sizes (width = height) measured by the benchmark.
+     */
+    private static final int[] SIZES = { 16, 128, 512, 2048 };
+    /**
+     * Display names of the algorithms, indexed by the {@code ALGORITHM_*}
+     * constants.
+     */
+    private static final String[] ALGORITHM_NAMES = { "backtracker", "wilson", "growing-tree" };
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of timed iterations per size (default 5).
+     */
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        System.out.printf("%-14s %6s %12s %14s%n", "algorithm", "size", "avg ms", "Mcells/s");
+        for (int algorithm = 0; algorithm < ALGORITHM_NAMES.length; algorithm++) {
+            for (int size : SIZES) {
+                // Warm up the JIT before timing
+                for (int i = 0; i < 2; i++) {
+                    MazeGenerator.carve(size, size, i, algorithm);
+                }
+                long checksum = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    byte[] grid = MazeGenerator.carve(size, size, 1000L + i, algorithm);
+                    checksum += grid[grid.length / 2];
+                }
+                double avgMs = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+                double cellsPerSec = (double) size * size / (avgMs / 1000.0) / 1_000_000.0;
+                System.out.printf("%-14s %6d %12.3f %14.1f%s%n", ALGORITHM_NAMES[algorithm], size, avgMs,
+                        cellsPerSec, checksum < 0 ? "!" : "");
+            }
+        }
+    }
+}
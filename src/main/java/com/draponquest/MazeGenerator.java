@@ -0,0 +1,229 @@
+package com.draponquest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded maze generator for cave floors.
+ * Mazes are carved on a grid where cells sit on odd rows and columns and the
+ * even rows and columns between them are walls that get knocked out. All work
+ * is done on a flat byte grid with explicit int stacks and lists sized up
+ * front, so generation allocates nothing per cell and scales to 2048x2048.
+ * The same seed, size and algorithm always produce the same maze.
+ *
+ * @author Modern Migration
+ */
+public class MazeGenerator {
+    /** Recursive backtracker (depth-first search): long, winding corridors. */
+    public static final int ALGORITHM_BACKTRACKER = 0;
+    /** Wilson's algorithm: uniform spanning tree, unbiased maze. */
+    public static final int ALGORITHM_WILSON = 1;
+    /** Growing tree mixing newest and random cell picks: many short branches. */
+    public static final int ALGORITHM_GROWING_TREE = 2;
+
+    /** The largest supported maze width or height in tiles. */
+    public static final int MAX_SIZE = 2048;
+
+    /** Grid value of a wall tile in the carved byte grid. */
+    public static final byte WALL = 0;
+    /** Grid value of a floor tile in the carved byte grid. */
+    public static final byte FLOOR = 1;
+
+    /** Cell-grid row offsets for the four directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_ROW = { -1, 1, 0, 0 };
+    /** Cell-grid column offsets for the four directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_COL = { 0, 0, -1, 1 };
+
+    private MazeGenerator() {
+    }
+
+    /**
+     * Generates a maze as a tile map of {@link fieldMapData#TILE_WALL} and
+     * {@link fieldMapData#TILE_FLOOR}.
+     *
+     * @param width     The width of the maze in tiles (at least 3).
+     * @param height    The height of the maze in tiles (at least 3).
+     * @param seed      The random seed.
+     * @param algorithm One of the {@code ALGORITHM_*} constants.
+     * @return The maze, indexed as {@code maze[row][col]}.
+     */
+    public static int[][] generate(int width, int height, long seed, int algorithm) {
+        byte[] grid = carve(width, height, seed, algorithm);
+        int[][] maze = new int[height][width];
+        for (int r = 0; r < height; r++) {
+            int[] row = maze[r];
+            int base = r * width;
+            for (int c = 0; c < width; c++) {
+                row[c] = grid[base + c] == FLOOR ? fieldMapData.TILE_FLOOR : fieldMapData.TILE_WALL;
+            }
+        }
+        return maze;
+    }
+
+    /**
+     * Carves a maze into a flat grid of {@link #WALL} and {@link #FLOOR} bytes,
+     * indexed by {@code row * width + col}. The outer border is always wall.
+     *
+     * @param width     The width of the maze in tiles (3 to {@link #MAX_SIZE}).
+     * @param height    The height of the maze in tiles (3 to {@link #MAX_SIZE}).
+     * @param seed      The random seed.
+     * @param algorithm One of the {@code ALGORITHM_*} constants.
+     * @return The carved grid.
+     */
+    public static byte[] carve(int width, int height, long seed, int algorithm) {
+        if (width < 3 || height < 3 || width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException("Maze size out of range: " + width + "x" + height);
+        }
+        byte[] grid = new byte[width * height];
+        int cellCols = (width - 1) / 2;
+        int cellRows = (height - 1) / 2;
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        switch (algorithm) {
+            case ALGORITHM_WILSON:
+                carveWilson(grid, width, cellRows, cellCols, rand);
+                break;
+            case ALGORITHM_GROWING_TREE:
+                carveGrowingTree(grid, width, cellRows, cellCols, rand);
+                break;
+            case ALGORITHM_BACKTRACKER:
+            default:
+                carveBacktracker(grid, width, cellRows, cellCols, rand);
+                break;
+        }
+        return grid;
+    }
+
+    /**
+     * Depth-first carving from the top-left cell with an explicit stack.
+     */
+    private static void carveBacktracker(byte[] grid, int width, int cellRows, int cellCols, SplittableRandom rand) {
+        int[] stack = new int[cellRows * cellCols];
+        int[] choices = new int[4];
+        int top = 0;
+        stack[top++] = 0;
+        openCell(grid, width, 0, 0);
+
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int cr = cell / cellCols;
+            int cc = cell % cellCols;
+            int count = unvisitedNeighbours(grid, width, cellRows, cellCols, cr, cc, choices);
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int dir = choices[rand.nextInt(count)];
+            int nr = cr + DIR_ROW[dir];
+            int nc = cc + DIR_COL[dir];
+            openPassage(grid, width, cr, cc, dir);
+            openCell(grid, width, nr, nc);
+            stack[top++] = nr * cellCols + nc;
+        }
+    }
+
+    /**
+     * Wilson's algorithm: loop-erased random walks from every cell not yet in the
+     * maze until they hit it. Each cell remembers only the direction it was last
+     * left in, which erases loops implicitly.
+     */
+    private static void carveWilson(byte[] grid, int width, int cellRows, int cellCols, SplittableRandom rand) {
+        int cellCount = cellRows * cellCols;
+        byte[] exitDir = new byte[cellCount];
+        int first = rand.nextInt(cellCount);
+        openCell(grid, width, first / cellCols, first % cellCols);
+
+        for (int start = 0; start < cellCount; start++) {
+            if (isOpenCell(grid, width, start / cellCols, start % cellCols)) {
+                continue;
+            }
+            // Random walk until the maze is reached, recording exits
+            int cell = start;
+            while (!isOpenCell(grid, width, cell / cellCols, cell % cellCols)) {
+                int cr = cell / cellCols;
+                int cc = cell % cellCols;
+                int dir;
+                int nr;
+                int nc;
+                do {
+                    dir = rand.nextInt(4);
+                    nr = cr + DIR_ROW[dir];
+                    nc = cc + DIR_COL[dir];
+                } while (nr < 0 || nr >= cellRows || nc < 0 || nc >= cellCols);
+                exitDir[cell] = (byte) dir;
+                cell = nr * cellCols + nc;
+            }
+            // Carve the loop-erased walk into the maze
+            cell = start;
+            while (!isOpenCell(grid, width, cell / cellCols, cell % cellCols)) {
+                int cr = cell / cellCols;
+                int cc = cell % cellCols;
+                int dir = exitDir[cell];
+                openCell(grid, width, cr, cc);
+                openPassage(grid, width, cr, cc, dir);
+                cell = (cr + DIR_ROW[dir]) * cellCols + cc + DIR_COL[dir];
+            }
+        }
+    }
+
+    /**
+     * Growing tree: keeps a list of active cells and extends either the newest
+     * or a random one, half of the time each.
+     */
+    private static void carveGrowingTree(byte[] grid, int width, int cellRows, int cellCols,
+            SplittableRandom rand) {
+        int[] active = new int[cellRows * cellCols];
+        int[] choices = new int[4];
+        int size = 0;
+        int first = rand.nextInt(active.length);
+        active[size++] = first;
+        openCell(grid, width, first / cellCols, first % cellCols);
+
+        while (size > 0) {
+            int index = rand.nextBoolean() ? size - 1 : rand.nextInt(size);
+            int cell = active[index];
+            int cr = cell / cellCols;
+            int cc = cell % cellCols;
+            int count = unvisitedNeighbours(grid, width, cellRows, cellCols, cr, cc, choices);
+            if (count == 0) {
+                active[index] = active[--size]; // Swap-remove the exhausted cell
+                continue;
+            }
+            int dir = choices[rand.nextInt(count)];
+            int nr = cr + DIR_ROW[dir];
+            int nc = cc + DIR_COL[dir];
+            openPassage(grid, width, cr, cc, dir);
+            openCell(grid, width, nr, nc);
+            active[size++] = nr * cellCols + nc;
+        }
+    }
+
+    /**
+     * Collects the directions to neighbouring cells that are still solid.
+     *
+     * @return The number of directions written into {@code out}.
+     */
+    private static int unvisitedNeighbours(byte[] grid, int width, int cellRows, int cellCols, int cr, int cc,
+            int[] out) {
+        int count = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int nr = cr + DIR_ROW[dir];
+            int nc = cc + DIR_COL[dir];
+            if (nr >= 0 && nr < cellRows && nc >= 0 && nc < cellCols && !isOpenCell(grid, width, nr, nc)) {
+                out[count++] = dir;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isOpenCell(byte[] grid, int width, int cr, int cc) {
+        return grid[(2 * cr + 1) * width + 2 * cc + 1] == FLOOR;
+    }
+
+    private static void openCell(byte[] grid, int width, int cr, int cc) {
+        grid[(2 * cr + 1) * width + 2 * cc + 1] = FLOOR;
+    }
+
+    private static void openPassage(byte[] grid, int width, int cr, int cc, int dir) {
+        grid[(2 * cr + 1 + DIR_ROW[dir]) * width + 2 * cc + 1 + DIR_COL[dir]] = FLOOR;
+    }
+}
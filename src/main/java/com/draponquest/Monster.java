@@ -1,16 +1,15 @@
 package com.draponquest;
 
-import javafx.scene.image.Image;
-
 /**
- * Represents a monster entity in the game, including its stats, image, and
- * drops.
+ * Represents a monster entity in the game, including its stats, sprite, and
+ * drops. Monsters are loaded by {@link MonsterCatalog}; their sprites are
+ * decoded on demand by {@link MonsterSprites}.
  */
 public class Monster {
     /**
-     * The visual representation (image) of the monster.
+     * The image file under {@code /images/} shown in battle, or null for none.
      */
-    Image image;
+    String sprite;
     /**
      * The name of the monster.
      */
@@ -27,6 +26,11 @@ public class Monster {
      * The defense power of the monster.
      */
     int defense;
+    /**
+     * The agility of the monster; the higher it is, the earlier the monster
+     * tends to act in a round.
+     */
+    int agility;
     /**
      * The experience points awarded to the player for defeating this monster.
      */
@@ -39,15 +43,21 @@ public class Monster {
      * The item that this monster might drop.
      */
     Item itemDrop;
+    /**
+     * The id of the item this monster might drop (see
+     * {@link MonsterCatalog#dropId(String)}), or -1 for none.
+     */
+    int dropId;
     /**
      * The probability (0.0 to 1.0) of the monster dropping its itemDrop.
      */
     double dropChance;
 
     /**
-     * Whether this monster can poison the player.
+     * The status effects this monster's hits can inflict, one bit per
+     * {@link StatusEffects} id.
      */
-    boolean hasPoison;
+    int inflicts;
 
     /**
      * Whether this is a boss monster (plays boss music).
@@ -59,35 +69,49 @@ public class Monster {
      */
     boolean isFinalBoss;
 
+    /**
+     * The music track played when a battle against this monster starts.
+     */
+    String music;
+
     /**
      * Constructs a new Monster instance.
      * 
-     * @param image       The image representing the monster.
+     * @param sprite      The image file shown in battle, or null for none.
      * @param name        The name of the monster.
      * @param maxHP       The maximum hit points of the monster.
      * @param attack      The attack power of the monster.
      * @param defense     The defense power of the monster.
+     * @param agility     The agility of the monster.
      * @param xpValue     The experience points awarded for defeating this monster.
      * @param goldValue   The amount of gold dropped by this monster.
      * @param itemDrop    The item that this monster might drop.
+     * @param dropId      The id of that item, or -1 for none.
      * @param dropChance  The probability (0.0 to 1.0) of the itemDrop.
-     * @param hasPoison   Whether this monster implements poison attacks.
+     * @param inflicts    The status effects its hits can inflict, one bit per
+     *                    {@link StatusEffects} id.
      * @param isBoss      Whether this is a boss monster.
      * @param isFinalBoss Whether this is the final boss.
+     * @param music       The music track played when a battle starts.
      */
-    public Monster(Image image, String name, int maxHP, int attack, int defense, int xpValue, int goldValue,
-            Item itemDrop, double dropChance, boolean hasPoison, boolean isBoss, boolean isFinalBoss) {
-        this.image = image;
+    public Monster(String sprite, String name, int maxHP, int attack, int defense, int agility,
+            int xpValue, int goldValue,
+            Item itemDrop, int dropId, double dropChance, int inflicts, boolean isBoss, boolean isFinalBoss,
+            String music) {
+        this.sprite = sprite;
         this.name = name;
         this.maxHP = maxHP;
         this.attack = attack;
         this.defense = defense;
+        this.agility = agility;
         this.xpValue = xpValue;
         this.goldValue = goldValue;
         this.itemDrop = itemDrop;
+        this.dropId = dropId;
         this.dropChance = dropChance;
-        this.hasPoison = hasPoison;
+        this.inflicts = inflicts;
         this.isBoss = isBoss;
         this.isFinalBoss = isFinalBoss;
+        this.music = music;
     }
 }
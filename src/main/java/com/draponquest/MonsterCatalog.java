@@ -0,0 +1,155 @@
+package com.draponquest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Loads the monster roster from {@code /data/monsters.txt}.
+ * A monster's position in the returned array is its id, the number
+ * {@code encounters.txt} refers to it by. Only stats and file names are read
+ * here; sprites are decoded later, on demand, by {@link MonsterSprites}, so
+ * loading the catalog costs the same however many monsters it lists. Nothing
+ * in this class depends on JavaFX.
+ *
+ * @author Modern Migration
+ */
+public final class MonsterCatalog {
+    /** The resource the catalog is loaded from. */
+    private static final String MONSTERS_RESOURCE = "/data/monsters.txt";
+    /** The number of columns before the name. */
+    private static final int FIXED_COLUMNS = 12;
+    /**
+     * The names the {@code drop} column may use; an item's index here is its
+     * id, as recorded in battle logs.
+     */
+    private static final String[] DROP_ITEMS = { "herb", "potion", "antidote" };
+
+    private MonsterCatalog() {
+    }
+
+    /**
+     * Returns the id of an item monsters can drop.
+     *
+     * @param name The item's name in the {@code drop} column.
+     * @return The item id, or -1 if monsters cannot drop it.
+     */
+    public static int dropId(String name) {
+        for (int i = 0; i < DROP_ITEMS.length; i++) {
+            if (DROP_ITEMS[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param id An item id from {@link #dropId(String)}.
+     * @return The item's name in the {@code drop} column, or null if the id is
+     *         unknown.
+     */
+    public static String dropName(int id) {
+        return id >= 0 && id < DROP_ITEMS.length ? DROP_ITEMS[id] : null;
+    }
+
+    /**
+     * Loads the catalog. Bad lines are reported and skipped; a gap in the ids
+     * leaves the catalog ending before the gap.
+     *
+     * @param items The items monsters can drop, by the names used in the
+     *              {@code drop} column; null to load monsters without drops.
+     * @return The monsters, indexed by id.
+     */
+    public static Monster[] load(Map<String, Item> items) {
+        List<Monster> byId = new ArrayList<>();
+        try (InputStream is = MonsterCatalog.class.getResourceAsStream(MONSTERS_RESOURCE)) {
+            if (is == null) {
+                System.err.println("Monster catalog not found: " + MONSTERS_RESOURCE);
+                return new Monster[0];
+            }
+            Scanner scanner = new Scanner(is, "UTF-8");
+            int lineNumber = 0;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    String[] f = line.split("\\s+", FIXED_COLUMNS + 1);
+                    int id = Integer.parseInt(f[0]);
+                    if (id < 0) {
+                        throw new IllegalArgumentException("negative monster id " + id);
+                    }
+                    while (byId.size() <= id) {
+                        byId.add(null);
+                    }
+                    if (byId.get(id) != null) {
+                        throw new IllegalArgumentException("duplicate monster id " + id);
+                    }
+                    byId.set(id, parse(f, items));
+                } catch (RuntimeException e) {
+                    System.err.println("Bad monster on line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        int count = byId.indexOf(null);
+        if (count >= 0) {
+            System.err.println("Monster id " + count + " is missing; ignoring the monsters after it");
+            byId = byId.subList(0, count);
+        }
+        return byId.toArray(new Monster[0]);
+    }
+
+    private static Monster parse(String[] f, Map<String, Item> items) {
+        if (f.length < FIXED_COLUMNS + 1) {
+            throw new IllegalArgumentException("expected " + (FIXED_COLUMNS + 1) + " columns, found " + f.length);
+        }
+        Item drop = null;
+        int dropId = -1;
+        if (!f[8].equals("-")) {
+            dropId = dropId(f[8]);
+            if (dropId < 0 || (items != null && !items.containsKey(f[8]))) {
+                throw new IllegalArgumentException("unknown item " + f[8]);
+            }
+            if (items != null) {
+                drop = items.get(f[8]);
+            }
+        }
+        int inflicts = 0;
+        boolean boss = false;
+        boolean finalBoss = false;
+        if (!f[10].equals("-")) {
+            for (String flag : f[10].split(",")) {
+                switch (flag) {
+                    case "boss":
+                        boss = true;
+                        break;
+                    case "final":
+                        finalBoss = true;
+                        break;
+                    default:
+                        // Any other flag names a status effect the monster's hits inflict
+                        int effect = StatusEffects.idOf(flag);
+                        if (effect < 0) {
+                            throw new IllegalArgumentException("unknown flag " + flag);
+                        }
+                        inflicts |= 1 << effect;
+                }
+            }
+        }
+        String music = f[11];
+        if (music.equals("-")) {
+            music = finalBoss ? AudioManager.MUSIC_FINAL_BOSS
+                    : boss ? AudioManager.MUSIC_BOSS : AudioManager.MUSIC_BATTLE;
+        }
+        return new Monster(f[1].equals("-") ? null : f[1], f[12], Integer.parseInt(f[2]), Integer.parseInt(f[3]),
+                Integer.parseInt(f[4]), Integer.parseInt(f[5]), Integer.parseInt(f[6]), Integer.parseInt(f[7]),
+                drop, dropId, Double.parseDouble(f[9]), inflicts, boss, finalBoss, music);
+    }
+}
@@ -0,0 +1,117 @@
+package com.draponquest;
+
+import javafx.scene.image.Image;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decodes monster sprites on first use and keeps the most recently used ones
+ * in a cache of fixed size, so memory stays flat however many monsters the
+ * catalog lists. Sprites of the monsters likely to appear next can be decoded
+ * ahead of time on a background thread with {@link #prefetch}. A sprite that
+ * fails to load is remembered and not tried again.
+ *
+ * @author Modern Migration
+ */
+public class MonsterSprites {
+    /** Decodes prefetched sprites in the background. */
+    private final ExecutorService loader;
+    /** Decoded sprites by file name, least recently used first. */
+    private final Map<String, Image> cache;
+    /** File names of sprites that are missing or failed to decode; guarded by {@link #cache}. */
+    private final Set<String> failed = new HashSet<>();
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity The most sprites kept decoded at once.
+     */
+    public MonsterSprites(int capacity) {
+        this.cache = new LinkedHashMap<String, Image>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "monster-sprites");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns a monster's sprite, decoding it now if it is not cached.
+     *
+     * @param monster The monster.
+     * @return The sprite, or null if the monster has none or it failed to load.
+     */
+    public Image get(Monster monster) {
+        if (monster.sprite == null) {
+            return null;
+        }
+        synchronized (cache) {
+            Image image = cache.get(monster.sprite);
+            if (image != null || failed.contains(monster.sprite)) {
+                return image;
+            }
+        }
+        Image image = decode(monster.sprite);
+        synchronized (cache) {
+            if (image != null) {
+                cache.put(monster.sprite, image);
+            } else {
+                failed.add(monster.sprite);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Decodes the sprites of some monsters in the background, skipping those
+     * already cached or known to fail.
+     *
+     * @param roster   The monster roster.
+     * @param monsters The indices of the monsters in the roster.
+     */
+    public void prefetch(Monster[] roster, int[] monsters) {
+        for (int index : monsters) {
+            Monster monster = roster[index];
+            if (monster.sprite == null) {
+                continue;
+            }
+            synchronized (cache) {
+                if (cache.containsKey(monster.sprite) || failed.contains(monster.sprite)) {
+                    continue;
+                }
+            }
+            loader.execute(() -> get(monster));
+        }
+    }
+
+    /** @return The number of sprites currently decoded. */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Image decode(String sprite) {
+        try (InputStream is = getClass().getResourceAsStream("/images/" + sprite)) {
+            if (is == null) {
+                System.err.println("Monster sprite not found: " + sprite);
+                return null;
+            }
+            Image image = new Image(is);
+            return image.isError() ? null : image;
+        } catch (Exception e) {
+            System.err.println("Could not load monster sprite " + sprite + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
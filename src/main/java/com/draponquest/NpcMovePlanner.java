@@ -0,0 +1,166 @@
+package com.draponquest;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moves a batch of NPCs one random step each in two passes.
+ * The first pass works out where each NPC wants to go: its direction comes
+ * from a hash of the step seed and its id, and steps into walls or onto the
+ * player are dropped. This pass only reads shared state, so when enough NPCs
+ * are due at once it runs in parallel with fork/join over ranges of the batch. The second pass
+ * applies the moves one at a time in ascending id order, so when two NPCs want
+ * the same tile the lower id gets it and the other stays put.
+ * Both passes give the same result whether or not the first ran in parallel.
+ *
+ * @author Modern Migration
+ */
+public class NpcMovePlanner {
+    /** System property overriding the batch size at which planning goes parallel. */
+    public static final String PARALLEL_THRESHOLD_PROPERTY = "draponquest.npcParallelThreshold";
+    /** The default batch size at which planning goes parallel. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    /** The most NPCs one fork/join task plans without splitting. */
+    private static final int BATCH_GRAIN = 256;
+    /** Marks an NPC that does not try to move. */
+    private static final int STAY = -1;
+
+    /** Column offsets for the four directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_X = { 0, 0, -1, 1 };
+    /** Row offsets for the four directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_Y = { -1, 1, 0, 0 };
+
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+    /** The direction each NPC of the batch steps in, or {@link #STAY}. */
+    private int[] directions = new int[64];
+
+    /**
+     * Constructs a planner that runs on the common fork/join pool.
+     *
+     * @param parallelThreshold The smallest batch planned in parallel.
+     */
+    public NpcMovePlanner(int parallelThreshold) {
+        this(parallelThreshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a planner.
+     *
+     * @param parallelThreshold The smallest batch planned in parallel; batches
+     *                          that fit in one task are always planned inline.
+     * @param pool              The pool to plan on.
+     */
+    public NpcMovePlanner(int parallelThreshold, ForkJoinPool pool) {
+        this.parallelThreshold = parallelThreshold;
+        this.pool = pool;
+    }
+
+    /**
+     * Moves a batch of NPCs of one place a step each.
+     *
+     * @param store       The NPCs.
+     * @param ids         The ids of the NPCs to move; the first {@code count}
+     *                    are sorted in place.
+     * @param count       The number of NPCs in the batch.
+     * @param stepSeed    The seed the directions are drawn from.
+     * @param passability The passability layers of the place's map.
+     * @param playerX     The column the player stands on.
+     * @param playerY     The row the player stands on.
+     * @return The number of NPCs that moved.
+     */
+    public int moveAll(NpcStore store, int[] ids, int count, long stepSeed,
+            PassabilityMap passability, int playerX, int playerY) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(ids, 0, count);
+        if (directions.length < count) {
+            directions = new int[Math.max(count, directions.length * 2)];
+        }
+        PlanTask plan = new PlanTask(0, count, store, ids, stepSeed, passability, playerX, playerY);
+        // Only the NPCs due this tick are planned, so the batch size (not the
+        // place's population) decides whether forking can pay off
+        if (count > BATCH_GRAIN && count >= parallelThreshold) {
+            pool.invoke(plan);
+        } else {
+            plan.planRange(0, count);
+        }
+
+        int moved = 0;
+        for (int i = 0; i < count; i++) {
+            int direction = directions[i];
+            if (direction == STAY) {
+                continue;
+            }
+            int id = ids[i];
+            if (store.move(id, store.getX(id) + DIR_X[direction], store.getY(id) + DIR_Y[direction], direction)) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Picks the direction an NPC tries to step in this batch.
+     */
+    private static int directionOf(long stepSeed, int id) {
+        long h = stepSeed + 0x9E3779B97F4A7C15L * (id + 1L);
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return (int) ((h ^ (h >>> 31)) >>> 62);
+    }
+
+    /**
+     * Works out the directions for a range of the batch, splitting the range in
+     * half until it is small enough.
+     */
+    private class PlanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final NpcStore store;
+        private final int[] ids;
+        private final long stepSeed;
+        private final PassabilityMap passability;
+        private final int playerX;
+        private final int playerY;
+
+        PlanTask(int from, int to, NpcStore store, int[] ids, long stepSeed, PassabilityMap passability,
+                int playerX, int playerY) {
+            this.from = from;
+            this.to = to;
+            this.store = store;
+            this.ids = ids;
+            this.stepSeed = stepSeed;
+            this.passability = passability;
+            this.playerX = playerX;
+            this.playerY = playerY;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PlanTask(from, mid, store, ids, stepSeed, passability, playerX, playerY),
+                        new PlanTask(mid, to, store, ids, stepSeed, passability, playerX, playerY));
+                return;
+            }
+            planRange(from, to);
+        }
+
+        void planRange(int start, int end) {
+            for (int i = start; i < end; i++) {
+                int id = ids[i];
+                int direction = directionOf(stepSeed, id);
+                int targetX = store.getX(id) + DIR_X[direction];
+                int targetY = store.getY(id) + DIR_Y[direction];
+                boolean blocked = !passability.isPassable(PassabilityMap.MOVE_WALKER, targetY, targetX)
+                        || (targetX == playerX && targetY == playerY);
+                directions[i] = blocked ? STAY : direction;
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.draponquest;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Decides which NPCs act on each tick. Rather than rolling a chance for every
+ * NPC every tick, each NPC is given the tick it next acts on, drawn from the
+ * geometric distribution that the per-tick roll would produce, and is filed in
+ * a timer wheel under that tick. A tick then only visits the NPCs that are
+ * due, so its cost follows the number of actions rather than the population.
+ * A tick stops once its time budget is spent; NPCs still due are carried over
+ * to the next tick.
+ * The scheduler holds only the NPCs it was given. NPCs in other places are
+ * simply not scheduled and cost nothing until they are.
+ *
+ * @author Modern Migration
+ */
+public class NpcScheduler {
+    /** The wheel has {@code 1 << WHEEL_SHIFT} slots, one per tick. */
+    private static final int WHEEL_SHIFT = 8;
+    private static final int WHEEL_MASK = (1 << WHEEL_SHIFT) - 1;
+    /** Marks an NPC that is not scheduled. */
+    private static final long UNSCHEDULED = -1;
+
+    private final double actChance;
+    /** {@code log(1 - actChance)}, used to draw the geometric delays. */
+    private final double logMiss;
+    private final long budgetNanos;
+    /** The ids filed under each slot of the wheel. */
+    private final int[][] slotIds = new int[1 << WHEEL_SHIFT][];
+    /**
+     * The tick each entry of {@link #slotIds} was filed for. A slot holds
+     * entries for every turn of the wheel that lands on it.
+     */
+    private final long[][] slotTicks = new long[1 << WHEEL_SHIFT][];
+    private final int[] slotCounts = new int[1 << WHEEL_SHIFT];
+    /**
+     * The tick each NPC is due on. Wheel entries filed for another tick are
+     * stale and dropped, so cancelling never has to search the wheel.
+     */
+    private long[] wakeTick = new long[16];
+    /** Entries taken off the current slot, reused between ticks. */
+    private int[] dueIds = new int[16];
+    private long[] dueTicks = new long[16];
+    private long tick = 0;
+    private int deferred = 0;
+
+    /**
+     * Constructs an empty scheduler.
+     *
+     * @param actChance   The chance that an NPC acts on any one tick, above 0 and
+     *                    at most 1.
+     * @param budgetNanos The most time one tick may spend running NPCs.
+     */
+    public NpcScheduler(double actChance, long budgetNanos) {
+        this.actChance = actChance;
+        this.logMiss = Math.log1p(-actChance);
+        this.budgetNanos = budgetNanos;
+        for (int i = 0; i < slotIds.length; i++) {
+            slotIds[i] = new int[8];
+            slotTicks[i] = new long[8];
+        }
+        Arrays.fill(wakeTick, UNSCHEDULED);
+    }
+
+    /**
+     * Schedules an NPC to act after a random number of ticks, replacing any
+     * earlier schedule.
+     *
+     * @param id     The NPC's id.
+     * @param random The random source for the delay.
+     */
+    public void schedule(int id, Random random) {
+        scheduleAt(id, tick + nextDelay(random));
+    }
+
+    /**
+     * Stops an NPC from acting until it is scheduled again.
+     *
+     * @param id The NPC's id.
+     */
+    public void cancel(int id) {
+        if (id < wakeTick.length) {
+            wakeTick[id] = UNSCHEDULED;
+        }
+    }
+
+    /**
+     * Unschedules every NPC.
+     */
+    public void clear() {
+        Arrays.fill(slotCounts, 0);
+        Arrays.fill(wakeTick, UNSCHEDULED);
+    }
+
+    /**
+     * Advances one tick and runs every NPC due on it, until the time budget is
+     * spent. Each NPC that runs is scheduled again; NPCs left over when the
+     * budget runs out are moved to the next tick.
+     *
+     * @param random The random source for the new delays.
+     * @param action Called with the id of each NPC that acts.
+     * @return The number of NPCs that acted.
+     */
+    public int tick(Random random, IntConsumer action) {
+        tick++;
+        int slot = (int) (tick & WHEEL_MASK);
+        int count = slotCounts[slot];
+        if (count == 0) {
+            deferred = 0;
+            return 0;
+        }
+        // Take the slot's entries first; NPCs run below may be filed back into
+        // this slot one full turn of the wheel later.
+        if (dueIds.length < count) {
+            dueIds = new int[slotIds[slot].length];
+            dueTicks = new long[slotIds[slot].length];
+        }
+        System.arraycopy(slotIds[slot], 0, dueIds, 0, count);
+        System.arraycopy(slotTicks[slot], 0, dueTicks, 0, count);
+        slotCounts[slot] = 0;
+
+        long deadline = System.nanoTime() + budgetNanos;
+        int ran = 0;
+        int i = 0;
+        for (; i < count; i++) {
+            int id = dueIds[i];
+            if (wakeTick[id] != dueTicks[i]) {
+                continue; // Cancelled or rescheduled since filing
+            }
+            if (dueTicks[i] != tick) {
+                file(id, dueTicks[i], slot); // Due on a later turn of the wheel
+                continue;
+            }
+            if (ran > 0 && System.nanoTime() > deadline) {
+                break;
+            }
+            scheduleAt(id, tick + nextDelay(random));
+            action.accept(id);
+            ran++;
+        }
+        deferred = 0;
+        for (; i < count; i++) {
+            int id = dueIds[i];
+            if (wakeTick[id] != dueTicks[i]) {
+                continue;
+            }
+            if (dueTicks[i] == tick) {
+                scheduleAt(id, tick + 1);
+                deferred++;
+            } else {
+                file(id, dueTicks[i], slot);
+            }
+        }
+        return ran;
+    }
+
+    /** @return The number of NPCs the last tick carried over for lack of time. */
+    public int getDeferred() {
+        return deferred;
+    }
+
+    /** @return The number of ticks run so far. */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Draws the number of ticks until an NPC acts: the number of rolls of
+     * {@code actChance} up to and including the first success.
+     */
+    private long nextDelay(Random random) {
+        if (actChance >= 1) {
+            return 1;
+        }
+        // 1 - nextDouble() lies in (0, 1], so the logarithm is finite
+        return 1 + (long) (Math.log(1 - random.nextDouble()) / logMiss);
+    }
+
+    private void scheduleAt(int id, long at) {
+        if (id >= wakeTick.length) {
+            int oldLength = wakeTick.length;
+            wakeTick = Arrays.copyOf(wakeTick, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(wakeTick, oldLength, wakeTick.length, UNSCHEDULED);
+        }
+        wakeTick[id] = at;
+        file(id, at, (int) (at & WHEEL_MASK));
+    }
+
+    private void file(int id, long at, int slot) {
+        int n = slotCounts[slot];
+        if (n == slotIds[slot].length) {
+            slotIds[slot] = Arrays.copyOf(slotIds[slot], n * 2);
+            slotTicks[slot] = Arrays.copyOf(slotTicks[slot], n * 2);
+        }
+        slotIds[slot][n] = id;
+        slotTicks[slot][n] = at;
+        slotCounts[slot] = n + 1;
+    }
+}
@@ -0,0 +1,328 @@
+package com.draponquest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Holds every NPC in the game as parallel primitive arrays indexed by NPC id.
+ * Each place keeps a dense list of the ids in it, so per-tick loops touch only
+ * the NPCs of the current place and read their fields sequentially. Ids of
+ * removed NPCs go on a free list and are reused. Each place also has an
+ * {@link OccupancyGrid} and a {@link FreeTileSet}, both updated on every
+ * spawn, move and removal.
+ *
+ * @author Modern Migration
+ */
+public class NpcStore {
+    /** The resource NPC placements are loaded from. */
+    private static final String NPCS_RESOURCE = "/data/npcs.txt";
+    /** Marks a coordinate or direction in the data file to be chosen at random. */
+    public static final int RANDOM = -1;
+    /** Marks the end of the free list. */
+    private static final int NO_ID = -1;
+
+    private int[] x = new int[16];
+    private int[] y = new int[16];
+    private int[] direction = new int[16];
+    private int[] type = new int[16];
+    private int[] scriptId = new int[16];
+    private int[] place = new int[16];
+    private boolean[] alive = new boolean[16];
+    /** Position of each NPC in its place's list, for constant-time removal. */
+    private int[] indexInPlace = new int[16];
+    /** The next free id after each free id. */
+    private int[] nextFree = new int[16];
+    private int freeHead = NO_ID;
+    /** One past the highest id ever handed out. */
+    private int used = 0;
+    private int count = 0;
+
+    /** The ids of the NPCs in each place. */
+    private final int[][] placeIds;
+    private final int[] placeCounts;
+    private final OccupancyGrid[] grids;
+    private final FreeTileSet[] freeTiles;
+
+    /**
+     * Constructs an empty store.
+     *
+     * @param grids One occupancy grid per place ID, sized to that place's map.
+     */
+    public NpcStore(OccupancyGrid... grids) {
+        this.grids = grids;
+        this.placeIds = new int[grids.length][16];
+        this.placeCounts = new int[grids.length];
+        this.freeTiles = new FreeTileSet[grids.length];
+        for (int i = 0; i < grids.length; i++) {
+            freeTiles[i] = new FreeTileSet(grids[i]);
+        }
+    }
+
+    /**
+     * Adds an NPC.
+     *
+     * @param npcX      The column it stands on.
+     * @param npcY      The row it stands on.
+     * @param npcType   The type (0=soldier, 1=merchant, 2=king).
+     * @param npcDir    The direction it faces.
+     * @param npcScript The ID of the script it speaks.
+     * @param npcPlace  The place ID it lives in.
+     * @return The new NPC's id, or -1 if the tile is taken or off the map.
+     */
+    public int spawn(int npcX, int npcY, int npcType, int npcDir, int npcScript, int npcPlace) {
+        if (!grids[npcPlace].isFree(npcX, npcY)) {
+            return NO_ID;
+        }
+        int id;
+        if (freeHead != NO_ID) {
+            id = freeHead;
+            freeHead = nextFree[id];
+        } else {
+            if (used == x.length) {
+                grow();
+            }
+            id = used++;
+        }
+        x[id] = npcX;
+        y[id] = npcY;
+        type[id] = npcType;
+        direction[id] = npcDir;
+        scriptId[id] = npcScript;
+        place[id] = npcPlace;
+        alive[id] = true;
+
+        int[] ids = placeIds[npcPlace];
+        if (placeCounts[npcPlace] == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            placeIds[npcPlace] = ids;
+        }
+        indexInPlace[id] = placeCounts[npcPlace];
+        ids[placeCounts[npcPlace]++] = id;
+        grids[npcPlace].place(npcX, npcY, id);
+        freeTiles[npcPlace].occupy(npcX, npcY);
+        count++;
+        return id;
+    }
+
+    /**
+     * Removes an NPC and puts its id on the free list.
+     *
+     * @param id The NPC's id.
+     */
+    public void despawn(int id) {
+        if (id < 0 || id >= used || !alive[id]) {
+            return;
+        }
+        int p = place[id];
+        grids[p].remove(x[id], y[id]);
+        freeTiles[p].vacate(x[id], y[id]);
+        // Move the last NPC of the place into the freed position
+        int last = placeIds[p][--placeCounts[p]];
+        placeIds[p][indexInPlace[id]] = last;
+        indexInPlace[last] = indexInPlace[id];
+        alive[id] = false;
+        nextFree[id] = freeHead;
+        freeHead = id;
+        count--;
+    }
+
+    /**
+     * Moves an NPC to another tile of its place.
+     *
+     * @param id     The NPC's id.
+     * @param toX    The column to move to.
+     * @param toY    The row to move to.
+     * @param facing The direction the NPC faces afterwards.
+     * @return False if the target tile is taken or off the map.
+     */
+    public boolean move(int id, int toX, int toY, int facing) {
+        if (!grids[place[id]].move(x[id], y[id], toX, toY)) {
+            return false;
+        }
+        freeTiles[place[id]].vacate(x[id], y[id]);
+        freeTiles[place[id]].occupy(toX, toY);
+        x[id] = toX;
+        y[id] = toY;
+        direction[id] = facing;
+        return true;
+    }
+
+    /**
+     * Removes every NPC.
+     */
+    public void clear() {
+        for (int i = 0; i < grids.length; i++) {
+            grids[i].clear();
+            freeTiles[i].invalidate();
+        }
+        Arrays.fill(placeCounts, 0);
+        Arrays.fill(alive, false);
+        freeHead = NO_ID;
+        used = 0;
+        count = 0;
+    }
+
+    /**
+     * Returns the NPC on a tile.
+     *
+     * @param npcPlace The place ID.
+     * @param tileX    The column of the tile.
+     * @param tileY    The row of the tile.
+     * @return The NPC's id, or -1 if the tile is free.
+     */
+    public int at(int npcPlace, int tileX, int tileY) {
+        return grids[npcPlace].get(tileX, tileY);
+    }
+
+    /**
+     * Checks whether a tile is free of NPCs.
+     *
+     * @param npcPlace The place ID.
+     * @param tileX    The column of the tile.
+     * @param tileY    The row of the tile.
+     * @return True if no NPC stands there and the tile is on the map.
+     */
+    public boolean isFree(int npcPlace, int tileX, int tileY) {
+        return grids[npcPlace].isFree(tileX, tileY);
+    }
+
+    /**
+     * Returns the free walkable tiles of a place.
+     *
+     * @param npcPlace The place ID.
+     * @return The tiles of the place no NPC stands on.
+     */
+    public FreeTileSet getFreeTiles(int npcPlace) {
+        return freeTiles[npcPlace];
+    }
+
+    /**
+     * Returns how many NPCs live in a place.
+     *
+     * @param npcPlace The place ID.
+     * @return The number of NPCs there.
+     */
+    public int countIn(int npcPlace) {
+        return placeCounts[npcPlace];
+    }
+
+    /**
+     * Returns the id of the i-th NPC of a place. The order changes when NPCs are
+     * removed.
+     *
+     * @param npcPlace The place ID.
+     * @param i        An index below {@link #countIn}.
+     * @return The NPC's id.
+     */
+    public int idIn(int npcPlace, int i) {
+        return placeIds[npcPlace][i];
+    }
+
+    /** @return The number of NPCs in all places. */
+    public int size() {
+        return count;
+    }
+
+    /** @return The column the NPC stands on. */
+    public int getX(int id) {
+        return x[id];
+    }
+
+    /** @return The row the NPC stands on. */
+    public int getY(int id) {
+        return y[id];
+    }
+
+    /** @return The direction the NPC faces. */
+    public int getDirection(int id) {
+        return direction[id];
+    }
+
+    /** @return The NPC's type. */
+    public int getType(int id) {
+        return type[id];
+    }
+
+    /** @return The ID of the script the NPC speaks. */
+    public int getScriptId(int id) {
+        return scriptId[id];
+    }
+
+    /** @return The place ID the NPC lives in. */
+    public int getPlace(int id) {
+        return place[id];
+    }
+
+    /**
+     * Reads the NPC placements from {@code /data/npcs.txt}. Each line reads
+     * {@code <place> <x> <y> <type> <direction> <script>}, with places
+     * {@code field}, {@code town} or {@code cave}; {@code *} for a coordinate or
+     * the direction becomes {@link #RANDOM}.
+     *
+     * @return One {@code {place, x, y, type, direction, script}} array per NPC.
+     */
+    public static List<int[]> readPlacements() {
+        List<int[]> placements = new ArrayList<>();
+        try (InputStream is = NpcStore.class.getResourceAsStream(NPCS_RESOURCE)) {
+            if (is == null) {
+                System.err.println("NPC data not found: " + NPCS_RESOURCE);
+                return placements;
+            }
+            Scanner scanner = new Scanner(is, "UTF-8");
+            int lineNumber = 0;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] f = line.split("\\s+");
+                try {
+                    if (f.length < 6) {
+                        throw new IllegalArgumentException("expected 6 columns, found " + f.length);
+                    }
+                    placements.add(new int[] { parsePlace(f[0]), parseOrRandom(f[1]), parseOrRandom(f[2]),
+                            Integer.parseInt(f[3]), parseOrRandom(f[4]), Integer.parseInt(f[5]) });
+                } catch (RuntimeException e) {
+                    System.err.println("Bad NPC on line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return placements;
+    }
+
+    private static int parsePlace(String value) {
+        switch (value) {
+            case "field":
+                return eventMapData.PLACE_FIELD;
+            case "town":
+                return eventMapData.PLACE_BLDNG;
+            case "cave":
+                return eventMapData.PLACE_CAVE;
+            default:
+                throw new IllegalArgumentException("unknown place " + value);
+        }
+    }
+
+    private static int parseOrRandom(String value) {
+        return value.equals("*") ? RANDOM : Integer.parseInt(value);
+    }
+
+    private void grow() {
+        int newCapacity = x.length * 2;
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        direction = Arrays.copyOf(direction, newCapacity);
+        type = Arrays.copyOf(type, newCapacity);
+        scriptId = Arrays.copyOf(scriptId, newCapacity);
+        place = Arrays.copyOf(place, newCapacity);
+        alive = Arrays.copyOf(alive, newCapacity);
+        indexInPlace = Arrays.copyOf(indexInPlace, newCapacity);
+        nextFree = Arrays.copyOf(nextFree, newCapacity);
+    }
+}
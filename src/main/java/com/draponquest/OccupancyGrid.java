@@ -0,0 +1,126 @@
+package com.draponquest;
+
+import java.util.Arrays;
+
+/**
+ * Records which character stands on each tile of one map, so "who is at
+ * (x, y)" and "is this tile free" are answered with a single array read instead
+ * of a scan over every character.
+ * Occupants are identified by a non-negative id, typically their
+ * {@link NpcStore} id. The grid must be told about every move through
+ * {@link #move}; it does not track the characters itself.
+ *
+ * @author Modern Migration
+ */
+public class OccupancyGrid {
+    /** Returned by {@link #get} for free tiles and positions outside the map. */
+    public static final int NONE = -1;
+
+    private final int width;
+    private final int height;
+    /** The occupant of each tile plus one, so the zero-filled array starts empty. */
+    private final int[] cells;
+
+    /**
+     * Constructs an empty grid.
+     *
+     * @param width  The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     */
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cells = new int[width * height];
+    }
+
+    /**
+     * Returns the occupant of a tile.
+     *
+     * @param x The column of the tile.
+     * @param y The row of the tile.
+     * @return The occupant's id, or {@link #NONE}.
+     */
+    public int get(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return NONE;
+        }
+        return cells[y * width + x] - 1;
+    }
+
+    /**
+     * Checks whether a tile is free.
+     *
+     * @param x The column of the tile.
+     * @param y The row of the tile.
+     * @return True if nobody stands on the tile. Positions outside the map are
+     *         never free.
+     */
+    public boolean isFree(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && cells[y * width + x] == 0;
+    }
+
+    /**
+     * Puts an occupant on a tile.
+     *
+     * @param x  The column of the tile.
+     * @param y  The row of the tile.
+     * @param id The occupant's id.
+     * @return False if the tile is outside the map or already taken.
+     */
+    public boolean place(int x, int y, int id) {
+        if (!isFree(x, y)) {
+            return false;
+        }
+        cells[y * width + x] = id + 1;
+        return true;
+    }
+
+    /**
+     * Takes the occupant off a tile.
+     *
+     * @param x The column of the tile.
+     * @param y The row of the tile.
+     */
+    public void remove(int x, int y) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            cells[y * width + x] = 0;
+        }
+    }
+
+    /**
+     * Moves an occupant from one tile to another.
+     *
+     * @param fromX The column it stands on.
+     * @param fromY The row it stands on.
+     * @param toX   The column to move to.
+     * @param toY   The row to move to.
+     * @return False, leaving the grid unchanged, if the target is taken or
+     *         outside the map or nobody stands on the source tile.
+     */
+    public boolean move(int fromX, int fromY, int toX, int toY) {
+        int id = get(fromX, fromY);
+        if (id == NONE || !isFree(toX, toY)) {
+            return false;
+        }
+        cells[fromY * width + fromX] = 0;
+        cells[toY * width + toX] = id + 1;
+        return true;
+    }
+
+    /**
+     * Removes every occupant.
+     */
+    public void clear() {
+        Arrays.fill(cells, 0);
+    }
+
+    /** @return The width of the map in tiles. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return The height of the map in tiles. */
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,174 @@
+package com.draponquest;
+
+/**
+ * Precomputed passability layers for a single tile map.
+ * Each movement class (walking, sailing, flying) owns a packed {@code long[]}
+ * bitset with one bit per tile, so a passability check is a single bit test
+ * instead of a tile lookup and comparison chain. The bits are rebuilt
+ * incrementally whenever a tile changes through {@link #updateTile}.
+ *
+ * @author Modern Migration
+ */
+public class PassabilityMap {
+    /** Movement class for the player and NPCs on foot. */
+    public static final int MOVE_WALKER = 0;
+    /** Movement class for a ship sailing on the sea. */
+    public static final int MOVE_SHIP = 1;
+    /** Movement class for the airship flying over the field. */
+    public static final int MOVE_AIRSHIP = 2;
+    /** The number of movement classes tracked per map. */
+    public static final int MOVE_CLASS_COUNT = 3;
+
+    /** Flag bit: the tile can be crossed on foot. */
+    public static final int FLAG_WALKER = 1 << MOVE_WALKER;
+    /** Flag bit: the tile can be crossed by ship. */
+    public static final int FLAG_SHIP = 1 << MOVE_SHIP;
+    /** Flag bit: the tile can be crossed by airship. */
+    public static final int FLAG_AIRSHIP = 1 << MOVE_AIRSHIP;
+
+    /** Tile ids without a definition that have already been reported. */
+    private static final java.util.Set<Integer> reportedUnknown = new java.util.HashSet<>();
+
+    /**
+     * The width of the map in tiles.
+     */
+    private final int width;
+    /**
+     * The height of the map in tiles.
+     */
+    private final int height;
+    /**
+     * One bitset per movement class; bit {@code row * width + col} is set when
+     * the tile is passable for that class.
+     */
+    private final long[][] bits;
+    /**
+     * Incremented whenever any bit may have changed, so that caches derived from
+     * this map (paths, flow fields) can detect that they are stale.
+     */
+    private int version = 0;
+
+    /**
+     * Constructs an empty passability map in which no tile is passable.
+     *
+     * @param width  The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     */
+    public PassabilityMap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[MOVE_CLASS_COUNT][(width * height + 63) >>> 6];
+    }
+
+    /**
+     * Returns the passability flags of a tile type, as defined in its
+     * {@link TileDef}. Tile ids missing from the table stay walkable, as they
+     * were before it; each is reported once.
+     *
+     * @param tile The tile type.
+     * @return A combination of the {@code FLAG_*} bits.
+     */
+    public static int flagsFor(int tile) {
+        TileDef def = TileDef.get(tile);
+        if (def.getId() < 0) {
+            reportUnknown(tile);
+        }
+        return def.getPassFlags();
+    }
+
+    private static void reportUnknown(int tile) {
+        synchronized (reportedUnknown) {
+            if (reportedUnknown.add(tile)) {
+                System.err.println("Tile id " + tile + " has no definition in the tile table; treating it as walkable");
+            }
+        }
+    }
+
+    /**
+     * Rebuilds every layer from a full tile grid.
+     *
+     * @param tiles The tile grid, indexed as {@code tiles[row][col]}.
+     */
+    public void rebuild(int[][] tiles) {
+        for (long[] layer : bits) {
+            java.util.Arrays.fill(layer, 0L);
+        }
+        version++;
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                updateTile(r, c, tiles[r][c]);
+            }
+        }
+    }
+
+    /**
+     * Updates the passability bits of a single tile after it has changed.
+     * Coordinates outside the map are ignored.
+     *
+     * @param row  The row index of the tile.
+     * @param col  The column index of the tile.
+     * @param tile The new tile type.
+     */
+    public void updateTile(int row, int col, int tile) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return;
+        }
+        int index = row * width + col;
+        int word = index >>> 6;
+        long mask = 1L << index;
+        int flags = flagsFor(tile);
+        version++;
+        for (int moveClass = 0; moveClass < MOVE_CLASS_COUNT; moveClass++) {
+            if ((flags & (1 << moveClass)) != 0) {
+                bits[moveClass][word] |= mask;
+            } else {
+                bits[moveClass][word] &= ~mask;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a tile is passable for the given movement class.
+     * Coordinates outside the map are never passable.
+     *
+     * @param moveClass One of the {@code MOVE_*} constants.
+     * @param row       The row index of the tile.
+     * @param col       The column index of the tile.
+     * @return True if the tile can be entered, false otherwise.
+     */
+    public boolean isPassable(int moveClass, int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return false;
+        }
+        int index = row * width + col;
+        return (bits[moveClass][index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the modification counter of this map. The value changes every time
+     * a tile is updated or the map is rebuilt.
+     *
+     * @return The current version of the map.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the width of the map in tiles.
+     *
+     * @return The map width.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the map in tiles.
+     *
+     * @return The map height.
+     */
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,444 @@
+package com.draponquest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Grid pathfinding service over one of the tile maps (field, town or cave).
+ * Uses jump point search when every passable tile costs the same to enter and
+ * falls back to weighted A* when terrain costs differ (forest, swamp,
+ * mountain). All search state lives in arrays sized to the map and reused
+ * across queries, so a query allocates nothing except the returned path.
+ * Recent paths are cached and dropped as soon as the underlying map changes.
+ *
+ * @author Modern Migration
+ */
+public class Pathfinder {
+    /**
+     * The maximum number of paths kept in the cache.
+     */
+    private static final int PATH_CACHE_SIZE = 64;
+
+    /** Row offsets for the four movement directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_ROW = { -1, 1, 0, 0 };
+    /** Column offsets for the four movement directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_COL = { 0, 0, -1, 1 };
+
+    /**
+     * The passability layers the search runs on.
+     */
+    private final PassabilityMap passability;
+    /**
+     * Returns the tile at (row, col), used to look up terrain costs.
+     */
+    private final IntBinaryOperator tileAt;
+    /**
+     * The movement class used for passability checks.
+     */
+    private final int moveClass;
+    private final int width;
+    private final int height;
+
+    // Reusable search state, indexed by row * width + col
+    private final int[] gScore;
+    private final int[] parent;
+    private final int[] seenStamp;
+    private final int[] closedStamp;
+    /**
+     * Binary min-heap of {@code (f << 32) | node} entries. Stale entries are
+     * skipped when popped instead of being decreased in place.
+     */
+    private long[] heap;
+    private int heapSize;
+    /**
+     * Identifies the current query in {@code seenStamp}/{@code closedStamp}, so
+     * the arrays never have to be cleared between queries.
+     */
+    private int stamp = 0;
+
+    /**
+     * Whether every passable tile costs the same, which enables jump point search.
+     */
+    private boolean uniformCost;
+    /**
+     * The passability version the cache and {@code uniformCost} were computed for.
+     */
+    private int knownVersion = -1;
+    /**
+     * Least-recently-used cache of paths keyed by {@code (start << 32) | goal}.
+     */
+    private final Map<Long, int[]> pathCache = new LinkedHashMap<Long, int[]>(PATH_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > PATH_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Constructs a pathfinder for one map.
+     *
+     * @param passability The passability layers of the map.
+     * @param tileAt      A function returning the tile at (row, col), e.g.
+     *                    {@code fieldMapData::mapDataReturnField}.
+     * @param moveClass   The movement class to search for, one of the
+     *                    {@code PassabilityMap.MOVE_*} constants.
+     */
+    public Pathfinder(PassabilityMap passability, IntBinaryOperator tileAt, int moveClass) {
+        this.passability = passability;
+        this.tileAt = tileAt;
+        this.moveClass = moveClass;
+        this.width = passability.getWidth();
+        this.height = passability.getHeight();
+        int size = width * height;
+        this.gScore = new int[size];
+        this.parent = new int[size];
+        this.seenStamp = new int[size];
+        this.closedStamp = new int[size];
+        this.heap = new long[Math.max(16, size)];
+    }
+
+    /**
+     * Returns the cost of entering a tile of the given type, as defined in its
+     * {@link TileDef}.
+     *
+     * @param tile The tile type.
+     * @return The movement cost, at least 1.
+     */
+    public static int movementCost(int tile) {
+        return Math.max(1, TileDef.get(tile).getMovementCost());
+    }
+
+    /**
+     * Finds the cheapest path between two tiles.
+     * The returned array lists packed tile indices ({@code row * width + col})
+     * from the first step after the start up to and including the goal; use
+     * {@link #rowOf} and {@link #colOf} to unpack them. The array may be shared
+     * with the path cache and must not be modified.
+     *
+     * @param startRow The row of the start tile.
+     * @param startCol The column of the start tile.
+     * @param goalRow  The row of the goal tile.
+     * @param goalCol  The column of the goal tile.
+     * @return The path, an empty array if start equals goal, or null if the goal
+     *         cannot be reached.
+     */
+    public int[] findPath(int startRow, int startCol, int goalRow, int goalCol) {
+        if (!inBounds(startRow, startCol) || !isOpen(goalRow, goalCol)) {
+            return null;
+        }
+        refreshForMapVersion();
+
+        int start = startRow * width + startCol;
+        int goal = goalRow * width + goalCol;
+        if (start == goal) {
+            return new int[0];
+        }
+        Long key = ((long) start << 32) | goal;
+        if (pathCache.containsKey(key)) {
+            return pathCache.get(key);
+        }
+
+        int[] path = uniformCost ? searchJumpPoints(start, goal) : searchWeighted(start, goal);
+        pathCache.put(key, path);
+        return path;
+    }
+
+    /**
+     * Returns the row of a packed tile index from a path.
+     *
+     * @param index The packed tile index.
+     * @return The row of the tile.
+     */
+    public int rowOf(int index) {
+        return index / width;
+    }
+
+    /**
+     * Returns the column of a packed tile index from a path.
+     *
+     * @param index The packed tile index.
+     * @return The column of the tile.
+     */
+    public int colOf(int index) {
+        return index % width;
+    }
+
+    /**
+     * Drops all cached paths. Called automatically when the map version changes.
+     */
+    public void clearCache() {
+        pathCache.clear();
+    }
+
+    /**
+     * Clears the path cache and recomputes whether the map has uniform costs if
+     * the underlying map has changed since the last query.
+     */
+    private void refreshForMapVersion() {
+        if (knownVersion == passability.getVersion()) {
+            return;
+        }
+        clearCache();
+        uniformCost = true;
+        for (int r = 0; r < height && uniformCost; r++) {
+            for (int c = 0; c < width; c++) {
+                if (isOpen(r, c) && movementCost(tileAt.applyAsInt(r, c)) != 1) {
+                    uniformCost = false;
+                    break;
+                }
+            }
+        }
+        knownVersion = passability.getVersion();
+    }
+
+    /**
+     * Weighted A* over the four movement directions.
+     */
+    private int[] searchWeighted(int start, int goal) {
+        beginQuery(start, goal);
+        int goalRow = goal / width;
+        int goalCol = goal % width;
+
+        while (heapSize > 0) {
+            int node = pollNode();
+            if (closedStamp[node] == stamp) {
+                continue; // Stale heap entry
+            }
+            if (node == goal) {
+                return buildPath(start, goal);
+            }
+            closedStamp[node] = stamp;
+            int row = node / width;
+            int col = node % width;
+            for (int dir = 0; dir < 4; dir++) {
+                int nr = row + DIR_ROW[dir];
+                int nc = col + DIR_COL[dir];
+                if (!isOpen(nr, nc)) {
+                    continue;
+                }
+                int next = nr * width + nc;
+                if (closedStamp[next] == stamp) {
+                    continue;
+                }
+                int g = gScore[node] + movementCost(tileAt.applyAsInt(nr, nc));
+                if (seenStamp[next] != stamp || g < gScore[next]) {
+                    seenStamp[next] = stamp;
+                    gScore[next] = g;
+                    parent[next] = node;
+                    pushNode(next, g + Math.abs(nr - goalRow) + Math.abs(nc - goalCol));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Jump point search for 4-connected grids where every step costs 1.
+     * Horizontal scans stop at forced neighbours; vertical scans additionally
+     * probe sideways so that every turn in an optimal path is a jump point.
+     */
+    private int[] searchJumpPoints(int start, int goal) {
+        beginQuery(start, goal);
+        int goalRow = goal / width;
+        int goalCol = goal % width;
+
+        while (heapSize > 0) {
+            int node = pollNode();
+            if (closedStamp[node] == stamp) {
+                continue;
+            }
+            if (node == goal) {
+                return buildPath(start, goal);
+            }
+            closedStamp[node] = stamp;
+            int row = node / width;
+            int col = node % width;
+
+            for (int dir = 0; dir < 4; dir++) {
+                if (!isNaturalOrForced(node, row, col, dir)) {
+                    continue;
+                }
+                int jump = jump(row + DIR_ROW[dir], col + DIR_COL[dir], DIR_ROW[dir], DIR_COL[dir], goal);
+                if (jump < 0 || closedStamp[jump] == stamp) {
+                    continue;
+                }
+                int jr = jump / width;
+                int jc = jump % width;
+                int g = gScore[node] + Math.abs(jr - row) + Math.abs(jc - col);
+                if (seenStamp[jump] != stamp || g < gScore[jump]) {
+                    seenStamp[jump] = stamp;
+                    gScore[jump] = g;
+                    parent[jump] = node;
+                    pushNode(jump, g + Math.abs(jr - goalRow) + Math.abs(jc - goalCol));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decides whether a direction should be explored from a node, pruning the
+     * direction leading back to the parent and the one the parent already covers.
+     */
+    private boolean isNaturalOrForced(int node, int row, int col, int dir) {
+        if (!isOpen(row + DIR_ROW[dir], col + DIR_COL[dir])) {
+            return false;
+        }
+        int from = parent[node];
+        if (from == node) {
+            return true; // Start node explores all directions
+        }
+        int dr = Integer.signum(row - from / width);
+        int dc = Integer.signum(col - from % width);
+        // Never step straight back towards the parent
+        return !(DIR_ROW[dir] == -dr && DIR_COL[dir] == -dc);
+    }
+
+    /**
+     * Scans from (row, col) in direction (dr, dc) until a jump point, the goal or
+     * an obstacle is found.
+     *
+     * @return The packed index of the jump point, or -1 if the scan hit a wall.
+     */
+    private int jump(int row, int col, int dr, int dc, int goal) {
+        while (isOpen(row, col)) {
+            int node = row * width + col;
+            if (node == goal) {
+                return node;
+            }
+            if (dc != 0) {
+                // Horizontal: forced neighbour when a side opens up behind a wall
+                if ((isOpen(row - 1, col) && !isOpen(row - 1, col - dc))
+                        || (isOpen(row + 1, col) && !isOpen(row + 1, col - dc))) {
+                    return node;
+                }
+            } else {
+                if ((isOpen(row, col - 1) && !isOpen(row - dr, col - 1))
+                        || (isOpen(row, col + 1) && !isOpen(row - dr, col + 1))) {
+                    return node;
+                }
+                // Vertical scans must stop where a sideways scan finds something
+                if (scanHorizontal(row, col + 1, 1, goal) || scanHorizontal(row, col - 1, -1, goal)) {
+                    return node;
+                }
+            }
+            row += dr;
+            col += dc;
+        }
+        return -1;
+    }
+
+    /**
+     * Horizontal scan used by vertical jumps. Returns true if the scan reaches a
+     * jump point or the goal.
+     */
+    private boolean scanHorizontal(int row, int col, int dc, int goal) {
+        while (isOpen(row, col)) {
+            if (row * width + col == goal) {
+                return true;
+            }
+            if ((isOpen(row - 1, col) && !isOpen(row - 1, col - dc))
+                    || (isOpen(row + 1, col) && !isOpen(row + 1, col - dc))) {
+                return true;
+            }
+            col += dc;
+        }
+        return false;
+    }
+
+    /**
+     * Resets the reusable search state for a new query and seeds the heap with
+     * the start node.
+     */
+    private void beginQuery(int start, int goal) {
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(seenStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            stamp = 1;
+        }
+        heapSize = 0;
+        seenStamp[start] = stamp;
+        gScore[start] = 0;
+        parent[start] = start;
+        int dr = Math.abs(start / width - goal / width);
+        int dc = Math.abs(start % width - goal % width);
+        pushNode(start, dr + dc);
+    }
+
+    /**
+     * Walks the parent chain back from the goal and expands the straight segments
+     * between jump points into single steps.
+     */
+    private int[] buildPath(int start, int goal) {
+        int length = 0;
+        for (int node = goal; node != start; node = parent[node]) {
+            int from = parent[node];
+            length += Math.abs(node / width - from / width) + Math.abs(node % width - from % width);
+        }
+        int[] path = new int[length];
+        int i = length - 1;
+        for (int node = goal; node != start; node = parent[node]) {
+            int from = parent[node];
+            int row = node / width;
+            int col = node % width;
+            int dr = Integer.signum(from / width - row);
+            int dc = Integer.signum(from % width - col);
+            while (row * width + col != from) {
+                path[i--] = row * width + col;
+                row += dr;
+                col += dc;
+            }
+        }
+        return path;
+    }
+
+    private boolean inBounds(int row, int col) {
+        return row >= 0 && row < height && col >= 0 && col < width;
+    }
+
+    private boolean isOpen(int row, int col) {
+        return passability.isPassable(moveClass, row, col);
+    }
+
+    private void pushNode(int node, int f) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        long entry = ((long) f << 32) | node;
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+    }
+
+    private int pollNode() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) {
+            heap[i] = last;
+        }
+        return (int) top;
+    }
+}
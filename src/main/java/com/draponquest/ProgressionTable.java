@@ -0,0 +1,189 @@
+package com.draponquest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * The player's progression: the experience each level needs, the player's
+ * stats at each level, and how strongly monsters are scaled to it. The table
+ * is read once from {@code /data/levels.txt} into arrays indexed by level, so
+ * balancing is a data edit and every lookup is an array read. Levels past the
+ * last line of the table are treated as the last level.
+ *
+ * @author Modern Migration
+ */
+public final class ProgressionTable {
+    /** The resource the table is loaded from. */
+    private static final String LEVELS_RESOURCE = "/data/levels.txt";
+
+    // The table, indexed by level; index 0 is unused
+    private static int[] xp;
+    private static int[] hp;
+    private static int[] mp;
+    private static int[] attack;
+    private static int[] defense;
+    private static int[] agility;
+    /** Monster stats at each player level, in percent of their base values. */
+    private static int[] scalePercent;
+
+    static {
+        load();
+    }
+
+    private ProgressionTable() {
+    }
+
+    /** @return The highest level in the table. */
+    public static int maxLevel() {
+        return xp.length - 1;
+    }
+
+    /**
+     * Returns the total experience needed to reach a level.
+     *
+     * @param level The level.
+     * @return The experience, or {@link Integer#MAX_VALUE} past the highest
+     *         level.
+     */
+    public static int xpFor(int level) {
+        return level > maxLevel() ? Integer.MAX_VALUE : xp[Math.max(1, level)];
+    }
+
+    /**
+     * Returns the level a total amount of experience reaches, however many
+     * levels it spans.
+     *
+     * @param experience The total experience.
+     * @return The highest level whose threshold it meets.
+     */
+    public static int levelFor(int experience) {
+        int level = 1;
+        while (level < maxLevel() && xp[level + 1] <= experience) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * @param level The player's level.
+     * @return The player's max HP at that level.
+     */
+    public static int hp(int level) {
+        return hp[clamp(level)];
+    }
+
+    /**
+     * @param level The player's level.
+     * @return The player's max MP at that level.
+     */
+    public static int mp(int level) {
+        return mp[clamp(level)];
+    }
+
+    /**
+     * @param level The player's level.
+     * @return The player's attack power at that level.
+     */
+    public static int attack(int level) {
+        return attack[clamp(level)];
+    }
+
+    /**
+     * @param level The player's level.
+     * @return The player's defense power at that level.
+     */
+    public static int defense(int level) {
+        return defense[clamp(level)];
+    }
+
+    /**
+     * @param level The player's level.
+     * @return The player's agility at that level.
+     */
+    public static int agility(int level) {
+        return agility[clamp(level)];
+    }
+
+    /**
+     * Scales a monster stat to a player level.
+     *
+     * @param stat        The monster's base stat.
+     * @param playerLevel The player's level.
+     * @return The scaled stat, rounded down.
+     */
+    public static int scale(int stat, int playerLevel) {
+        return stat * scalePercent[clamp(playerLevel)] / 100;
+    }
+
+    private static int clamp(int level) {
+        return Math.max(1, Math.min(maxLevel(), level));
+    }
+
+    private static void load() {
+        List<int[]> rows = new ArrayList<>();
+        try (InputStream is = ProgressionTable.class.getResourceAsStream(LEVELS_RESOURCE)) {
+            if (is == null) {
+                System.err.println("Level table not found: " + LEVELS_RESOURCE);
+            } else {
+                Scanner scanner = new Scanner(is, "UTF-8");
+                int lineNumber = 0;
+                while (scanner.hasNextLine()) {
+                    String line = scanner.nextLine().trim();
+                    lineNumber++;
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    try {
+                        rows.add(parse(line.split("\\s+"), rows));
+                    } catch (RuntimeException e) {
+                        System.err.println("Bad level on line " + lineNumber + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        if (rows.isEmpty()) {
+            // Without a table the player stays at level 1 against unscaled monsters
+            rows.add(new int[] { 1, 0, 40, 10, 5, 2, 4, 100 });
+        }
+
+        int size = rows.size() + 1;
+        xp = new int[size];
+        hp = new int[size];
+        mp = new int[size];
+        attack = new int[size];
+        defense = new int[size];
+        agility = new int[size];
+        scalePercent = new int[size];
+        for (int[] row : rows) {
+            int level = row[0];
+            xp[level] = row[1];
+            hp[level] = row[2];
+            mp[level] = row[3];
+            attack[level] = row[4];
+            defense[level] = row[5];
+            agility[level] = row[6];
+            scalePercent[level] = row[7];
+        }
+    }
+
+    private static int[] parse(String[] f, List<int[]> before) {
+        if (f.length < 8) {
+            throw new IllegalArgumentException("expected 8 columns, found " + f.length);
+        }
+        int[] row = new int[8];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = Integer.parseInt(f[i]);
+        }
+        if (row[0] != before.size() + 1) {
+            throw new IllegalArgumentException("expected level " + (before.size() + 1));
+        }
+        if (!before.isEmpty() && row[1] <= before.get(before.size() - 1)[1]) {
+            throw new IllegalArgumentException("experience must grow with the level");
+        }
+        return row;
+    }
+}
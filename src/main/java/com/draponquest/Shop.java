@@ -22,6 +22,7 @@ public class Shop {
         itemsForSale.add(new Item("Potion", "Restores 20 HP", "heal_20", 20));
         itemsForSale.add(new Item("Herb", "Restores 10 HP", "heal_10", 10));
         itemsForSale.add(new Item("Antidote", "Cures poison", "cure_poison", 15));
+        itemsForSale.add(new Item("Fairy Water", "Keeps monsters away for 128 steps", "repel_128", 30));
     }
 
     /**
@@ -0,0 +1,365 @@
+package com.draponquest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * The status effects on one combatant: poison, sleep, paralysis, regeneration,
+ * stat boosts and whatever else {@code /data/statuses.txt} defines. The active
+ * effects are a bitmask and each has a count of ticks left; a step on the
+ * field and a battle round are one tick each. What an effect does on a tick,
+ * whether it costs turns, how likely a monster is to inflict it and how it
+ * changes attack and defense all come from the table, indexed by effect id,
+ * so ticking runs the same loop over the set bits for every effect. New
+ * effects only need a line in the data file and their messages.
+ * <p>
+ * An instance belongs to one combatant and is not thread safe.
+ *
+ * @author Modern Migration
+ */
+public class StatusEffects {
+    // Ids of the effects the game refers to directly; they match the data file
+    /** Loses HP on the field until cured. */
+    public static final int POISON = 0;
+    /** Loses every turn for a few rounds. */
+    public static final int SLEEP = 1;
+    /** Loses turns at random for a few rounds. */
+    public static final int PARALYSIS = 2;
+    /** Regains HP on the field and in battle for a while. */
+    public static final int REGEN = 3;
+    /** Raises attack power for the rest of a battle. */
+    public static final int ATTACK_UP = 4;
+    /** Raises defense power for the rest of a battle. */
+    public static final int DEFENSE_UP = 5;
+
+    /** The resource the effect table is loaded from. */
+    private static final String STATUSES_RESOURCE = "/data/statuses.txt";
+    /** The most effects the bitmask can hold. */
+    private static final int MAX_EFFECTS = Integer.SIZE;
+
+    // The effect table, indexed by effect id
+    private static String[] keys = new String[0];
+    private static int[] ticks = new int[0];
+    private static int[] stepHP = new int[0];
+    private static int[] roundHP = new int[0];
+    private static double[] skipChance = new double[0];
+    private static double[] inflictChance = new double[0];
+    private static int[] attackPercent = new int[0];
+    private static int[] defensePercent = new int[0];
+    /** Effects that wear off when a battle ends. */
+    private static int battleOnly;
+    /** Effects that may cost a turn. */
+    private static int skipping;
+    /** Effects that change attack or defense. */
+    private static int boosting;
+
+    static {
+        load();
+    }
+
+    /** The active effects, one bit per effect id. */
+    private int mask;
+    /** Ticks left per effect id; 0 for effects that last until cured. */
+    private final short[] left = new short[keys.length];
+    /** The effects that wore off on the last tick. */
+    private int expired;
+
+    /**
+     * Returns the id of an effect.
+     *
+     * @param key The effect's key, as in the data file.
+     * @return The effect id, or -1 if there is no such effect.
+     */
+    public static int idOf(String key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** @return The number of effects in the table. */
+    public static int count() {
+        return keys.length;
+    }
+
+    /**
+     * @param effect An effect id.
+     * @return The effect's key, as in the data file.
+     */
+    public static String keyOf(int effect) {
+        return keys[effect];
+    }
+
+    /**
+     * Returns the message for something that happened to an effect.
+     *
+     * @param effect An effect id.
+     * @param event  "on", "skip" or "off".
+     * @return The localized message part, without an end marker.
+     */
+    public static String text(int effect, String event) {
+        return LocalizationManager.getText("status_" + keys[effect] + "_" + event);
+    }
+
+    /** @return True if any effect is active. */
+    public boolean isActive() {
+        return mask != 0;
+    }
+
+    /**
+     * @param effect An effect id.
+     * @return True if the effect is active.
+     */
+    public boolean has(int effect) {
+        return (mask & (1 << effect)) != 0;
+    }
+
+    /** @return The active effects, one bit per effect id. */
+    public int getMask() {
+        return mask;
+    }
+
+    /** @return The effects that wore off on the last tick, one bit per effect id. */
+    public int getExpired() {
+        return expired;
+    }
+
+    /**
+     * Starts an effect, or restarts its count if it is already active.
+     *
+     * @param effect An effect id.
+     * @return True if the effect was not active before.
+     */
+    public boolean add(int effect) {
+        boolean gained = !has(effect);
+        mask |= 1 << effect;
+        left[effect] = (short) ticks[effect];
+        return gained;
+    }
+
+    /**
+     * Ends an effect.
+     *
+     * @param effect An effect id.
+     * @return True if the effect was active.
+     */
+    public boolean remove(int effect) {
+        boolean had = has(effect);
+        mask &= ~(1 << effect);
+        return had;
+    }
+
+    /**
+     * Ends every effect.
+     */
+    public void clear() {
+        mask = 0;
+        expired = 0;
+    }
+
+    /**
+     * Ends the effects that only last for a battle.
+     */
+    public void endBattle() {
+        mask &= ~battleOnly;
+    }
+
+    /**
+     * Makes these effects the same as another combatant's.
+     *
+     * @param other The effects to copy.
+     */
+    public void copyFrom(StatusEffects other) {
+        mask = other.mask;
+        expired = other.expired;
+        System.arraycopy(other.left, 0, left, 0, left.length);
+    }
+
+    /**
+     * Applies one step on the field: every active effect's HP change, and the
+     * end of those whose time is up (see {@link #getExpired()}).
+     *
+     * @return The HP gained, or lost if negative.
+     */
+    public int tickStep() {
+        return tick(stepHP);
+    }
+
+    /**
+     * Applies the end of a battle round, like {@link #tickStep()}.
+     *
+     * @return The HP gained, or lost if negative.
+     */
+    public int tickRound() {
+        return tick(roundHP);
+    }
+
+    private int tick(int[] hpPerTick) {
+        int hp = 0;
+        expired = 0;
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            int effect = Integer.numberOfTrailingZeros(bits);
+            hp += hpPerTick[effect];
+            if (left[effect] > 0 && --left[effect] == 0) {
+                expired |= 1 << effect;
+            }
+        }
+        mask &= ~expired;
+        return hp;
+    }
+
+    /**
+     * Rolls whether an effect costs the combatant its turn.
+     *
+     * @param random The random source.
+     * @return The id of the effect that costs the turn, or -1 if the combatant
+     *         can act.
+     */
+    public int rollSkip(Random random) {
+        for (int bits = mask & skipping; bits != 0; bits &= bits - 1) {
+            int effect = Integer.numberOfTrailingZeros(bits);
+            if (skipChance[effect] >= 1 || random.nextDouble() < skipChance[effect]) {
+                return effect;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rolls the effects a monster's hit inflicts, for each effect the monster
+     * can inflict that is not already active, and starts them.
+     *
+     * @param inflicts The effects the monster can inflict, one bit per effect
+     *                 id.
+     * @param random   The random source.
+     * @return The effects started, one bit per effect id.
+     */
+    public int rollInflict(int inflicts, Random random) {
+        int gained = 0;
+        for (int bits = inflicts & ~mask; bits != 0; bits &= bits - 1) {
+            int effect = Integer.numberOfTrailingZeros(bits);
+            if (random.nextDouble() < inflictChance[effect]) {
+                add(effect);
+                gained |= 1 << effect;
+            }
+        }
+        return gained;
+    }
+
+    /**
+     * @param attack The combatant's attack power.
+     * @return The attack power with the active boosts.
+     */
+    public int attack(int attack) {
+        return boost(attack, attackPercent);
+    }
+
+    /**
+     * @param defense The combatant's defense power.
+     * @return The defense power with the active boosts.
+     */
+    public int defense(int defense) {
+        return boost(defense, defensePercent);
+    }
+
+    private int boost(int stat, int[] percent) {
+        int bits = mask & boosting;
+        if (bits == 0) {
+            return stat;
+        }
+        int total = 100;
+        for (; bits != 0; bits &= bits - 1) {
+            total += percent[Integer.numberOfTrailingZeros(bits)];
+        }
+        return stat * total / 100;
+    }
+
+    private static void load() {
+        List<String[]> rows = new ArrayList<>();
+        try (InputStream is = StatusEffects.class.getResourceAsStream(STATUSES_RESOURCE)) {
+            if (is == null) {
+                System.err.println("Status effects not found: " + STATUSES_RESOURCE);
+                return;
+            }
+            Scanner scanner = new Scanner(is, "UTF-8");
+            int lineNumber = 0;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    rows.add(check(line.split("\\s+"), rows.size()));
+                } catch (RuntimeException e) {
+                    System.err.println("Bad status effect on line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        int count = rows.size();
+        keys = new String[count];
+        ticks = new int[count];
+        stepHP = new int[count];
+        roundHP = new int[count];
+        skipChance = new double[count];
+        inflictChance = new double[count];
+        attackPercent = new int[count];
+        defensePercent = new int[count];
+        for (int i = 0; i < count; i++) {
+            String[] f = rows.get(i);
+            keys[i] = f[1];
+            ticks[i] = f[2].equals("-") ? 0 : Integer.parseInt(f[2]);
+            if (f[3].equals("battle")) {
+                battleOnly |= 1 << i;
+            }
+            stepHP[i] = Integer.parseInt(f[4]);
+            roundHP[i] = Integer.parseInt(f[5]);
+            skipChance[i] = Double.parseDouble(f[6]);
+            inflictChance[i] = Double.parseDouble(f[7]);
+            attackPercent[i] = Integer.parseInt(f[8]);
+            defensePercent[i] = Integer.parseInt(f[9]);
+            if (skipChance[i] > 0) {
+                skipping |= 1 << i;
+            }
+            if (attackPercent[i] != 0 || defensePercent[i] != 0) {
+                boosting |= 1 << i;
+            }
+        }
+    }
+
+    /**
+     * Checks that a line of the data file can be parsed.
+     *
+     * @param f  The columns of the line.
+     * @param id The id the line must have.
+     * @return The columns.
+     */
+    private static String[] check(String[] f, int id) {
+        if (f.length < 10) {
+            throw new IllegalArgumentException("expected 10 columns, found " + f.length);
+        }
+        if (Integer.parseInt(f[0]) != id || id == MAX_EFFECTS) {
+            throw new IllegalArgumentException("expected id " + id + " and at most " + MAX_EFFECTS + " effects");
+        }
+        if (!f[2].equals("-")) {
+            int t = Integer.parseInt(f[2]);
+            if (t <= 0 || t > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("ticks out of range: " + t);
+            }
+        }
+        for (int column : new int[] { 4, 5, 8, 9 }) {
+            Integer.parseInt(f[column]);
+        }
+        Double.parseDouble(f[6]);
+        Double.parseDouble(f[7]);
+        return f;
+    }
+}
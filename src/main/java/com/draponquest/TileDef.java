@@ -0,0 +1,260 @@
+package com.draponquest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Shared definition of a tile type: how it is drawn, who can cross it and what
+ * happens when it is entered.
+ * One instance exists per tile id, loaded from {@code /data/tiles.txt}, and
+ * looked up with {@link #get(int)} by array index. New tile types only need a
+ * line in the data file.
+ *
+ * @author Modern Migration
+ */
+public class TileDef {
+    /** Enter action: nothing happens. */
+    public static final int ENTER_NONE = 0;
+    /** Enter action: enter a town or castle from the field. */
+    public static final int ENTER_TOWN = 1;
+    /** Enter action: enter the cave dungeon from the field. */
+    public static final int ENTER_CAVE = 2;
+    /** Enter action: open the shop. */
+    public static final int ENTER_SHOP = 3;
+    /** Enter action: stay at the inn. */
+    public static final int ENTER_INN = 4;
+    /** Enter action: go down to the next dungeon floor. */
+    public static final int ENTER_STAIRS = 5;
+
+    /** The resource the tile table is loaded from. */
+    private static final String TILES_RESOURCE = "/data/tiles.txt";
+
+    /**
+     * Used for tile ids without a definition: walkable, as every tile but sea
+     * and walls always was, and drawn black.
+     */
+    private static final TileDef UNKNOWN = new TileDef(-1, "Unknown", null, 0xFF000000, 0xFF000000,
+            PassabilityMap.FLAG_WALKER, 0.0, 1, 1, null, ENTER_NONE);
+
+    /** The definitions indexed by tile id; gaps hold {@link #UNKNOWN}. */
+    private static final TileDef[] DEFS = load();
+
+    private final int id;
+    private final String name;
+    private final String sprite;
+    private final int fallbackArgb;
+    private final int minimapArgb;
+    private final int passFlags;
+    private final double encounterRate;
+    private final int encounterSteps;
+    private final int movementCost;
+    private final String music;
+    private final int enterAction;
+
+    private TileDef(int id, String name, String sprite, int fallbackArgb, int minimapArgb, int passFlags,
+            double encounterRate, int encounterSteps, int movementCost, String music, int enterAction) {
+        this.id = id;
+        this.name = name;
+        this.sprite = sprite;
+        this.fallbackArgb = fallbackArgb;
+        this.minimapArgb = minimapArgb;
+        this.passFlags = passFlags;
+        this.encounterRate = encounterRate;
+        this.encounterSteps = encounterSteps;
+        this.movementCost = movementCost;
+        this.music = music;
+        this.enterAction = enterAction;
+    }
+
+    /**
+     * Returns the definition of a tile id.
+     *
+     * @param tile The tile id.
+     * @return The tile's definition; a walkable black tile with id -1 if the id
+     *         is not defined.
+     */
+    public static TileDef get(int tile) {
+        if (tile < 0 || tile >= DEFS.length) {
+            return UNKNOWN;
+        }
+        return DEFS[tile];
+    }
+
+    /**
+     * Returns the number of tile ids covered by the table.
+     *
+     * @return One more than the highest defined tile id.
+     */
+    public static int count() {
+        return DEFS.length;
+    }
+
+    private static TileDef[] load() {
+        List<TileDef> defs = new ArrayList<>();
+        try (InputStream is = TileDef.class.getResourceAsStream(TILES_RESOURCE)) {
+            if (is == null) {
+                System.err.println("Tile definitions not found: " + TILES_RESOURCE);
+                return new TileDef[0];
+            }
+            Scanner scanner = new Scanner(is, "UTF-8");
+            int lineNumber = 0;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    defs.add(parse(line.split("\\s+")));
+                } catch (RuntimeException e) {
+                    System.err.println("Bad tile definition on line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        int size = 0;
+        for (TileDef def : defs) {
+            size = Math.max(size, def.id + 1);
+        }
+        TileDef[] table = new TileDef[size];
+        java.util.Arrays.fill(table, UNKNOWN);
+        for (TileDef def : defs) {
+            table[def.id] = def;
+        }
+        return table;
+    }
+
+    private static TileDef parse(String[] f) {
+        if (f.length < 11) {
+            throw new IllegalArgumentException("expected 11 columns, found " + f.length);
+        }
+        int passFlags = 0;
+        if (!f[5].equals("-")) {
+            for (String mover : f[5].split(",")) {
+                switch (mover) {
+                    case "walker":
+                        passFlags |= PassabilityMap.FLAG_WALKER;
+                        break;
+                    case "ship":
+                        passFlags |= PassabilityMap.FLAG_SHIP;
+                        break;
+                    case "airship":
+                        passFlags |= PassabilityMap.FLAG_AIRSHIP;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown mover " + mover);
+                }
+            }
+        }
+        int id = Integer.parseInt(f[0]);
+        if (id < 0) {
+            throw new IllegalArgumentException("negative tile id " + id);
+        }
+        return new TileDef(id, f[1], orNull(f[2]), parseColor(f[3]), parseColor(f[4]), passFlags,
+                Double.parseDouble(f[6]), Integer.parseInt(f[7]), Integer.parseInt(f[8]), orNull(f[9]),
+                parseEnterAction(f[10]));
+    }
+
+    private static String orNull(String value) {
+        return value.equals("-") ? null : value;
+    }
+
+    private static int parseColor(String value) {
+        if (!value.startsWith("#") || (value.length() != 7 && value.length() != 9)) {
+            throw new IllegalArgumentException("bad colour " + value);
+        }
+        long rgb = Long.parseLong(value.substring(1), 16);
+        return value.length() == 7 ? (int) (0xFF000000L | rgb) : (int) rgb;
+    }
+
+    private static int parseEnterAction(String value) {
+        switch (value) {
+            case "-":
+                return ENTER_NONE;
+            case "town":
+                return ENTER_TOWN;
+            case "cave":
+                return ENTER_CAVE;
+            case "shop":
+                return ENTER_SHOP;
+            case "inn":
+                return ENTER_INN;
+            case "stairs":
+                return ENTER_STAIRS;
+            default:
+                throw new IllegalArgumentException("unknown enter action " + value);
+        }
+    }
+
+    /** @return The tile id. */
+    public int getId() {
+        return id;
+    }
+
+    /** @return The display name of the tile. */
+    public String getName() {
+        return name;
+    }
+
+    /** @return The image file under {@code /images/}, or null to use the fallback colour. */
+    public String getSprite() {
+        return sprite;
+    }
+
+    /** @return The colour drawn when the sprite is missing, as ARGB. */
+    public int getFallbackArgb() {
+        return fallbackArgb;
+    }
+
+    /** @return The minimap colour, as ARGB. */
+    public int getMinimapArgb() {
+        return minimapArgb;
+    }
+
+    /** @return A combination of the {@code PassabilityMap.FLAG_*} bits. */
+    public int getPassFlags() {
+        return passFlags;
+    }
+
+    /** @return The chance of a random battle per step onto this tile. */
+    public double getEncounterRate() {
+        return encounterRate;
+    }
+
+    /**
+     * @return How many steps toward the next random battle a step onto this
+     *         tile counts as.
+     */
+    public int getEncounterSteps() {
+        return encounterSteps;
+    }
+
+    /** @return The pathfinding cost of entering this tile. */
+    public int getMovementCost() {
+        return movementCost;
+    }
+
+    /** @return The music track started when the tile is entered, or null. */
+    public String getMusic() {
+        return music;
+    }
+
+    /** @return One of the {@code ENTER_*} constants. */
+    public int getEnterAction() {
+        return enterAction;
+    }
+
+    /**
+     * Checks whether stepping onto this tile from the field leads into a town,
+     * castle or cave.
+     *
+     * @return True for area entrances.
+     */
+    public boolean isAreaEntrance() {
+        return enterAction == ENTER_TOWN || enterAction == ENTER_CAVE;
+    }
+}
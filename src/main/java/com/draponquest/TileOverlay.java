@@ -0,0 +1,219 @@
+package com.draponquest;
+
+import java.util.Arrays;
+
+/**
+ * A sparse layer of changed tiles on top of an unchanging base map.
+ * Tiles changed during play (an opened chest, for example) are written here
+ * instead of into the base grid, so the base can be shared or regenerated and a
+ * save only needs the few changed tiles.
+ * Changed tiles are kept in an open-addressing hash table keyed by packed
+ * index ({@code row * width + col}). Each 8x8 chunk of the map also has a
+ * 64-bit mask with one bit per tile, so looking up an unchanged tile costs a
+ * single bit test and never touches the hash table.
+ *
+ * @author Modern Migration
+ */
+public class TileOverlay {
+    /** Chunks are {@code 1 << CHUNK_SHIFT} tiles on a side, 64 tiles in all. */
+    private static final int CHUNK_SHIFT = 3;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    /** Marks an unused slot in {@link #keys}. */
+    private static final int EMPTY = -1;
+
+    private final int width;
+    private final int height;
+    private final int chunksWide;
+    /** One bit per tile, set if the tile has been changed. */
+    private final long[] chunkMasks;
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructs an empty overlay.
+     *
+     * @param width  The width of the base map in tiles.
+     * @param height The height of the base map in tiles.
+     */
+    public TileOverlay(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.chunksWide = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunksHigh = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunkMasks = new long[chunksWide * chunksHigh];
+        this.keys = new int[16];
+        this.values = new int[16];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Returns the tile at a position, taking changes into account.
+     *
+     * @param row      The row index of the tile.
+     * @param col      The column index of the tile.
+     * @param baseTile The tile of the base map at that position.
+     * @return The changed tile, or {@code baseTile} if it was never changed.
+     */
+    public int get(int row, int col, int baseTile) {
+        if (size == 0 || row < 0 || row >= height || col < 0 || col >= width
+                || (chunkMasks[chunkOf(row, col)] & bitOf(row, col)) == 0) {
+            return baseTile;
+        }
+        return values[find(row * width + col)];
+    }
+
+    /**
+     * Checks whether a tile has been changed.
+     *
+     * @param row The row index of the tile.
+     * @param col The column index of the tile.
+     * @return True if the overlay holds a tile for this position.
+     */
+    public boolean contains(int row, int col) {
+        return row >= 0 && row < height && col >= 0 && col < width
+                && (chunkMasks[chunkOf(row, col)] & bitOf(row, col)) != 0;
+    }
+
+    /**
+     * Changes a tile. Positions outside the map are ignored.
+     *
+     * @param row  The row index of the tile.
+     * @param col  The column index of the tile.
+     * @param tile The new tile.
+     */
+    public void set(int row, int col, int tile) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return;
+        }
+        int key = row * width + col;
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                slot = find(key);
+            }
+            keys[slot] = key;
+            size++;
+            chunkMasks[chunkOf(row, col)] |= bitOf(row, col);
+        }
+        values[slot] = tile;
+    }
+
+    /**
+     * Returns the number of changed tiles.
+     *
+     * @return The number of tiles held by the overlay.
+     */
+    public int size() {
+        return size;
+    }
+
+    /** @return The width of the base map in tiles. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return The height of the base map in tiles. */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Writes every changed tile into a passability map built from the base map.
+     *
+     * @param passability The passability layers to update.
+     */
+    public void applyTo(PassabilityMap passability) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                passability.updateTile(keys[slot] / width, keys[slot] % width, values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Encodes the changed tiles as space separated {@code index:tile} pairs,
+     * sorted by index.
+     *
+     * @return The encoded tiles; empty if nothing changed.
+     */
+    public String serialize() {
+        long[] entries = new long[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                entries[count++] = ((long) keys[slot] << 32) | (values[slot] & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(entries);
+        StringBuilder sb = new StringBuilder();
+        for (long entry : entries) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append((int) (entry >>> 32)).append(':').append((int) entry);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Adds tiles encoded by {@link #serialize()} to this overlay. Malformed
+     * pairs and positions outside the map are skipped.
+     *
+     * @param encoded The encoded tiles.
+     */
+    public void deserialize(String encoded) {
+        for (String pair : encoded.trim().split("\\s+")) {
+            int colon = pair.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            try {
+                int index = Integer.parseInt(pair.substring(0, colon));
+                int tile = Integer.parseInt(pair.substring(colon + 1));
+                if (index >= 0 && index < width * height) {
+                    set(index / width, index % width, tile);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Skipping bad overlay tile: " + pair);
+            }
+        }
+    }
+
+    private int chunkOf(int row, int col) {
+        return (row >> CHUNK_SHIFT) * chunksWide + (col >> CHUNK_SHIFT);
+    }
+
+    private static long bitOf(int row, int col) {
+        return 1L << (((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK));
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go.
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
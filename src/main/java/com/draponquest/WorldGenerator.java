@@ -0,0 +1,716 @@
+package com.draponquest;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Seeded overworld generator.
+ * Builds a field map from a seed: a noise heightmap shaped into an island,
+ * biomes from height and moisture, sandy coastlines, rivers with bridges, and
+ * the named castles, towns and caves placed on the largest walkable landmass.
+ * The heavy passes run in parallel over fixed-size regions with fork/join. The
+ * region grid does not depend on the number of threads, every tile is computed
+ * from the seed alone, and per-region results are merged in region order, so
+ * the output is bit-identical no matter how many threads run it.
+ *
+ * @author Modern Migration
+ */
+public class WorldGenerator {
+    /** Side length in tiles of the regions work is split into. */
+    public static final int REGION_SIZE = 32;
+    /** Distance from the map edge that stays clear of towns, castles and caves. */
+    public static final int EDGE_MARGIN = 9;
+
+    /** Heights below this are sea. */
+    private static final float SEA_LEVEL = 0.42f;
+    /** Heights above this are mountains. */
+    private static final float MOUNTAIN_LEVEL = 0.72f;
+    /** Heights above this can be the source of a river. */
+    private static final float RIVER_SOURCE_LEVEL = 0.62f;
+    /** The wavelength in tiles of the coarsest noise octave. */
+    private static final float BASE_WAVELENGTH = 32f;
+    /** The number of noise octaves summed into the heightmap. */
+    private static final int OCTAVES = 5;
+    /** The number of river steps between two bridges. */
+    private static final int BRIDGE_SPACING = 12;
+
+    /** Names given to generated castles, in placement order. */
+    private static final String[] CASTLE_NAMES = { "Tantegel Castle", "Charlock Castle" };
+    /** Names given to generated towns, in placement order. */
+    private static final String[] TOWN_NAMES = { "Brecconary", "Garinham", "Kol", "Rimuldar", "Domdora",
+            "Cantlin" };
+    /** Names given to generated caves, in placement order. */
+    private static final String[] CAVE_NAMES = { "Erdrick's Cave", "Staff of Rain Shrine", "Holy Shrine" };
+
+    /** Row offsets for the four directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_ROW = { -1, 1, 0, 0 };
+    /** Column offsets for the four directions (0=Up, 1=Down, 2=Left, 3=Right). */
+    private static final int[] DIR_COL = { 0, 0, -1, 1 };
+
+    private final long seed;
+    private final int width;
+    private final int height;
+    private final int regionCols;
+    private final int regionRows;
+
+    /**
+     * The result of a world generation run.
+     */
+    public static class World {
+        private final int[][] tiles;
+        private final Map<Point, String> castleNames = new LinkedHashMap<>();
+        private final Map<Point, String> townNames = new LinkedHashMap<>();
+        private final Map<Point, String> caveNames = new LinkedHashMap<>();
+        private Point start;
+
+        World(int[][] tiles) {
+            this.tiles = tiles;
+        }
+
+        /** @return The tile grid, indexed as {@code tiles[row][col]}. */
+        public int[][] getTiles() {
+            return tiles;
+        }
+
+        /** @return Castle names by position ({@code x} = column, {@code y} = row). */
+        public Map<Point, String> getCastleNames() {
+            return castleNames;
+        }
+
+        /** @return Town names by position ({@code x} = column, {@code y} = row). */
+        public Map<Point, String> getTownNames() {
+            return townNames;
+        }
+
+        /** @return Cave names by position ({@code x} = column, {@code y} = row). */
+        public Map<Point, String> getCaveNames() {
+            return caveNames;
+        }
+
+        /**
+         * @return The tile the player starts on ({@code x} = column, {@code y} =
+         *         row), next to the first castle; null if no castle was placed.
+         */
+        public Point getStart() {
+            return start;
+        }
+    }
+
+    /**
+     * Constructs a world generator.
+     *
+     * @param seed   The world seed.
+     * @param width  The width of the world in tiles.
+     * @param height The height of the world in tiles.
+     */
+    public WorldGenerator(long seed, int width, int height) {
+        if (width < 2 * EDGE_MARGIN + 1 || height < 2 * EDGE_MARGIN + 1) {
+            throw new IllegalArgumentException("World size too small: " + width + "x" + height);
+        }
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.regionCols = (width + REGION_SIZE - 1) / REGION_SIZE;
+        this.regionRows = (height + REGION_SIZE - 1) / REGION_SIZE;
+    }
+
+    /**
+     * Generates the world on the common fork/join pool.
+     *
+     * @return The generated world.
+     */
+    public World generate() {
+        return generate(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generates the world on the given pool.
+     *
+     * @param pool The pool to run the parallel passes on.
+     * @return The generated world.
+     */
+    public World generate(ForkJoinPool pool) {
+        float[] heights = new float[width * height];
+        int[][] tiles = new int[height][width];
+
+        // 1. Heightmap, every tile independent
+        pool.invoke(new RegionTask(0, regionCols * regionRows,
+                (r0, c0, r1, c1) -> fillHeights(heights, r0, c0, r1, c1)));
+
+        // 2. Biomes and coastline sand, reading the finished heightmap
+        pool.invoke(new RegionTask(0, regionCols * regionRows, (r0, c0, r1, c1) -> {
+            for (int r = r0; r < r1; r++) {
+                for (int c = c0; c < c1; c++) {
+                    tiles[r][c] = classify(heights, r, c);
+                }
+            }
+        }));
+
+        // 3. Rivers: one traced per region in parallel, carved in region order
+        int[][] rivers = new int[regionCols * regionRows][];
+        pool.invoke(new RegionTask(0, regionCols * regionRows, (r0, c0, r1, c1) -> {
+            int region = (r0 / REGION_SIZE) * regionCols + c0 / REGION_SIZE;
+            rivers[region] = traceRiver(heights, r0, c0, r1, c1);
+        }));
+        for (int[] river : rivers) {
+            if (river != null) {
+                for (int node : river) {
+                    tiles[node / width][node % width] = fieldMapData.TILE_SEA;
+                }
+            }
+        }
+        for (int[] river : rivers) {
+            if (river != null) {
+                placeBridges(tiles, river);
+            }
+        }
+
+        // 4. Towns, castles and caves on the largest landmass
+        World world = new World(tiles);
+        placeLocations(pool, world);
+        return world;
+    }
+
+    /**
+     * Fills the heights of one region: fractal noise pulled down towards the map
+     * edges so the world is surrounded by sea. The noise lattice values of each
+     * octave are computed once for the region and shared by all of its tiles.
+     */
+    private void fillHeights(float[] heights, int r0, int c0, int r1, int c1) {
+        int rows = r1 - r0;
+        int cols = c1 - c0;
+        float[] sum = new float[rows * cols];
+        int[] x0 = new int[cols];
+        float[] tx = new float[cols];
+        float amplitude = 1f;
+        float total = 0f;
+        float wavelength = BASE_WAVELENGTH;
+        for (int octave = 0; octave < OCTAVES; octave++) {
+            long salt = seed ^ (octave * 0x9E3779B97F4A7C15L);
+            int latticeY0 = (int) Math.floor(r0 / wavelength);
+            int latticeX0 = (int) Math.floor(c0 / wavelength);
+            int latticeRows = (int) Math.floor((r1 - 1) / wavelength) - latticeY0 + 2;
+            int latticeCols = (int) Math.floor((c1 - 1) / wavelength) - latticeX0 + 2;
+            float[] lattice = new float[latticeRows * latticeCols];
+            for (int ly = 0; ly < latticeRows; ly++) {
+                for (int lx = 0; lx < latticeCols; lx++) {
+                    lattice[ly * latticeCols + lx] = lattice(salt, latticeY0 + ly, latticeX0 + lx);
+                }
+            }
+            for (int c = 0; c < cols; c++) {
+                float x = (c0 + c) / wavelength;
+                int floorX = (int) Math.floor(x);
+                x0[c] = floorX - latticeX0;
+                tx[c] = smooth(x - floorX);
+            }
+            for (int r = 0; r < rows; r++) {
+                float y = (r0 + r) / wavelength;
+                int floorY = (int) Math.floor(y);
+                float ty = smooth(y - floorY);
+                int top = (floorY - latticeY0) * latticeCols;
+                int bottom = top + latticeCols;
+                for (int c = 0; c < cols; c++) {
+                    int x = x0[c];
+                    float upper = lattice[top + x] + (lattice[top + x + 1] - lattice[top + x]) * tx[c];
+                    float lower = lattice[bottom + x] + (lattice[bottom + x + 1] - lattice[bottom + x]) * tx[c];
+                    sum[r * cols + c] += amplitude * (upper + (lower - upper) * ty);
+                }
+            }
+            total += amplitude;
+            amplitude *= 0.5f;
+            wavelength *= 0.5f;
+        }
+
+        for (int r = 0; r < rows; r++) {
+            float dy = (2f * (r0 + r) / (height - 1)) - 1f;
+            for (int c = 0; c < cols; c++) {
+                float dx = (2f * (c0 + c) / (width - 1)) - 1f;
+                float edge = Math.max(Math.abs(dx), Math.abs(dy));
+                float falloff = edge * edge * edge;
+                float noise = sum[r * cols + c] / total;
+                heights[(r0 + r) * width + c0 + c] = noise * (1f - 0.75f * falloff) + 0.25f * (1f - falloff) - 0.1f;
+            }
+        }
+    }
+
+    /**
+     * Picks the tile type for a position from its height and moisture. Moisture
+     * only matters inland, so it is computed there alone.
+     */
+    private int classify(float[] heights, int r, int c) {
+        float h = heights[r * width + c];
+        if (h < SEA_LEVEL || r == 0 || c == 0 || r == height - 1 || c == width - 1) {
+            return fieldMapData.TILE_SEA;
+        }
+        for (int dir = 0; dir < 4; dir++) {
+            int nr = r + DIR_ROW[dir];
+            int nc = c + DIR_COL[dir];
+            if (heights[nr * width + nc] < SEA_LEVEL) {
+                return fieldMapData.TILE_SAND; // Coastline
+            }
+        }
+        if (h > MOUNTAIN_LEVEL) {
+            return fieldMapData.TILE_MOUNTAIN;
+        }
+        float m = fractalNoise(r, c, 0x5DEECE66DL, 3);
+        if (m > 0.64f && h < 0.5f) {
+            return fieldMapData.TILE_SWAMP;
+        }
+        if (m > 0.58f) {
+            return fieldMapData.TILE_FOREST;
+        }
+        if (m < 0.42f) {
+            return fieldMapData.TILE_STEPPE;
+        }
+        return fieldMapData.TILE_PLAINS;
+    }
+
+    /**
+     * Traces a river downhill from the highest eligible tile of a region until it
+     * reaches the sea. The path always moves to the lowest neighbour it has not
+     * visited, so it can climb out of small hollows.
+     *
+     * @return The packed tile indices of the river, or null if the region has no
+     *         river.
+     */
+    private int[] traceRiver(float[] heights, int r0, int c0, int r1, int c1) {
+        // Only some regions get a river, decided by the seed
+        if ((hash(seed ^ 0x2545F4914F6CDD1DL, r0, c0) & 3) != 0) {
+            return null;
+        }
+        int source = -1;
+        float best = RIVER_SOURCE_LEVEL;
+        for (int r = Math.max(r0, 1); r < Math.min(r1, height - 1); r++) {
+            for (int c = Math.max(c0, 1); c < Math.min(c1, width - 1); c++) {
+                if (heights[r * width + c] > best) {
+                    best = heights[r * width + c];
+                    source = r * width + c;
+                }
+            }
+        }
+        if (source < 0) {
+            return null;
+        }
+
+        int maxLength = 4 * REGION_SIZE;
+        int[] path = new int[maxLength];
+        int length = 0;
+        int node = source;
+        while (length < maxLength) {
+            path[length++] = node;
+            if (heights[node] < SEA_LEVEL) {
+                return Arrays.copyOf(path, length);
+            }
+            int r = node / width;
+            int c = node % width;
+            int next = -1;
+            float lowest = Float.MAX_VALUE;
+            for (int dir = 0; dir < 4; dir++) {
+                int nr = r + DIR_ROW[dir];
+                int nc = c + DIR_COL[dir];
+                if (nr < 0 || nr >= height || nc < 0 || nc >= width) {
+                    continue;
+                }
+                int candidate = nr * width + nc;
+                if (heights[candidate] < lowest && !contains(path, length, candidate)) {
+                    lowest = heights[candidate];
+                    next = candidate;
+                }
+            }
+            if (next < 0) {
+                return null; // Boxed in
+            }
+            node = next;
+        }
+        return null; // Never reached the sea
+    }
+
+    private static boolean contains(int[] path, int length, int node) {
+        // Rivers rarely double back far, so search from the newest step
+        for (int i = length - 1; i >= 0; i--) {
+            if (path[i] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Places bridges along a river wherever it is crossed straight between two
+     * land tiles, at most one every {@link #BRIDGE_SPACING} steps.
+     */
+    private void placeBridges(int[][] tiles, int[] river) {
+        int sinceBridge = BRIDGE_SPACING / 2;
+        for (int node : river) {
+            sinceBridge++;
+            int r = node / width;
+            int c = node % width;
+            if (sinceBridge < BRIDGE_SPACING || tiles[r][c] != fieldMapData.TILE_SEA) {
+                continue;
+            }
+            boolean landLeftRight = isLand(tiles, r, c - 1) && isLand(tiles, r, c + 1);
+            boolean landUpDown = isLand(tiles, r - 1, c) && isLand(tiles, r + 1, c);
+            if (landLeftRight != landUpDown) {
+                tiles[r][c] = fieldMapData.TILE_BRIDGE;
+                sinceBridge = 0;
+            }
+        }
+    }
+
+    private boolean isLand(int[][] tiles, int r, int c) {
+        if (r < 0 || r >= height || c < 0 || c >= width) {
+            return false;
+        }
+        return (PassabilityMap.flagsFor(tiles[r][c]) & PassabilityMap.FLAG_WALKER) != 0;
+    }
+
+    /**
+     * Places the named castles, towns and caves. Each region proposes one site of
+     * each kind on the largest walkable landmass; the proposals are then taken in
+     * a fixed order, keeping sites apart from each other.
+     */
+    private void placeLocations(ForkJoinPool pool, World world) {
+        int[][] tiles = world.getTiles();
+        boolean[] mainland = largestLandmass(tiles);
+
+        int regionCount = regionCols * regionRows;
+        int[] townSites = new int[regionCount];
+        int[] caveSites = new int[regionCount];
+        pool.invoke(new RegionTask(0, regionCount, (r0, c0, r1, c1) -> {
+            int region = (r0 / REGION_SIZE) * regionCols + c0 / REGION_SIZE;
+            long bestTown = Long.MAX_VALUE;
+            long bestCave = Long.MAX_VALUE;
+            townSites[region] = -1;
+            caveSites[region] = -1;
+            for (int r = Math.max(r0, EDGE_MARGIN); r < Math.min(r1, height - EDGE_MARGIN); r++) {
+                for (int c = Math.max(c0, EDGE_MARGIN); c < Math.min(c1, width - EDGE_MARGIN); c++) {
+                    int node = r * width + c;
+                    int tile = tiles[r][c];
+                    if (!mainland[node] || tile == fieldMapData.TILE_BRIDGE) {
+                        continue;
+                    }
+                    long score = hash(seed ^ 0x6A09E667F3BCC909L, r, c) >>> 2;
+                    if ((tile == fieldMapData.TILE_PLAINS || tile == fieldMapData.TILE_STEPPE) && score < bestTown) {
+                        bestTown = score;
+                        townSites[region] = node;
+                    }
+                    // Caves prefer the foot of a mountain but can go anywhere on land
+                    long caveScore = nextToMountain(tiles, r, c) ? score : score | (1L << 62);
+                    if (tile != fieldMapData.TILE_MOUNTAIN && caveScore < bestCave) {
+                        bestCave = caveScore;
+                        caveSites[region] = node;
+                    }
+                }
+            }
+        }));
+
+        // Keep sites apart in proportion to the size of the landmass they share
+        int mainlandSize = 0;
+        for (boolean land : mainland) {
+            if (land) {
+                mainlandSize++;
+            }
+        }
+        int spacing = Math.max(8, (int) Math.sqrt(mainlandSize) / 6);
+        List<Integer> taken = new ArrayList<>();
+        // The first castle goes to the town site closest to the middle of the map
+        int centerR = height / 2;
+        int centerC = width / 2;
+        Integer[] byCenter = new Integer[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            byCenter[i] = i;
+        }
+        Arrays.sort(byCenter, (a, b) -> {
+            int da = distanceTo(townSites[a], centerR, centerC);
+            int db = distanceTo(townSites[b], centerR, centerC);
+            return da != db ? Integer.compare(da, db) : Integer.compare(a, b);
+        });
+        int[] townOrder = new int[regionCount];
+        int[] caveOrder = new int[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            townOrder[i] = townSites[byCenter[i]];
+            caveOrder[i] = caveSites[regionCount - 1 - i];
+        }
+
+        List<Integer> settlements = pickSites(townOrder, taken, spacing, CASTLE_NAMES.length + TOWN_NAMES.length);
+        for (int i = 0; i < settlements.size(); i++) {
+            int site = settlements.get(i);
+            Point p = new Point(site % width, site / width);
+            if (i == 0) {
+                tiles[p.y][p.x] = fieldMapData.TILE_CASTLE;
+                world.castleNames.put(p, CASTLE_NAMES[0]);
+                world.start = findStart(tiles, mainland, p);
+            } else if (i <= TOWN_NAMES.length) {
+                tiles[p.y][p.x] = fieldMapData.TILE_TOWN;
+                world.townNames.put(p, TOWN_NAMES[i - 1]);
+            } else {
+                // Sites left once every town is placed become the remaining castles
+                tiles[p.y][p.x] = fieldMapData.TILE_CASTLE;
+                world.castleNames.put(p, CASTLE_NAMES[i - TOWN_NAMES.length]);
+            }
+        }
+        List<Integer> caves = pickSites(caveOrder, taken, spacing, CAVE_NAMES.length);
+        for (int i = 0; i < caves.size(); i++) {
+            Point p = new Point(caves.get(i) % width, caves.get(i) / width);
+            tiles[p.y][p.x] = fieldMapData.TILE_CAVE;
+            world.caveNames.put(p, CAVE_NAMES[i]);
+        }
+    }
+
+    /**
+     * Takes sites in the given order, skipping any closer than {@code spacing}
+     * to a site already taken. If too few fit, the spacing is halved and the
+     * remaining sites are tried again.
+     *
+     * @return The chosen sites, also appended to {@code taken}.
+     */
+    private List<Integer> pickSites(int[] order, List<Integer> taken, int spacing, int count) {
+        List<Integer> chosen = new ArrayList<>();
+        for (int minDistance = spacing; minDistance >= 1 && chosen.size() < count; minDistance /= 2) {
+            for (int site : order) {
+                if (chosen.size() == count) {
+                    break;
+                }
+                if (site >= 0 && farFrom(taken, site, minDistance)) {
+                    chosen.add(site);
+                    taken.add(site);
+                }
+            }
+        }
+        return chosen;
+    }
+
+    private int distanceTo(int site, int r, int c) {
+        if (site < 0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.abs(site / width - r) + Math.abs(site % width - c);
+    }
+
+    private boolean farFrom(List<Integer> taken, int site, int spacing) {
+        for (int other : taken) {
+            if (distanceTo(other, site / width, site % width) < spacing) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean nextToMountain(int[][] tiles, int r, int c) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (tiles[r + DIR_ROW[dir]][c + DIR_COL[dir]] == fieldMapData.TILE_MOUNTAIN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the nearest ordinary walkable tile to the first castle for the
+     * player to start on, searching outwards in rings.
+     */
+    private Point findStart(int[][] tiles, boolean[] mainland, Point castle) {
+        for (int d = 1; d < Math.max(width, height); d++) {
+            for (int dr = -d; dr <= d; dr++) {
+                for (int dc = -d; dc <= d; dc++) {
+                    if (Math.max(Math.abs(dr), Math.abs(dc)) != d) {
+                        continue;
+                    }
+                    int r = castle.y + dr;
+                    int c = castle.x + dc;
+                    if (r >= EDGE_MARGIN - 1 && r <= height - EDGE_MARGIN && c >= EDGE_MARGIN - 1
+                            && c <= width - EDGE_MARGIN && mainland[r * width + c]
+                            && tiles[r][c] != fieldMapData.TILE_BRIDGE) {
+                        return new Point(c, r);
+                    }
+                }
+            }
+        }
+        return castle;
+    }
+
+    /**
+     * Labels the walkable tiles connected to each other and returns a mask of
+     * the largest such landmass. Runs a breadth-first search per landmass, in
+     * row-major order.
+     */
+    private boolean[] largestLandmass(int[][] tiles) {
+        int[] label = new int[width * height];
+        int[] queue = new int[width * height];
+        int bestLabel = 0;
+        int bestSize = 0;
+        int next = 0;
+        for (int start = 0; start < width * height; start++) {
+            if (label[start] != 0 || !isLand(tiles, start / width, start % width)) {
+                continue;
+            }
+            next++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            label[start] = next;
+            while (head < tail) {
+                int node = queue[head++];
+                int r = node / width;
+                int c = node % width;
+                for (int dir = 0; dir < 4; dir++) {
+                    int nr = r + DIR_ROW[dir];
+                    int nc = c + DIR_COL[dir];
+                    if (isLand(tiles, nr, nc) && label[nr * width + nc] == 0) {
+                        label[nr * width + nc] = next;
+                        queue[tail++] = nr * width + nc;
+                    }
+                }
+            }
+            if (tail > bestSize) {
+                bestSize = tail;
+                bestLabel = next;
+            }
+        }
+        boolean[] mask = new boolean[width * height];
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = label[i] == bestLabel && bestLabel != 0;
+        }
+        return mask;
+    }
+
+    /**
+     * Sums octaves of value noise into a value between 0 and 1.
+     */
+    private float fractalNoise(int r, int c, long salt, int octaves) {
+        float sum = 0f;
+        float amplitude = 1f;
+        float total = 0f;
+        float wavelength = BASE_WAVELENGTH;
+        for (int octave = 0; octave < octaves; octave++) {
+            sum += amplitude * valueNoise(r / wavelength, c / wavelength, seed ^ salt ^ (octave * 0x9E3779B97F4A7C15L));
+            total += amplitude;
+            amplitude *= 0.5f;
+            wavelength *= 0.5f;
+        }
+        return sum / total;
+    }
+
+    /**
+     * Smoothly interpolated noise between random values on an integer lattice.
+     */
+    private static float valueNoise(float y, float x, long salt) {
+        int y0 = (int) Math.floor(y);
+        int x0 = (int) Math.floor(x);
+        float ty = smooth(y - y0);
+        float tx = smooth(x - x0);
+        float v00 = lattice(salt, y0, x0);
+        float v01 = lattice(salt, y0, x0 + 1);
+        float v10 = lattice(salt, y0 + 1, x0);
+        float v11 = lattice(salt, y0 + 1, x0 + 1);
+        float top = v00 + (v01 - v00) * tx;
+        float bottom = v10 + (v11 - v10) * tx;
+        return top + (bottom - top) * ty;
+    }
+
+    private static float smooth(float t) {
+        return t * t * (3f - 2f * t);
+    }
+
+    private static float lattice(long salt, int y, int x) {
+        return (hash(salt, y, x) >>> 40) / (float) (1 << 24);
+    }
+
+    /**
+     * Mixes a salt and a coordinate pair into 64 well-distributed bits.
+     */
+    private static long hash(long salt, int y, int x) {
+        long h = salt + 0x9E3779B97F4A7C15L * (((long) y << 32) ^ (x & 0xFFFFFFFFL));
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Work done on one rectangle of the map: rows {@code r0} to {@code r1} and
+     * columns {@code c0} to {@code c1}, end exclusive.
+     */
+    private interface RegionWork {
+        void run(int r0, int c0, int r1, int c1);
+    }
+
+    /**
+     * Runs a piece of work over a range of regions, splitting the range in half
+     * until a single region is left.
+     */
+    private class RegionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final RegionWork work;
+
+        RegionTask(int from, int to, RegionWork work) {
+            this.from = from;
+            this.to = to;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RegionTask(from, mid, work), new RegionTask(mid, to, work));
+                return;
+            }
+            int r0 = (from / regionCols) * REGION_SIZE;
+            int c0 = (from % regionCols) * REGION_SIZE;
+            work.run(r0, c0, Math.min(r0 + REGION_SIZE, height), Math.min(c0 + REGION_SIZE, width));
+        }
+    }
+
+    /**
+     * Generates a world and writes it in the format of
+     * {@code alefgard_data.txt}.
+     * Usage: {@code WorldGenerator <seed> [size] [output file]}
+     *
+     * @param args The seed, optionally followed by the world size and an output
+     *             file.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: WorldGenerator <seed> [size] [output file]");
+            return;
+        }
+        long seed = Long.parseLong(args[0]);
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : fieldMapData.FIELD_MAP_WIDTH;
+        long start = System.nanoTime();
+        World world = new WorldGenerator(seed, size, size).generate();
+        System.out.printf("Generated %dx%d world in %.1f ms%n", size, size, (System.nanoTime() - start) / 1e6);
+        System.out.println("Castles: " + world.getCastleNames().values());
+        System.out.println("Towns: " + world.getTownNames().values());
+        System.out.println("Caves: " + world.getCaveNames().values());
+        if (args.length > 2) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[2])))) {
+                for (int[] row : world.getTiles()) {
+                    StringBuilder line = new StringBuilder();
+                    for (int c = 0; c < row.length; c++) {
+                        if (c > 0) {
+                            line.append(' ');
+                        }
+                        line.append(row[c]);
+                    }
+                    out.println(line);
+                }
+                System.out.println("Map data written to " + args[2]);
+            } catch (IOException e) {
+                System.err.println("Could not write map: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.draponquest;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * The event layer: triggers placed on map tiles that run game logic when the
+ * player steps onto, bumps into or checks a tile.
+ * Triggers are kept in a sparse open-addressing index keyed by place, kind and
+ * position, so each step costs one hash probe however many triggers a map
+ * carries. Triggers come from two sources: authored ones in
+ * {@code /data/events.txt}, and ones derived from the enter action of tiles
+ * (see {@link TileDef#getEnterAction()}). Each trigger names an action, which
+ * is dispatched to the {@link Handler} registered for it.
+ *
+ * @author Modern Migration
+ */
+public class eventMapData {
+    /** Fires when the player steps onto the tile. */
+    public static final int ON_ENTER = 0;
+    /** Fires when the player walks into the tile but cannot enter it. */
+    public static final int ON_FACE = 1;
+    /** Fires when the player uses the check command on the tile. */
+    public static final int ON_CHECK = 2;
+
+    /** Place ID of the overworld field, as used by {@link DraponQuestFX}. */
+    public static final int PLACE_FIELD = 0;
+    /** Place ID of towns and castles, as used by {@link DraponQuestFX}. */
+    public static final int PLACE_BLDNG = 1;
+    /** Place ID of the cave dungeon, as used by {@link DraponQuestFX}. */
+    public static final int PLACE_CAVE = 2;
+
+    /** Direction requirement meaning the trigger fires whichever way the player moves. */
+    public static final int ANY_DIRECTION = -1;
+
+    /** Action run when entering a town, castle or cave from the field. */
+    public static final String ACTION_AREA = "area";
+    /** Action run when stepping onto a shop counter. */
+    public static final String ACTION_SHOP = "shop";
+    /** Action run when stepping onto an inn counter. */
+    public static final String ACTION_INN = "inn";
+    /** Action run when stepping onto the stairs down. */
+    public static final String ACTION_STAIRS = "stairs";
+    /** Action run when leaving a town or cave floor. */
+    public static final String ACTION_EXIT = "exit";
+    /** Action that shows the trigger's argument as a message. */
+    public static final String ACTION_MESSAGE = "message";
+
+    /** The resource authored triggers are loaded from. */
+    private static final String EVENTS_RESOURCE = "/data/events.txt";
+    /** Marks an unused slot in {@link #keys}. */
+    private static final long EMPTY = -1L;
+
+    /**
+     * Runs the game logic of a trigger.
+     */
+    public interface Handler {
+        /**
+         * Runs a trigger.
+         *
+         * @param trigger The trigger that fired.
+         * @return True if the rest of the player's step should be skipped.
+         */
+        boolean run(Trigger trigger);
+    }
+
+    /**
+     * A trigger placed on one tile.
+     */
+    public static class Trigger {
+        private final int place;
+        private final int x;
+        private final int y;
+        private final int kind;
+        private final int direction;
+        private final String action;
+        private final String argument;
+        /** Whether the trigger was derived from the tile rather than authored. */
+        private final boolean derived;
+
+        /**
+         * Constructs a trigger.
+         *
+         * @param place     The place ID of the map the trigger is on.
+         * @param x         The column of the tile.
+         * @param y         The row of the tile.
+         * @param kind      One of {@link #ON_ENTER}, {@link #ON_FACE} or
+         *                  {@link #ON_CHECK}.
+         * @param direction The direction the player must be moving or facing
+         *                  (0=up, 1=down, 2=left, 3=right), or
+         *                  {@link #ANY_DIRECTION}.
+         * @param action    The name of the action to run.
+         * @param argument  Extra text for the action, or null.
+         */
+        public Trigger(int place, int x, int y, int kind, int direction, String action, String argument) {
+            this(place, x, y, kind, direction, action, argument, false);
+        }
+
+        private Trigger(int place, int x, int y, int kind, int direction, String action, String argument,
+                boolean derived) {
+            this.place = place;
+            this.x = x;
+            this.y = y;
+            this.kind = kind;
+            this.direction = direction;
+            this.action = action;
+            this.argument = argument;
+            this.derived = derived;
+        }
+
+        /** @return The place ID of the map the trigger is on. */
+        public int getPlace() {
+            return place;
+        }
+
+        /** @return The column of the tile. */
+        public int getX() {
+            return x;
+        }
+
+        /** @return The row of the tile. */
+        public int getY() {
+            return y;
+        }
+
+        /** @return The trigger kind. */
+        public int getKind() {
+            return kind;
+        }
+
+        /** @return The direction requirement, or {@link #ANY_DIRECTION}. */
+        public int getDirection() {
+            return direction;
+        }
+
+        /** @return The name of the action to run. */
+        public String getAction() {
+            return action;
+        }
+
+        /** @return Extra text for the action, or null. */
+        public String getArgument() {
+            return argument;
+        }
+    }
+
+    /** Handlers by action name. */
+    private static Map<String, Handler> handlers = new HashMap<>();
+    /** Packed keys of the index (see {@link #key}); {@link #EMPTY} for unused slots. */
+    private static long[] keys = newKeys(64);
+    /** The trigger in each used slot. */
+    private static Trigger[] triggers = new Trigger[64];
+    private static int size = 0;
+
+    /**
+     * Registers the handler that runs an action, replacing any earlier one.
+     *
+     * @param action  The action name.
+     * @param handler The handler.
+     */
+    public static void register(String action, Handler handler) {
+        handlers.put(action, handler);
+    }
+
+    /**
+     * Adds a trigger, replacing any trigger of the same kind on the same tile.
+     *
+     * @param trigger The trigger to add.
+     */
+    public static void add(Trigger trigger) {
+        if (trigger.x < 0 || trigger.y < 0) {
+            return;
+        }
+        long key = key(trigger.place, trigger.kind, trigger.x, trigger.y);
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                slot = find(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        triggers[slot] = trigger;
+    }
+
+    /**
+     * Returns the trigger of a kind on a tile.
+     *
+     * @param place The place ID.
+     * @param kind  The trigger kind.
+     * @param x     The column of the tile.
+     * @param y     The row of the tile.
+     * @return The trigger, or null if there is none.
+     */
+    public static Trigger find(int place, int kind, int x, int y) {
+        if (x < 0 || y < 0) {
+            return null;
+        }
+        int slot = find(key(place, kind, x, y));
+        return keys[slot] == EMPTY ? null : triggers[slot];
+    }
+
+    /**
+     * Runs the trigger of a kind on a tile, if there is one and the player's
+     * direction matches.
+     *
+     * @param place     The place ID.
+     * @param kind      The trigger kind.
+     * @param x         The column of the tile.
+     * @param y         The row of the tile.
+     * @param direction The direction the player is moving or facing.
+     * @return True if a handler ran and asked for the rest of the step to be
+     *         skipped.
+     */
+    public static boolean fire(int place, int kind, int x, int y, int direction) {
+        Trigger trigger = find(place, kind, x, y);
+        if (trigger == null || (trigger.direction != ANY_DIRECTION && trigger.direction != direction)) {
+            return false;
+        }
+        Handler handler = handlers.get(trigger.action);
+        if (handler == null) {
+            System.out.println("No handler for event action: " + trigger.action);
+            return false;
+        }
+        return handler.run(trigger);
+    }
+
+    /**
+     * Removes every trigger on a place, as when a new cave floor replaces the
+     * previous one.
+     *
+     * @param place The place ID.
+     */
+    public static void clearPlace(int place) {
+        long[] oldKeys = keys;
+        Trigger[] oldTriggers = triggers;
+        keys = newKeys(oldKeys.length);
+        triggers = new Trigger[oldTriggers.length];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldTriggers[i].place != place) {
+                add(oldTriggers[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds an {@link #ON_ENTER} trigger for every tile of a map whose tile type
+     * has an enter action.
+     *
+     * @param place  The place ID of the map.
+     * @param width  The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     * @param tileAt Returns the tile at a row and column.
+     */
+    public static void indexTiles(int place, int width, int height, IntBinaryOperator tileAt) {
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                indexTile(place, col, row, tileAt.applyAsInt(row, col));
+            }
+        }
+    }
+
+    /**
+     * Updates the trigger derived from one tile after the tile changed.
+     * Authored triggers on the tile are left alone.
+     *
+     * @param place The place ID of the map.
+     * @param x     The column of the tile.
+     * @param y     The row of the tile.
+     * @param tile  The tile now at that position.
+     */
+    public static void indexTile(int place, int x, int y, int tile) {
+        Trigger existing = find(place, ON_ENTER, x, y);
+        if (existing != null && !existing.derived) {
+            return;
+        }
+        String action = actionFor(TileDef.get(tile).getEnterAction());
+        if (action != null) {
+            add(new Trigger(place, x, y, ON_ENTER, ANY_DIRECTION, action, null, true));
+        } else if (existing != null) {
+            remove(key(place, ON_ENTER, x, y));
+        }
+    }
+
+    /**
+     * Returns the number of triggers in the index.
+     *
+     * @return The number of triggers.
+     */
+    public static int size() {
+        return size;
+    }
+
+    /**
+     * Loads the authored triggers. Each line of the data file reads
+     * {@code <place> <x> <y> <kind> <direction> <action> [argument...]}, with
+     * places {@code field}, {@code town} or {@code cave}, kinds {@code enter},
+     * {@code face} or {@code check}, and directions {@code up}, {@code down},
+     * {@code left}, {@code right} or {@code *}.
+     */
+    public static void load() {
+        try (InputStream is = eventMapData.class.getResourceAsStream(EVENTS_RESOURCE)) {
+            if (is == null) {
+                System.err.println("Event data not found: " + EVENTS_RESOURCE);
+                return;
+            }
+            Scanner scanner = new Scanner(is, "UTF-8");
+            int lineNumber = 0;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    add(parse(line.split("\\s+", 7)));
+                } catch (RuntimeException e) {
+                    System.err.println("Bad event on line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Trigger parse(String[] f) {
+        if (f.length < 6) {
+            throw new IllegalArgumentException("expected place, x, y, kind, direction and action");
+        }
+        int place = indexOf(f[0], "field", "town", "cave");
+        int kind = indexOf(f[3], "enter", "face", "check");
+        int direction = f[4].equals("*") ? ANY_DIRECTION : indexOf(f[4], "up", "down", "left", "right");
+        return new Trigger(place, Integer.parseInt(f[1]), Integer.parseInt(f[2]), kind, direction, f[5],
+                f.length > 6 ? f[6] : null);
+    }
+
+    private static int indexOf(String value, String... names) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(value)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("unknown value " + value);
+    }
+
+    private static String actionFor(int enterAction) {
+        switch (enterAction) {
+            case TileDef.ENTER_TOWN:
+            case TileDef.ENTER_CAVE:
+                return ACTION_AREA;
+            case TileDef.ENTER_SHOP:
+                return ACTION_SHOP;
+            case TileDef.ENTER_INN:
+                return ACTION_INN;
+            case TileDef.ENTER_STAIRS:
+                return ACTION_STAIRS;
+            default:
+                return null;
+        }
+    }
+
+    /** Packs place, kind and position into one non-negative key. */
+    private static long key(int place, int kind, int x, int y) {
+        return ((long) place << 48) | ((long) kind << 40) | ((long) y << 20) | x;
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] array = new long[capacity];
+        Arrays.fill(array, EMPTY);
+        return array;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go.
+     */
+    private static int find(long key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int slotOf(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    /**
+     * Removes a key, shifting later entries of its probe run back so lookups
+     * never stop early at the freed slot.
+     */
+    private static void remove(long key) {
+        int mask = keys.length - 1;
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            return;
+        }
+        keys[slot] = EMPTY;
+        triggers[slot] = null;
+        size--;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            long movedKey = keys[next];
+            Trigger moved = triggers[next];
+            keys[next] = EMPTY;
+            triggers[next] = null;
+            int target = find(movedKey);
+            keys[target] = movedKey;
+            triggers[target] = moved;
+            next = (next + 1) & mask;
+        }
+    }
+
+    private static void grow() {
+        long[] oldKeys = keys;
+        Trigger[] oldTriggers = triggers;
+        keys = newKeys(oldKeys.length * 2);
+        triggers = new Trigger[oldTriggers.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                triggers[slot] = oldTriggers[i];
+            }
+        }
+    }
+}
@@ -1,13 +1,10 @@
 package com.draponquest;
 
 import java.awt.Point;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Stack;
 
 /**
  * Provides field map data and utility methods for DraponQuest.
@@ -28,7 +25,7 @@ public class fieldMapData {
      * 0 = sea, 1 = sand, 2 = steppe, 3 = forest, 4 = shop, 5 = plains, 6 =
      * mountain,
      * 7 = town, 8 = castle, 9 = bridge, 10 = swamp, 11 = wall, 12 = floor, 13 =
-     * cave, 14 = chest.
+     * cave, 14 = chest, 15 = house, 16 = inn, 17 = stairs.
      */
     private static int[][] mapDataField = new int[FIELD_MAP_WIDTH][FIELD_MAP_WIDTH];
 
@@ -66,6 +63,8 @@ public class fieldMapData {
     public static final int TILE_HOUSE = 15;
     /** Constant for Inn tile. */
     public static final int TILE_INN = 16;
+    /** Constant for Stairs tile (leads down to the next cave floor). */
+    public static final int TILE_STAIRS = 17;
 
     /**
      * The 2D array representing the town map layout (16x16 tiles).
@@ -73,10 +72,53 @@ public class fieldMapData {
     private static int[][] mapDataTown = new int[16][16];
 
     /**
-     * The 2D array representing the cave map layout (16x16 tiles).
+     * The 2D array representing the layout of the current cave floor. The first
+     * floor is 16x16 tiles; deeper floors are larger.
      */
     private static int[][] mapDataCave = new int[16][16];
     public static int[] caveChestLocation;
+    /** The cave floor currently shown, or null before the cave is initialized. */
+    private static DungeonFloor caveFloor;
+    /**
+     * Tiles changed during play on each cave floor, by floor number. Floors
+     * themselves are never modified, so they can be evicted and regenerated.
+     */
+    private static Map<Integer, TileOverlay> caveOverlays = new HashMap<>();
+    /** The changed tiles of the current cave floor. */
+    private static TileOverlay caveOverlay = new TileOverlay(16, 16);
+
+    /** Precomputed passability layers for the overworld field map. */
+    private static PassabilityMap fieldPassability = new PassabilityMap(FIELD_MAP_WIDTH, FIELD_MAP_WIDTH);
+    /** Precomputed passability layers for the town map. */
+    private static PassabilityMap townPassability = new PassabilityMap(16, 16);
+    /** Precomputed passability layers for the current cave floor. */
+    private static PassabilityMap cavePassability = new PassabilityMap(16, 16);
+
+    /** The side length in field tiles of one encounter zone cell. */
+    public static final int ZONE_CELL_SIZE = 8;
+    /** The number of encounter zone cells along each side of the field. */
+    public static final int ZONE_GRID_WIDTH = FIELD_MAP_WIDTH / ZONE_CELL_SIZE;
+    /** The line in {@code alefgard_data.txt} that starts the zone grid. */
+    private static final String ZONES_SECTION = "zones";
+    /** The number of zones used when zones are derived from the start position. */
+    private static final int DEFAULT_ZONE_COUNT = 4;
+    /**
+     * The encounter zone of each zone cell, indexed by
+     * {@code cellRow * ZONE_GRID_WIDTH + cellCol}.
+     */
+    private static byte[] encounterZones = new byte[ZONE_GRID_WIDTH * ZONE_GRID_WIDTH];
+
+    /**
+     * System property holding a world seed. When set, the field map is generated
+     * by {@link WorldGenerator} instead of being loaded from
+     * {@code alefgard_data.txt}.
+     */
+    public static final String WORLD_SEED_PROPERTY = "draponquest.worldSeed";
+
+    /** The row the player starts on in the field map (in front of Tantegel). */
+    private static int startRow = 56;
+    /** The column the player starts on in the field map (in front of Tantegel). */
+    private static int startCol = 48;
 
     // Maps for storing names of towns, castles, and caves
     private static Map<Point, String> townNames = new HashMap<>();
@@ -126,7 +168,7 @@ public class fieldMapData {
         if (row < 0 || row >= mapDataCave.length || col < 0 || col >= mapDataCave[0].length) {
             return TILE_WALL; // Return wall for out of bounds
         }
-        return mapDataCave[row][col];
+        return caveOverlay.get(row, col, mapDataCave[row][col]);
     }
 
     /**
@@ -139,7 +181,23 @@ public class fieldMapData {
     }
 
     /**
-     * Sets the tile value at the specified row and column in the cave map.
+     * Sets the tile value at the specified row and column in the field map and
+     * updates its passability bits.
+     * 
+     * @param row  The row index of the tile to set.
+     * @param col  The column index of the tile to set.
+     * @param tile The new tile value to set.
+     */
+    public static void setFieldTile(int row, int col, int tile) {
+        if (row >= 0 && row < mapDataField.length && col >= 0 && col < FIELD_MAP_WIDTH) {
+            mapDataField[row][col] = tile;
+            fieldPassability.updateTile(row, col, tile);
+        }
+    }
+
+    /**
+     * Changes a tile on the current cave floor. The change is recorded in the
+     * floor's overlay, so it survives the floor being evicted and regenerated.
      * 
      * @param row  The row index of the tile to set.
      * @param col  The column index of the tile to set.
@@ -147,10 +205,110 @@ public class fieldMapData {
      */
     public static void setCaveTile(int row, int col, int tile) {
         if (row >= 0 && row < mapDataCave.length && col >= 0 && col < mapDataCave[0].length) {
-            mapDataCave[row][col] = tile;
+            caveOverlay.set(row, col, tile);
+            cavePassability.updateTile(row, col, tile);
+        }
+    }
+
+    /**
+     * Makes the given floor the current cave map. The floor's tile grid is used
+     * as the base, with the tiles changed on that floor drawn over it.
+     *
+     * @param floor The floor to show.
+     */
+    public static void setCaveFloor(DungeonFloor floor) {
+        caveFloor = floor;
+        mapDataCave = floor.getTiles();
+        cavePassability = floor.getPassability();
+        caveOverlay = caveOverlays.computeIfAbsent(floor.getNumber(),
+                number -> new TileOverlay(floor.getWidth(), floor.getHeight()));
+        caveOverlay.applyTo(cavePassability);
+        caveChestLocation = new int[] { floor.getChestRow(), floor.getChestCol() };
+    }
+
+    /**
+     * Forgets every tile changed during play, as for a new game. Cave floors
+     * already shown keep the changes in their passability layers until they are
+     * regenerated.
+     */
+    public static void clearOverlays() {
+        caveOverlays.clear();
+        caveOverlay = new TileOverlay(mapDataCave[0].length, mapDataCave.length);
+    }
+
+    /**
+     * Encodes the tiles changed during play for a save file, one line per cave
+     * floor with changes: {@code cave <floor> <index>:<tile> ...}.
+     *
+     * @return The encoded lines, each ending in a newline.
+     */
+    public static String saveOverlays() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Integer, TileOverlay> entry : new java.util.TreeMap<>(caveOverlays).entrySet()) {
+            if (entry.getValue().size() > 0) {
+                sb.append("cave ").append(entry.getKey()).append(' ').append(entry.getValue().serialize())
+                        .append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Restores one line written by {@link #saveOverlays()}. Lines of other
+     * kinds are ignored. The floor sizes come from {@link DungeonFloor#floorSize}.
+     *
+     * @param line The saved line.
+     */
+    public static void loadOverlay(String line) {
+        String[] parts = line.trim().split("\\s+", 3);
+        if (parts.length < 3 || !parts[0].equals("cave")) {
+            return;
+        }
+        try {
+            int number = Integer.parseInt(parts[1]);
+            int size = DungeonFloor.floorSize(number);
+            caveOverlays.computeIfAbsent(number, n -> new TileOverlay(size, size)).deserialize(parts[2]);
+        } catch (NumberFormatException e) {
+            System.err.println("Skipping bad overlay line: " + line);
         }
     }
 
+    /**
+     * Returns the cave floor currently shown.
+     *
+     * @return The current cave floor.
+     */
+    public static DungeonFloor getCaveFloor() {
+        return caveFloor;
+    }
+
+    /**
+     * Returns the precomputed passability layers of the overworld field map.
+     *
+     * @return The field map's passability layers.
+     */
+    public static PassabilityMap getFieldPassability() {
+        return fieldPassability;
+    }
+
+    /**
+     * Returns the precomputed passability layers of the town map.
+     *
+     * @return The town map's passability layers.
+     */
+    public static PassabilityMap getTownPassability() {
+        return townPassability;
+    }
+
+    /**
+     * Returns the precomputed passability layers of the cave map.
+     *
+     * @return The cave map's passability layers.
+     */
+    public static PassabilityMap getCavePassability() {
+        return cavePassability;
+    }
+
     /**
      * Initializes the entire game world map data. This method populates the
      * overworld,
@@ -160,6 +318,33 @@ public class fieldMapData {
      * layout.
      */
     public static void initialize() {
+        String worldSeed = System.getProperty(WORLD_SEED_PROPERTY);
+        boolean generated = false;
+        if (worldSeed != null) {
+            try {
+                generateField(Long.parseLong(worldSeed.trim()));
+                generated = true;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid world seed, loading the default map: " + worldSeed);
+            }
+        }
+        if (!generated) {
+            loadField();
+        }
+        if (generated || !loadZones()) {
+            deriveZones();
+        }
+        fieldPassability.rebuild(mapDataField);
+
+        initializeTown();
+        initializeCave();
+    }
+
+    /**
+     * Loads the overworld field map from {@code alefgard_data.txt}. If the file
+     * is missing, the field is filled with sea.
+     */
+    private static void loadField() {
         try {
             java.io.InputStream is = fieldMapData.class.getResourceAsStream("/alefgard_data.txt");
             if (is == null) {
@@ -172,29 +357,157 @@ public class fieldMapData {
                 }
                 return;
             }
-            java.util.Scanner scanner = new java.util.Scanner(is);
+            int[][] parsed = parseField(is);
             for (int r = 0; r < FIELD_MAP_WIDTH; r++) {
-                if (scanner.hasNextLine()) {
-                    String line = scanner.nextLine();
-                    String[] tokens = line.trim().split("\\s+");
-                    for (int c = 0; c < FIELD_MAP_WIDTH; c++) {
-                        if (c < tokens.length) {
+                System.arraycopy(parsed[r], 0, mapDataField[r], 0, FIELD_MAP_WIDTH);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Parses field map data in the format of {@code alefgard_data.txt}: one row
+     * per line, tile ids separated by whitespace. Missing or malformed tiles
+     * become {@link #TILE_SEA}. The stream is closed afterwards.
+     *
+     * @param is The stream to read from.
+     * @return A new {@code FIELD_MAP_WIDTH} square tile grid.
+     */
+    public static int[][] parseField(java.io.InputStream is) {
+        int[][] grid = new int[FIELD_MAP_WIDTH][FIELD_MAP_WIDTH];
+        java.util.Scanner scanner = new java.util.Scanner(is);
+        for (int r = 0; r < FIELD_MAP_WIDTH; r++) {
+            if (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                String[] tokens = line.trim().split("\\s+");
+                for (int c = 0; c < FIELD_MAP_WIDTH; c++) {
+                    if (c < tokens.length) {
+                        try {
+                            grid[r][c] = Integer.parseInt(tokens[c]);
+                        } catch (NumberFormatException e) {
+                            grid[r][c] = TILE_SEA; // Default on error
+                        }
+                    }
+                }
+            }
+        }
+        scanner.close();
+        return grid;
+    }
+
+    /**
+     * Reads the encounter zone grid from the {@code zones} section that follows
+     * the tile rows in {@code alefgard_data.txt}: {@link #ZONE_GRID_WIDTH} lines
+     * of {@link #ZONE_GRID_WIDTH} zone ids, one per {@link #ZONE_CELL_SIZE}
+     * square block of field tiles.
+     *
+     * @return True if the grid was read, false if the file has no zone section.
+     */
+    private static boolean loadZones() {
+        try (java.io.InputStream is = fieldMapData.class.getResourceAsStream("/alefgard_data.txt")) {
+            if (is == null) {
+                return false;
+            }
+            java.util.Scanner scanner = new java.util.Scanner(is);
+            while (scanner.hasNextLine()) {
+                if (scanner.nextLine().trim().equals(ZONES_SECTION)) {
+                    byte[] zones = new byte[ZONE_GRID_WIDTH * ZONE_GRID_WIDTH];
+                    for (int r = 0; r < ZONE_GRID_WIDTH && scanner.hasNextLine(); r++) {
+                        String[] tokens = scanner.nextLine().trim().split("\\s+");
+                        for (int c = 0; c < ZONE_GRID_WIDTH && c < tokens.length; c++) {
                             try {
-                                mapDataField[r][c] = Integer.parseInt(tokens[c]);
+                                zones[r * ZONE_GRID_WIDTH + c] = (byte) Integer.parseInt(tokens[c]);
                             } catch (NumberFormatException e) {
-                                mapDataField[r][c] = TILE_SEA; // Default on error
+                                zones[r * ZONE_GRID_WIDTH + c] = 0;
                             }
                         }
                     }
+                    encounterZones = zones;
+                    return true;
                 }
             }
-            scanner.close();
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return false;
+    }
 
-        initializeTown();
-        initializeCave();
+    /**
+     * Derives encounter zones from the distance to the start position, for maps
+     * without an authored zone grid: every two zone cells away from the start
+     * cell is one zone further, up to {@link #DEFAULT_ZONE_COUNT} zones.
+     */
+    private static void deriveZones() {
+        int startCellRow = startRow / ZONE_CELL_SIZE;
+        int startCellCol = startCol / ZONE_CELL_SIZE;
+        byte[] zones = new byte[ZONE_GRID_WIDTH * ZONE_GRID_WIDTH];
+        for (int r = 0; r < ZONE_GRID_WIDTH; r++) {
+            for (int c = 0; c < ZONE_GRID_WIDTH; c++) {
+                int distance = Math.max(Math.abs(r - startCellRow), Math.abs(c - startCellCol));
+                zones[r * ZONE_GRID_WIDTH + c] = (byte) Math.min(DEFAULT_ZONE_COUNT - 1, distance / 2);
+            }
+        }
+        encounterZones = zones;
+    }
+
+    /**
+     * Returns the encounter zone of a field tile.
+     *
+     * @param row The row index on the field map.
+     * @param col The column index on the field map.
+     * @return The zone id; 0 outside the field.
+     */
+    public static int getEncounterZone(int row, int col) {
+        if (row < 0 || row >= FIELD_MAP_WIDTH || col < 0 || col >= FIELD_MAP_WIDTH) {
+            return 0;
+        }
+        return encounterZones[(row / ZONE_CELL_SIZE) * ZONE_GRID_WIDTH + col / ZONE_CELL_SIZE];
+    }
+
+    /**
+     * Generates the overworld field map from a seed and replaces the location
+     * names and the start position with those of the generated world.
+     *
+     * @param seed The world seed.
+     */
+    private static void generateField(long seed) {
+        long start = System.nanoTime();
+        WorldGenerator.World world = new WorldGenerator(seed, FIELD_MAP_WIDTH, FIELD_MAP_WIDTH).generate();
+        int[][] tiles = world.getTiles();
+        for (int r = 0; r < FIELD_MAP_WIDTH; r++) {
+            System.arraycopy(tiles[r], 0, mapDataField[r], 0, FIELD_MAP_WIDTH);
+        }
+        castleNames.clear();
+        castleNames.putAll(world.getCastleNames());
+        townNames.clear();
+        townNames.putAll(world.getTownNames());
+        caveNames.clear();
+        caveNames.putAll(world.getCaveNames());
+        if (world.getStart() != null) {
+            startRow = world.getStart().y;
+            startCol = world.getStart().x;
+        }
+        System.out.println("Generated world from seed " + seed + " in " + (System.nanoTime() - start) / 1_000_000
+                + " ms");
+    }
+
+    /**
+     * Returns the row the player starts a new game on in the field map.
+     *
+     * @return The start row.
+     */
+    public static int getStartRow() {
+        return startRow;
+    }
+
+    /**
+     * Returns the column the player starts a new game on in the field map.
+     *
+     * @return The start column.
+     */
+    public static int getStartCol() {
+        return startCol;
     }
 
     /**
@@ -301,143 +614,17 @@ public class fieldMapData {
         }
         mapDataTown[11][10] = TILE_FLOOR; // Door
         mapDataTown[9][10] = TILE_HOUSE;
+
+        townPassability.rebuild(mapDataTown);
     }
 
     /**
-     * Initializes the layout of a generic cave map by generating a random maze.
-     * The maze will have an entrance at the bottom and a treasure chest at a
-     * distant dead-end.
+     * Initializes the cave with a freshly generated first floor.
+     * The maze has an entrance at the bottom, a treasure chest at the most distant
+     * dead-end and stairs down at the next most distant one.
      */
     private static void initializeCave() {
-        mapDataCave = generateRandomMaze(16, 16);
-        // Ensure entrance is clear
-        mapDataCave[15][7] = TILE_FLOOR;
-        mapDataCave[15][8] = TILE_FLOOR;
-
-        // Place a treasure chest at a suitable location (a distant dead-end)
-        placeTreasureChestInCave();
-    }
-
-    /**
-     * Generates a random maze using a recursive backtracking algorithm.
-     *
-     * @param width  The width of the maze.
-     * @param height The height of the maze.
-     * @return A 2D integer array representing the maze with walls and floors.
-     */
-    private static int[][] generateRandomMaze(int width, int height) {
-        int[][] maze = new int[height][width];
-        // Initialize maze with walls
-        for (int r = 0; r < height; r++) {
-            for (int c = 0; c < width; c++) {
-                maze[r][c] = TILE_WALL;
-            }
-        }
-
-        Random rand = new Random();
-        Stack<int[]> stack = new Stack<>();
-        int startR = 1; // Start inside the border
-        int startC = 1;
-        maze[startR][startC] = TILE_FLOOR;
-        stack.push(new int[] { startR, startC });
-
-        while (!stack.isEmpty()) {
-            int[] current = stack.peek();
-            int r = current[0];
-            int c = current[1];
-
-            List<int[]> neighbors = new ArrayList<>();
-            // Check neighbors (2 cells away)
-            int[] dr = { -2, 2, 0, 0 };
-            int[] dc = { 0, 0, -2, 2 };
-
-            for (int i = 0; i < 4; i++) {
-                int nr = r + dr[i];
-                int nc = c + dc[i];
-                if (nr > 0 && nr < height - 1 && nc > 0 && nc < width - 1 && maze[nr][nc] == TILE_WALL) {
-                    neighbors.add(new int[] { nr, nc });
-                }
-            }
-
-            if (!neighbors.isEmpty()) {
-                Collections.shuffle(neighbors, rand);
-                int[] next = neighbors.get(0);
-                int nr = next[0];
-                int nc = next[1];
-
-                // Carve path to neighbor
-                maze[nr][nc] = TILE_FLOOR;
-                maze[r + (nr - r) / 2][c + (nc - c) / 2] = TILE_FLOOR;
-                stack.push(next);
-            } else {
-                stack.pop();
-            }
-        }
-
-        // Carve a path down to the exit
-        // This ensures the generated maze is always connected to the bottom entrance
-        int exitC = width / 2;
-        if (maze[height - 3][exitC] == TILE_WALL) {
-            maze[height - 3][exitC] = TILE_FLOOR;
-        }
-        maze[height - 2][exitC - 1] = TILE_FLOOR;
-        maze[height - 2][exitC] = TILE_FLOOR;
-
-        return maze;
-    }
-
-    /**
-     * Finds a suitable dead-end in the cave and places a treasure chest there.
-     * The chosen location is the dead-end farthest from the entrance.
-     * 
-     * @return An int array {row, col} indicating the location of the placed
-     *         treasure chest,
-     *         or a default {2, 2} if no suitable dead-end is found.
-     */
-    private static void placeTreasureChestInCave() {
-        List<int[]> deadEnds = new ArrayList<>();
-        for (int r = 1; r < 15; r++) {
-            for (int c = 1; c < 15; c++) {
-                if (mapDataCave[r][c] == TILE_FLOOR) {
-                    int floorNeighbors = 0;
-                    if (mapDataCave[r - 1][c] == TILE_FLOOR)
-                        floorNeighbors++;
-                    if (mapDataCave[r + 1][c] == TILE_FLOOR)
-                        floorNeighbors++;
-                    if (mapDataCave[r][c - 1] == TILE_FLOOR)
-                        floorNeighbors++;
-                    if (mapDataCave[r][c + 1] == TILE_FLOOR)
-                        floorNeighbors++;
-
-                    if (floorNeighbors == 1) {
-                        deadEnds.add(new int[] { r, c });
-                    }
-                }
-            }
-        }
-
-        int[] bestLocation = { 2, 2 }; // Default location if no dead-end found
-        double maxDistance = -1;
-        int entranceR = 15; // Assuming entrance is at the bottom center
-        int entranceC = 7;
-
-        if (!deadEnds.isEmpty()) {
-            for (int[] loc : deadEnds) {
-                // Calculate Euclidean distance from entrance
-                double dist = Math.sqrt(Math.pow(loc[0] - entranceR, 2) + Math.pow(loc[1] - entranceC, 2));
-                if (dist > maxDistance) {
-                    maxDistance = dist;
-                    bestLocation = loc;
-                }
-            }
-            mapDataCave[bestLocation[0]][bestLocation[1]] = TILE_CHEST;
-        } else {
-            // If no dead ends, place chest at a default (e.g., near start, but not
-            // entrance)
-            mapDataCave[bestLocation[0]][bestLocation[1]] = TILE_CHEST;
-        }
-
-        caveChestLocation = bestLocation;
+        setCaveFloor(DungeonFloor.generate(1, new Random().nextLong()));
     }
 
     /**
@@ -459,6 +646,22 @@ public class fieldMapData {
         return null;
     }
 
+    /**
+     * Returns every named castle, town and cave on the field map.
+     * 
+     * @return A map from location name to its coordinates ({@code x} = column,
+     *         {@code y} = row).
+     */
+    public static Map<String, Point> getNamedLocations() {
+        Map<String, Point> locations = new java.util.LinkedHashMap<>();
+        for (Map<Point, String> names : List.of(castleNames, townNames, caveNames)) {
+            for (Map.Entry<Point, String> entry : names.entrySet()) {
+                locations.put(entry.getValue(), new Point(entry.getKey()));
+            }
+        }
+        return locations;
+    }
+
     static {
         // Initialize Location Names
         // Coordinates must match those in generate_alefgard.py